@@ -0,0 +1,113 @@
+package cvut.fel.ear.room.meeting.benchmark;
+
+import cvut.fel.ear.room.meeting.Application;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.entity.User;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.repository.UserRepository;
+import cvut.fel.ear.room.meeting.service.AvailabilityService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Boots the application against an in-memory H2 database and seeds it with {@code reservations} rows before
+ * each trial. Rooms and users grow with the dataset, so every user holds about ten reservations.
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    private static final int CHUNK = 5_000;
+
+    @Param({"100", "10000", "100000", "1000000"})
+    public int reservations;
+
+    public ConfigurableApplicationContext context;
+
+    public BenchmarkGenerator generator;
+
+    public List<Room> rooms;
+
+    public List<Long> reservationIds;
+
+    public YearMonth month;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.sql.init.mode=never",
+                        "--logging.level.root=WARN");
+        generator = new BenchmarkGenerator();
+        month = YearMonth.now();
+        seed();
+        bean(AvailabilityService.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Runs {@code work} in one persistence context, the way open-session-in-view wraps a web request, so the
+     * services may walk lazy associations of the entities they load.
+     */
+    public <T> T inRequest(Supplier<T> work) {
+        return new TransactionTemplate(bean(PlatformTransactionManager.class)).execute(status -> work.get());
+    }
+
+
+    private void seed() {
+        RoomRepository roomRepository = bean(RoomRepository.class);
+        ReservationRepository reservationRepository = bean(ReservationRepository.class);
+        UserRepository userRepository = bean(UserRepository.class);
+        JdbcTemplate jdbcTemplate = bean(JdbcTemplate.class);
+
+        rooms = new ArrayList<>();
+        roomRepository.saveAll(generator.generateRooms(Math.max(10, reservations / 1_000))).forEach(rooms::add);
+
+        reservationIds = new ArrayList<>(reservations);
+        List<Reservation> chunk = new ArrayList<>(CHUNK);
+        for (int i = 0; i < reservations; i++) {
+            chunk.add(generator.generateReservation(rooms, month));
+            if (chunk.size() == CHUNK || i == reservations - 1) {
+                reservationRepository.saveAll(chunk).forEach(saved -> reservationIds.add(saved.getId()));
+                chunk.clear();
+            }
+        }
+
+        int userCount = Math.max(1, reservations / 10);
+        List<Object[]> memberships = new ArrayList<>(reservations);
+        for (int i = 0; i < userCount; i++) {
+            User user = userRepository.save(generator.generateUser(i));
+            for (int j = i; j < reservationIds.size(); j += userCount) {
+                memberships.add(new Object[]{user.getId(), reservationIds.get(j)});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO user_has_reservation (user_id, reservation_id) VALUES (?, ?)", memberships);
+    }
+}
@@ -0,0 +1,58 @@
+package cvut.fel.ear.room.meeting.benchmark;
+
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.entity.User;
+import cvut.fel.ear.room.meeting.util.AppGenerator;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates benchmark datasets from a fixed seed, so every run works with the same rooms and calendar.
+ */
+public class BenchmarkGenerator extends AppGenerator {
+
+    private static final long SEED = 20221212L;
+
+    private final Random random = new Random(SEED);
+
+    public List<Room> generateRooms(int count) {
+        List<Room> rooms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Room room = genereateRoom();
+            room.setName("Room " + i);
+            room.setPricePerHour(100D + random.nextInt(400));
+            rooms.add(room);
+        }
+        return rooms;
+    }
+
+    public User generateUser(int number) {
+        User user = generateUser();
+        user.setUsername("user" + number);
+        user.setEmail("user" + number + "@bench.com");
+        return user;
+    }
+
+    /**
+     * Reservations of one to three hours spread over the given month, each placed in a random room.
+     */
+    public Reservation generateReservation(List<Room> rooms, YearMonth month) {
+        LocalDateTime start = month.atDay(1 + random.nextInt(month.lengthOfMonth()))
+                .atTime(7 + random.nextInt(12), random.nextInt(4) * 15);
+        Reservation reservation = new Reservation();
+        reservation.setPrice(100D);
+        reservation.setReservationDateTimeStart(start);
+        reservation.setReservationDateTimeEnd(start.plusHours(1 + random.nextInt(3)));
+        reservation.setRoomReservation(rooms.get(random.nextInt(rooms.size())));
+        return reservation;
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+}
@@ -0,0 +1,40 @@
+package cvut.fel.ear.room.meeting.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the request execution modes: more concurrent clients than Tomcat's default 200 worker threads,
+ * each reading a reservation over HTTP. Compare the {@code virtualThreads} rows; the gap grows with the database
+ * round-trip time, which in-memory H2 keeps close to zero.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+public class RequestExecutionBenchmark {
+
+    @Benchmark
+    public int getReservation(WebApplicationState application) throws IOException, InterruptedException {
+        Long id = application.reservationIds.get(
+                ThreadLocalRandom.current().nextInt(application.reservationIds.size()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(application.baseUrl + "/reservation/" + id))
+                .header(HttpHeaders.AUTHORIZATION, application.authorization)
+                .GET()
+                .build();
+        HttpResponse<Void> response = application.client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,94 @@
+package cvut.fel.ear.room.meeting.benchmark;
+
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.service.ReservationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationServiceBenchmark {
+
+    private static final int PRICED = 1024;
+
+    static final int DELETED_PER_ITERATION = 1000;
+
+    /**
+     * Reservations with their room and payment loaded once per trial and cycled through.
+     */
+    @State(Scope.Thread)
+    public static class PricedReservations {
+
+        private final Reservation[] reservations = new Reservation[PRICED];
+
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp(ApplicationState application) {
+            ReservationRepository repository = application.bean(ReservationRepository.class);
+            for (int i = 0; i < PRICED; i++) {
+                Long id = application.reservationIds.get(
+                        application.generator.nextInt(application.reservationIds.size()));
+                reservations[i] = repository.findWithRoomAndPaymentById(id).orElseThrow();
+            }
+        }
+
+        public Reservation next() {
+            next = (next + 1) % PRICED;
+            return reservations[next];
+        }
+    }
+
+    /**
+     * Reservations saved in one batch before each iteration, one for every delete of the iteration.
+     */
+    @State(Scope.Thread)
+    public static class DisposableReservations {
+
+        public final Deque<Long> reservationIds = new ArrayDeque<>(DELETED_PER_ITERATION);
+
+        @Setup(Level.Iteration)
+        public void setUp(ApplicationState application) {
+            List<Reservation> reservations = new ArrayList<>(DELETED_PER_ITERATION);
+            for (int i = 0; i < DELETED_PER_ITERATION; i++) {
+                reservations.add(application.generator.generateReservation(application.rooms, application.month));
+            }
+            reservationIds.clear();
+            application.bean(ReservationRepository.class).saveAll(reservations)
+                    .forEach(saved -> reservationIds.add(saved.getId()));
+        }
+    }
+
+    @Benchmark
+    public Double addPriceToReservation(ApplicationState application, PricedReservations priced) {
+        Reservation reservation = priced.next();
+        application.bean(ReservationService.class).addPriceToReservation(reservation);
+        return reservation.getPrice();
+    }
+
+    /**
+     * Each reservation can only be deleted once, so an iteration is a single shot of
+     * {@value #DELETED_PER_ITERATION} deletes and the score is the time of all of them.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = DELETED_PER_ITERATION)
+    @Measurement(iterations = 5, batchSize = DELETED_PER_ITERATION)
+    public void deleteReservation(ApplicationState application, DisposableReservations disposable) {
+        Long reservationId = disposable.reservationIds.pop();
+        application.inRequest(() -> {
+            application.bean(ReservationService.class).deleteReservation(reservationId);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package cvut.fel.ear.room.meeting.benchmark;
+
+import cvut.fel.ear.room.meeting.dto.response.RoomSummary;
+import cvut.fel.ear.room.meeting.service.RoomService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomServiceBenchmark {
+
+    private static final int WINDOWS = 1024;
+
+    /**
+     * One-hour windows drawn once per trial and cycled through, so no setup runs between calls.
+     */
+    @State(Scope.Thread)
+    public static class Windows {
+
+        private final LocalDateTime[] starts = new LocalDateTime[WINDOWS];
+
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp(ApplicationState application) {
+            for (int i = 0; i < WINDOWS; i++) {
+                starts[i] = application.month.atDay(1 + application.generator.nextInt(
+                        application.month.lengthOfMonth())).atTime(7 + application.generator.nextInt(12), 0);
+            }
+        }
+
+        public LocalDateTime next() {
+            next = (next + 1) % WINDOWS;
+            return starts[next];
+        }
+    }
+
+    @Benchmark
+    public List<RoomSummary> getFreeRoomsBetweenTime(ApplicationState application, Windows windows) {
+        LocalDateTime start = windows.next();
+        return application.bean(RoomService.class).getFreeRoomsBetweenTime(start, start.plusHours(1));
+    }
+}
@@ -0,0 +1,76 @@
+package cvut.fel.ear.room.meeting.benchmark;
+
+import cvut.fel.ear.room.meeting.entity.User;
+import cvut.fel.ear.room.meeting.repository.UserRepository;
+import cvut.fel.ear.room.meeting.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = UserServiceBenchmark.BOOKINGS_PER_ITERATION)
+@Measurement(iterations = 10, batchSize = UserServiceBenchmark.BOOKINGS_PER_ITERATION)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    /**
+     * Every place of the ten rooms each dataset has at least.
+     */
+    static final int BOOKINGS_PER_ITERATION = 10 * 5;
+
+    private static final AtomicInteger USERS = new AtomicInteger(10_000_000);
+
+    /**
+     * New users and emptied rooms before each iteration, one booking per place, so the capacity limit never rejects
+     * a booking. The score is the time of all bookings of the iteration.
+     */
+    @State(Scope.Thread)
+    public static class Bookings {
+
+        public final Deque<Long> userIds = new ArrayDeque<>(BOOKINGS_PER_ITERATION);
+
+        public final Deque<Long> reservationIds = new ArrayDeque<>(BOOKINGS_PER_ITERATION);
+
+        private List<Long> perRoom;
+
+        @Setup(Level.Trial)
+        public void pickReservations(ApplicationState application) {
+            perRoom = application.bean(JdbcTemplate.class).queryForList(
+                    "SELECT MIN(id) FROM room_reservations WHERE room_reservation IS NOT NULL " +
+                            "GROUP BY room_reservation ORDER BY 1 LIMIT ?",
+                    Long.class, BOOKINGS_PER_ITERATION / UserService.MAX_ROOM_CAPACITY);
+        }
+
+        @Setup(Level.Iteration)
+        public void setUp(ApplicationState application) {
+            List<User> users = new ArrayList<>(BOOKINGS_PER_ITERATION);
+            for (int i = 0; i < BOOKINGS_PER_ITERATION; i++) {
+                users.add(application.generator.generateUser(USERS.incrementAndGet()));
+            }
+            userIds.clear();
+            application.bean(UserRepository.class).saveAll(users).forEach(saved -> userIds.add(saved.getId()));
+            reservationIds.clear();
+            for (int i = 0; i < BOOKINGS_PER_ITERATION; i++) {
+                reservationIds.add(perRoom.get(i % perRoom.size()));
+            }
+            application.bean(JdbcTemplate.class).update("UPDATE room SET room_capacity = 0");
+        }
+    }
+
+    @Benchmark
+    public void addUserReservation(ApplicationState application, Bookings bookings) {
+        Long userId = bookings.userIds.pop();
+        Long reservationId = bookings.reservationIds.pop();
+        application.inRequest(() -> {
+            application.bean(UserService.class).addUserReservation(userId, reservationId);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package cvut.fel.ear.room.meeting.benchmark;
+
+import cvut.fel.ear.room.meeting.Application;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.entity.User;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.repository.UserRepository;
+import cvut.fel.ear.room.meeting.security.SignedTokenService;
+import cvut.fel.ear.room.meeting.security.model.UserDetails;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application with its embedded Tomcat on a random port, in platform or virtual thread mode, and signs
+ * a bearer token for a seeded user so the load test can call secured endpoints over HTTP.
+ */
+@State(Scope.Benchmark)
+public class WebApplicationState {
+
+    private static final int RESERVATIONS = 1_000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    public ServletWebServerApplicationContext context;
+
+    public HttpClient client;
+
+    public String baseUrl;
+
+    public String authorization;
+
+    public List<Long> reservationIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(Application.class)
+                .run(
+                        "--spring.main.banner-mode=off",
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:web-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.sql.init.mode=never",
+                        "--app.virtual-threads.enabled=" + virtualThreads,
+                        "--app.security.token.enabled=true",
+                        "--app.security.token.secret=benchmark-secret-benchmark-secret",
+                        "--logging.level.root=WARN");
+        BenchmarkGenerator generator = new BenchmarkGenerator();
+        List<Room> rooms = new ArrayList<>();
+        context.getBean(RoomRepository.class).saveAll(generator.generateRooms(10)).forEach(rooms::add);
+        List<Reservation> reservations = new ArrayList<>(RESERVATIONS);
+        for (int i = 0; i < RESERVATIONS; i++) {
+            reservations.add(generator.generateReservation(rooms, YearMonth.now()));
+        }
+        reservationIds = new ArrayList<>(RESERVATIONS);
+        context.getBean(ReservationRepository.class).saveAll(reservations)
+                .forEach(saved -> reservationIds.add(saved.getId()));
+        User user = context.getBean(UserRepository.class).save(generator.generateUser(0));
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = "http://localhost:" + context.getWebServer().getPort();
+        authorization = "Bearer " + context.getBean(SignedTokenService.class).issue(new UserDetails(user));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
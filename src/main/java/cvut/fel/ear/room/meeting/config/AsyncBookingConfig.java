@@ -0,0 +1,54 @@
+package cvut.fel.ear.room.meeting.config;
+
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.service.ReservationService;
+import cvut.fel.ear.room.meeting.service.UserService;
+import cvut.fel.ear.room.meeting.service.booking.AsyncBookingService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.Executor;
+
+/**
+ * With {@code app.booking.async.enabled}, bookings can be submitted to {@code /booking} and are applied in the
+ * background by {@link AsyncBookingService}. The synchronous endpoints stay available.
+ */
+@Configuration
+@ConditionalOnProperty(name = AsyncBookingConfig.ENABLED, havingValue = "true")
+@EnableConfigurationProperties(AsyncBookingProperties.class)
+public class AsyncBookingConfig {
+
+    public static final String ENABLED = "app.booking.async.enabled";
+
+    /**
+     * Completion callbacks are sent from the task executor, so a slow receiver does not hold up a booking worker.
+     */
+    @Bean
+    public AsyncBookingService asyncBookingService(
+            ReservationService reservationService, UserService userService,
+            ReservationRepository reservationRepository, RoomRepository roomRepository,
+            PlatformTransactionManager txManager, RestTemplateBuilder restTemplateBuilder,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor,
+            AsyncBookingProperties properties, MeterRegistry registry) {
+        AsyncBookingService service = new AsyncBookingService(reservationService, userService,
+                reservationRepository, roomRepository, txManager,
+                restTemplateBuilder
+                        .setConnectTimeout(properties.getCallbackTimeout())
+                        .setReadTimeout(properties.getCallbackTimeout())
+                        .build(),
+                taskExecutor, properties);
+        Gauge.builder("app.booking.queued", service, AsyncBookingService::queued)
+                .description("Bookings accepted but not yet applied")
+                .register(registry);
+        return service;
+    }
+}
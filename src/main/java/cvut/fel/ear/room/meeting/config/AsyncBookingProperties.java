@@ -0,0 +1,113 @@
+package cvut.fel.ear.room.meeting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.booking.async")
+public class AsyncBookingProperties {
+
+    /**
+     * Accept bookings at {@code /booking} and apply them in the background.
+     */
+    private boolean enabled;
+
+    /**
+     * Threads applying queued bookings. Each works on one room at a time and holds one connection.
+     */
+    private int workers = 4;
+
+    /**
+     * Bookings waiting per room. Further bookings of the room are refused with 503 until the queue drains.
+     */
+    private int queueCapacity = 100;
+
+    /**
+     * Bookings of one room applied in a single transaction.
+     */
+    private int maxBatchSize = 20;
+
+    /**
+     * How long the outcome of a booking can be polled.
+     */
+    private Duration ticketTtl = Duration.ofMinutes(15);
+
+    private int maxTickets = 100_000;
+
+    /**
+     * Connect and read timeout of completion callbacks.
+     */
+    private Duration callbackTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Hosts completion callbacks may be sent to. Callbacks are posted from the server, so any other host, internal
+     * ones included, is refused; with no hosts listed callbacks are disabled.
+     */
+    private List<String> callbackHosts = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Duration getTicketTtl() {
+        return ticketTtl;
+    }
+
+    public void setTicketTtl(Duration ticketTtl) {
+        this.ticketTtl = ticketTtl;
+    }
+
+    public int getMaxTickets() {
+        return maxTickets;
+    }
+
+    public void setMaxTickets(int maxTickets) {
+        this.maxTickets = maxTickets;
+    }
+
+    public Duration getCallbackTimeout() {
+        return callbackTimeout;
+    }
+
+    public void setCallbackTimeout(Duration callbackTimeout) {
+        this.callbackTimeout = callbackTimeout;
+    }
+
+    public List<String> getCallbackHosts() {
+        return callbackHosts;
+    }
+
+    public void setCallbackHosts(List<String> callbackHosts) {
+        this.callbackHosts = callbackHosts;
+    }
+}
@@ -0,0 +1,53 @@
+package cvut.fel.ear.room.meeting.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Caches for entities that are read on nearly every request but change rarely. Every region records statistics,
+ * which the actuator publishes as {@code cache.gets}, {@code cache.puts} and {@code cache.evictions}.
+ * <p>
+ * Evictions issued inside a transaction are applied only after it commits, so a concurrent reader cannot put the
+ * old state back into the cache.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheRegionProperties.class)
+public class CacheConfig {
+
+    public static final String ROOMS = "rooms";
+
+    public static final String ROOMS_BY_NAME = "roomsByName";
+
+    public static final String USERS = "users";
+
+    public static final String USERS_BY_USERNAME = "usersByUsername";
+
+    public static final String ADMINS = "admins";
+
+    public static final String VERIFIED_CREDENTIALS = "verifiedCredentials";
+
+    public static final List<String> REGIONS =
+            List.of(ROOMS, ROOMS_BY_NAME, USERS, USERS_BY_USERNAME, ADMINS, VERIFIED_CREDENTIALS);
+
+    @Bean
+    public CacheManager cacheManager(CacheRegionProperties properties) {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        // Only the regions below exist, a typo in a cache name fails instead of creating an unbounded cache
+        manager.setCacheNames(List.of());
+        // Exceptions are never cached and misses are not worth remembering
+        manager.setAllowNullValues(false);
+        for (String region : REGIONS) {
+            manager.registerCustomCache(region, Caffeine.from(properties.specOf(region)).recordStats().build());
+        }
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+}
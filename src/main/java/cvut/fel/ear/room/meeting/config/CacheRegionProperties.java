@@ -0,0 +1,38 @@
+package cvut.fel.ear.room.meeting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caffeine specification per cache region, e.g. {@code rooms: maximumSize=500,expireAfterWrite=10m}. Regions without
+ * an entry use {@link #defaultSpec}.
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheRegionProperties {
+
+    private String defaultSpec = "maximumSize=1000,expireAfterWrite=10m";
+
+    private Map<String, String> regions = new HashMap<>();
+
+    public String getDefaultSpec() {
+        return defaultSpec;
+    }
+
+    public void setDefaultSpec(String defaultSpec) {
+        this.defaultSpec = defaultSpec;
+    }
+
+    public Map<String, String> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(Map<String, String> regions) {
+        this.regions = regions;
+    }
+
+    public String specOf(String region) {
+        return regions.getOrDefault(region, defaultSpec);
+    }
+}
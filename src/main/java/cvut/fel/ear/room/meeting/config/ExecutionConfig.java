@@ -0,0 +1,94 @@
+package cvut.fel.ear.room.meeting.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * With {@code app.virtual-threads.enabled}, servlet requests and asynchronous work run on virtual threads instead
+ * of the bounded platform pools. A request blocked on JDBC then parks its virtual thread rather than holding a
+ * Tomcat worker, so requests in flight are no longer bounded by a thread count; those needing a connection wait
+ * in Hikari.
+ * <p>
+ * Without the property Spring Boot's default Tomcat pool and task executor are used.
+ */
+@Configuration
+@EnableAsync
+public class ExecutionConfig {
+
+    private static final String VIRTUAL_THREADS = "app.virtual-threads.enabled";
+
+    private static final String CONNECTION_BOUND_EXECUTOR = "connectionBoundTaskExecutor";
+
+    @Bean
+    @ConditionalOnProperty(name = VIRTUAL_THREADS, havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadRequestExecutor() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Replaces Boot's task executor, which fans out server-sent events and sends booking callbacks. None of that
+     * holds a connection, and callers such as after-commit listeners and the scheduler must never wait for it, so
+     * every task gets its own virtual thread at once.
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    @ConditionalOnProperty(name = VIRTUAL_THREADS, havingValue = "true")
+    public AsyncTaskExecutor virtualThreadTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+        executor.setThreadFactory(Thread.ofVirtual().name("async-", 0).factory());
+        return executor;
+    }
+
+    /**
+     * Runs {@code @Async} methods and asynchronous MVC responses such as the reservation export, which nearly
+     * always need a connection. A task waits for one of as many permits as the pool has connections on its own
+     * virtual thread, so {@code execute} never blocks the caller and the tasks do not queue inside Hikari.
+     */
+    @Bean(name = {CONNECTION_BOUND_EXECUTOR, AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    @ConditionalOnProperty(name = VIRTUAL_THREADS, havingValue = "true")
+    public AsyncTaskExecutor connectionBoundTaskExecutor(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        Semaphore connections = new Semaphore(connectionPoolSize);
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+        executor.setThreadFactory(Thread.ofVirtual().name("async-db-", 0).factory());
+        executor.setTaskDecorator(task -> () -> {
+            connections.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                connections.release();
+            }
+        });
+        return executor;
+    }
+
+    /**
+     * Ordered after Boot's MVC configuration, which hands asynchronous requests to the application task executor.
+     */
+    @Bean
+    @Order
+    @ConditionalOnProperty(name = VIRTUAL_THREADS, havingValue = "true")
+    public WebMvcConfigurer connectionBoundAsyncRequests(
+            @Qualifier(CONNECTION_BOUND_EXECUTOR) AsyncTaskExecutor executor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(executor);
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package cvut.fel.ear.room.meeting.config;
+
+import cvut.fel.ear.room.meeting.controller.idempotency.IdempotencyFilter;
+import cvut.fel.ear.room.meeting.service.IdempotencyService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies {@link IdempotencyFilter} to the booking and payment endpoints that clients retry. The registration has
+ * the default lowest order, so the filter runs after Spring Security and sees the authenticated user.
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyService service) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(service));
+        registration.addUrlPatterns("/reservation/room", "/user/reservation", "/payment", "/payment/",
+                "/booking/reservation/room", "/booking/user/reservation");
+        return registration;
+    }
+}
@@ -0,0 +1,50 @@
+package cvut.fel.ear.room.meeting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * How long a stored response is replayed for its key.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * After this long a claim whose request never finished, e.g. because the instance died, is given up. Requests
+     * still running on the instance that claimed the key keep their claim; other instances only see its age, so this
+     * should be longer than the slowest request.
+     */
+    private Duration pendingTimeout = Duration.ofMinutes(1);
+
+    /**
+     * Responses kept in memory in front of the database.
+     */
+    private int maxEntries = 10_000;
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getPendingTimeout() {
+        return pendingTimeout;
+    }
+
+    public void setPendingTimeout(Duration pendingTimeout) {
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
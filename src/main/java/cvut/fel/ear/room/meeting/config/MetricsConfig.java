@@ -0,0 +1,63 @@
+package cvut.fel.ear.room.meeting.config;
+
+import cvut.fel.ear.room.meeting.metrics.JdbcMetricsListener;
+import cvut.fel.ear.room.meeting.metrics.ServiceMetricsAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Service timers, JDBC statement metrics and, through Spring Boot, Hikari pool gauges, all published at
+ * {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * The data source the application uses when reads are not routed to a replica.
+     */
+    private static final String DATA_SOURCE = "dataSource";
+
+    /**
+     * With replica routing, the pools behind the router, tagged with the route a statement took.
+     */
+    private static final Map<String, String> ROUTED_DATA_SOURCES = Map.of(
+            "primaryDataSource", "primary",
+            "replicaDataSource", "replica");
+
+    @Bean
+    public ServiceMetricsAspect serviceMetricsAspect(MeterRegistry registry) {
+        return new ServiceMetricsAspect(registry);
+    }
+
+    /**
+     * Wraps the application's data source so every statement is measured. With replica routing the primary and
+     * replica pools are wrapped instead of the router, so statements are tagged with the pool they ran on. Hikari
+     * stays reachable through {@link DataSource#unwrap}, which Boot uses to bind the pool gauges.
+     */
+    @Bean
+    public static BeanPostProcessor jdbcMetricsPostProcessor(ObjectProvider<MeterRegistry> registry,
+                                                             Environment environment) {
+        boolean routed = environment.getProperty("app.datasource.replica.enabled", Boolean.class, false);
+        Map<String, String> measured = routed ? ROUTED_DATA_SOURCES : Map.of(DATA_SOURCE, DATA_SOURCE);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || !measured.containsKey(beanName)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(measured.get(beanName))
+                        .listener(new JdbcMetricsListener(registry::getIfAvailable))
+                        .build();
+            }
+        };
+    }
+}
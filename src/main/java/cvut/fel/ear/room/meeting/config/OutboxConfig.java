@@ -0,0 +1,38 @@
+package cvut.fel.ear.room.meeting.config;
+
+import cvut.fel.ear.room.meeting.service.outbox.EventOutboxSink;
+import cvut.fel.ear.room.meeting.service.outbox.LoggingOutboxSink;
+import cvut.fel.ear.room.meeting.service.outbox.OutboxSink;
+import cvut.fel.ear.room.meeting.service.outbox.WebhookOutboxSink;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the {@link OutboxSink} named by {@code app.outbox.sink}.
+ */
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxConfig {
+
+    @Bean
+    public OutboxSink outboxSink(OutboxProperties properties, ApplicationEventPublisher eventPublisher,
+                                 RestTemplateBuilder restTemplateBuilder) {
+        switch (properties.getSink()) {
+            case EVENTS:
+                return new EventOutboxSink(eventPublisher);
+            case WEBHOOK:
+                if (properties.getWebhookUrl() == null) {
+                    throw new IllegalStateException("app.outbox.webhook-url must be set for the webhook sink.");
+                }
+                return new WebhookOutboxSink(restTemplateBuilder
+                        .setConnectTimeout(properties.getWebhookTimeout())
+                        .setReadTimeout(properties.getWebhookTimeout())
+                        .build(), properties.getWebhookUrl());
+            default:
+                return new LoggingOutboxSink();
+        }
+    }
+}
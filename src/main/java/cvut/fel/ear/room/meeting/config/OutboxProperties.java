@@ -0,0 +1,70 @@
+package cvut.fel.ear.room.meeting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    public enum Sink {
+        LOG, EVENTS, WEBHOOK
+    }
+
+    /**
+     * Where relayed events go: the {@code outbox} logger, in-process application events or {@link #webhookUrl}.
+     */
+    private Sink sink = Sink.LOG;
+
+    private int batchSize = 100;
+
+    /**
+     * How long published events are kept in the outbox table.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    private URI webhookUrl;
+
+    private Duration webhookTimeout = Duration.ofSeconds(5);
+
+    public Sink getSink() {
+        return sink;
+    }
+
+    public void setSink(Sink sink) {
+        this.sink = sink;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public URI getWebhookUrl() {
+        return webhookUrl;
+    }
+
+    public void setWebhookUrl(URI webhookUrl) {
+        this.webhookUrl = webhookUrl;
+    }
+
+    public Duration getWebhookTimeout() {
+        return webhookTimeout;
+    }
+
+    public void setWebhookTimeout(Duration webhookTimeout) {
+        this.webhookTimeout = webhookTimeout;
+    }
+}
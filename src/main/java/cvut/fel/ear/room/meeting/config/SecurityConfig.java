@@ -1,7 +1,13 @@
 package cvut.fel.ear.room.meeting.config;
 
+import cvut.fel.ear.room.meeting.entity.Role;
 import cvut.fel.ear.room.meeting.security.SecurityConstants;
+import cvut.fel.ear.room.meeting.security.SignedTokenService;
+import cvut.fel.ear.room.meeting.security.TokenAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
@@ -12,9 +18,11 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
 
 /*
@@ -22,6 +30,7 @@ import org.springframework.security.web.authentication.logout.LogoutSuccessHandl
  */
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(TokenProperties.class)
 @EnableGlobalMethodSecurity(prePostEnabled = true, securedEnabled = true)// Allow methods to be secured using annotation
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
@@ -38,15 +47,19 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     private final AuthenticationProvider authenticationProvider;
 
+    private final SignedTokenService tokenService;
+
     @Autowired
     public SecurityConfig(AuthenticationFailureHandler authenticationFailureHandler,
                           AuthenticationSuccessHandler authenticationSuccessHandler,
                           LogoutSuccessHandler logoutSuccessHandler,
-                          AuthenticationProvider authenticationProvider) {
+                          AuthenticationProvider authenticationProvider,
+                          SignedTokenService tokenService) {
         this.authenticationFailureHandler = authenticationFailureHandler;
         this.authenticationSuccessHandler = authenticationSuccessHandler;
         this.logoutSuccessHandler = logoutSuccessHandler;
         this.authenticationProvider = authenticationProvider;
+        this.tokenService = tokenService;
     }
 
     @Override
@@ -62,7 +75,11 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
-        http.authorizeRequests().anyRequest().permitAll().and()
+        // Actuator endpoints expose metrics and can flush caches, only health stays public
+        http.authorizeRequests()
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority(Role.ADMIN.toString())
+                .anyRequest().permitAll().and()
                 .exceptionHandling().authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
                 .and().headers().frameOptions().sameOrigin()
                 .and().authenticationProvider(authenticationProvider)
@@ -74,7 +91,14 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .passwordParameter(SecurityConstants.PASSWORD_PARAM)
                 .and()
                 .logout().invalidateHttpSession(true).deleteCookies(COOKIES_TO_DESTROY)
-                .logoutUrl(SecurityConstants.LOGOUT_URI).logoutSuccessHandler(logoutSuccessHandler)
-                .and().sessionManagement().maximumSessions(1);
+                .logoutUrl(SecurityConstants.LOGOUT_URI).logoutSuccessHandler(logoutSuccessHandler);
+        if (tokenService.isEnabled()) {
+            // Every request carries its own signed token, so instances need neither sticky nor shared sessions
+            http.sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                    .and().addFilterBefore(new TokenAuthenticationFilter(tokenService),
+                            UsernamePasswordAuthenticationFilter.class);
+        } else {
+            http.sessionManagement().maximumSessions(1);
+        }
     }
 }
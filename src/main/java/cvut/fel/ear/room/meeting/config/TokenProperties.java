@@ -0,0 +1,43 @@
+package cvut.fel.ear.room.meeting.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Stateless authentication with signed tokens instead of HTTP sessions. All instances behind a load balancer must
+ * share the same {@code secret}.
+ */
+@ConfigurationProperties(prefix = "app.security.token")
+public class TokenProperties {
+
+    private boolean enabled = false;
+
+    private String secret;
+
+    private Duration ttl = Duration.ofHours(8);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -1,6 +1,7 @@
 package cvut.fel.ear.room.meeting.controller;
 
 import cvut.fel.ear.room.meeting.dto.request.AdminRequest;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
 import cvut.fel.ear.room.meeting.entity.Admin;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
 import cvut.fel.ear.room.meeting.service.AdminService;
@@ -30,8 +31,10 @@ public class AdminController {
 
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(path = "/")
-    public ResponseEntity<Iterable<Admin>> getAdmins() {
-        return ResponseEntity.ok(adminService.getAdmins());
+    public ResponseEntity<CursorPage<Admin>> getAdmins(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(adminService.getAdmins(after, limit));
     }
 
     @ResponseStatus(HttpStatus.OK)
@@ -0,0 +1,98 @@
+package cvut.fel.ear.room.meeting.controller;
+
+import cvut.fel.ear.room.meeting.config.AsyncBookingConfig;
+import cvut.fel.ear.room.meeting.dto.request.ReservationRequest;
+import cvut.fel.ear.room.meeting.dto.request.UserRequest;
+import cvut.fel.ear.room.meeting.dto.response.BookingTicket;
+import cvut.fel.ear.room.meeting.entity.Role;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.service.booking.AsyncBookingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+/**
+ * Asynchronous variants of {@code POST /reservation/room} and {@code POST /user/reservation}. They answer
+ * {@code 202 Accepted} with a ticket at once; its outcome is polled at the {@code Location} or, with a
+ * {@code callback} URL on one of the {@code app.booking.async.callback-hosts}, posted there when the booking is
+ * done.
+ */
+@RestController
+@RequestMapping(path = "/booking")
+@ConditionalOnProperty(name = AsyncBookingConfig.ENABLED, havingValue = "true")
+public class BookingController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BookingController.class);
+    private final AsyncBookingService service;
+
+    @Autowired
+    public BookingController(AsyncBookingService service) {
+        this.service = service;
+    }
+
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
+    @PostMapping(path = "/reservation/room")
+    public ResponseEntity<BookingTicket> addReservationRoom(@RequestBody ReservationRequest reservationRequest,
+                                                            @RequestParam(required = false) URI callback,
+                                                            Authentication authentication) {
+        if (reservationRequest.id() == null) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Reservation id must be specified.");
+        }
+        if (reservationRequest.roomId() == null) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Room id must be specified.");
+        }
+        BookingTicket ticket = service.submitReservationRoom(reservationRequest.id(), reservationRequest.roomId(),
+                callback, authentication.getName());
+        LOG.debug("Booking of reservation {} into room {} was queued as {}.",
+                reservationRequest.id(), reservationRequest.roomId(), ticket.id());
+        return accepted(ticket);
+    }
+
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @PostMapping(path = "/user/reservation")
+    public ResponseEntity<BookingTicket> addUserReservation(@RequestBody UserRequest userRequest,
+                                                            @RequestParam(required = false) URI callback,
+                                                            Authentication authentication) {
+        if (userRequest.id() == null) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "User id must be specified.");
+        }
+        if (userRequest.reservationId() == null) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "Reservation id must be specified.");
+        }
+        BookingTicket ticket = service.submitUserReservation(userRequest.id(), userRequest.reservationId(),
+                callback, authentication.getName());
+        LOG.debug("Booking of user {} was queued as {}.", userRequest.id(), ticket.id());
+        return accepted(ticket);
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    @GetMapping(path = "/{ticket}")
+    public ResponseEntity<BookingTicket> getTicket(@PathVariable("ticket") String ticketId,
+                                                   Authentication authentication) {
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> Role.ADMIN.toString().equals(authority.getAuthority()));
+        return ResponseEntity.ok(service.getTicket(ticketId, authentication.getName(), admin).orElseThrow(
+                () -> new ApplicationException(HttpStatus.NOT_FOUND,
+                        "Booking with ticket " + ticketId + " does not exist or has expired.")));
+    }
+
+    private static ResponseEntity<BookingTicket> accepted(BookingTicket ticket) {
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/booking/{ticket}")
+                .buildAndExpand(ticket.id())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(ticket);
+    }
+}
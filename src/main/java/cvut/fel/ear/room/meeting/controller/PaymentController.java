@@ -1,16 +1,27 @@
 package cvut.fel.ear.room.meeting.controller;
 
 import cvut.fel.ear.room.meeting.dto.request.PaymentRequest;
+import cvut.fel.ear.room.meeting.dto.request.RevenueGrouping;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
+import cvut.fel.ear.room.meeting.dto.response.RevenueTotal;
 import cvut.fel.ear.room.meeting.entity.Payment;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
 import cvut.fel.ear.room.meeting.service.PaymentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
 
 @RestController
 @RequestMapping(path = "/payment")
@@ -26,18 +37,39 @@ public class PaymentController {
     @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping(path = "/")
-    public ResponseEntity<Iterable<Payment>> getPayments() {
-        return ResponseEntity.ok(service.getPayments());
+    public ResponseEntity<CursorPage<Payment>> getPayments(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(service.getPayments(after, limit));
     }
 
-    @ResponseStatus(HttpStatus.OK)
+    /**
+     * Answers conditional requests with 304 Not Modified. No {@code @ResponseStatus} here, it would overwrite the
+     * 304.
+     */
     @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
     @GetMapping(path = "/{id}")
-    public ResponseEntity<Payment> getPaymentById(@PathVariable("id") long reservationId) {
+    public ResponseEntity<Payment> getPaymentById(@PathVariable("id") long reservationId, WebRequest request) {
         if (reservationId <= 0) {
             throw new ApplicationException(HttpStatus.NOT_FOUND, "Payment id must be specified.");
         }
-        return ResponseEntity.ok(service.getPaymentById(reservationId));
+        Payment payment = service.getPaymentById(reservationId);
+        String eTag = eTagOf(payment);
+        if (payment.getLastModified() == null) {
+            if (request.checkNotModified(eTag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache().cachePrivate()).body(payment);
+        }
+        long lastModified = payment.getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (request.checkNotModified(eTag, lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(payment);
     }
 
 
@@ -49,6 +81,25 @@ public class PaymentController {
         );
     }
 
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping(path = "/revenue")
+    public ResponseEntity<List<RevenueTotal>> getRevenue(
+            @RequestParam(value = "by") RevenueGrouping grouping,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(service.getRevenue(grouping, from, to));
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping(path = "/revenue/total")
+    public ResponseEntity<Double> getTotalRevenue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(service.getRevenue(from, to));
+    }
+
     @ResponseStatus(HttpStatus.CREATED)
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping
@@ -86,4 +137,11 @@ public class PaymentController {
         service.deletePayment(paymentId);
         LOG.debug("Payment with id {} was successfully deleted.", paymentId);
     }
-}
\ No newline at end of file
+
+    private static String eTagOf(Payment payment) {
+        LocalDateTime modified = payment.getLastModified();
+        String version = modified == null ? "0"
+                : modified.toEpochSecond(ZoneOffset.UTC) + "." + modified.getNano();
+        return "W/\"" + payment.getId() + "-" + version + "\"";
+    }
+}
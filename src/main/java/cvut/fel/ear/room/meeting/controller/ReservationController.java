@@ -1,16 +1,22 @@
 package cvut.fel.ear.room.meeting.controller;
 
 import cvut.fel.ear.room.meeting.dto.request.ReservationRequest;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
+import cvut.fel.ear.room.meeting.dto.response.ReservationBatchItem;
+import cvut.fel.ear.room.meeting.dto.response.ReservationBatchResult;
 import cvut.fel.ear.room.meeting.entity.Reservation;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.service.ReservationExportService;
 import cvut.fel.ear.room.meeting.service.ReservationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -20,10 +26,12 @@ public class ReservationController {
 
     private static final Logger LOG = LoggerFactory.getLogger(ReservationController.class);
     private final ReservationService service;
+    private final ReservationExportService exportService;
 
     @Autowired
-    public ReservationController(ReservationService service) {
+    public ReservationController(ReservationService service, ReservationExportService exportService) {
         this.service = service;
+        this.exportService = exportService;
     }
 
     /*
@@ -33,8 +41,19 @@ public class ReservationController {
     @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping(path = "/")
-    public ResponseEntity<Iterable<Reservation>> getReservations() {
-        return ResponseEntity.ok(service.getReservations());
+    public ResponseEntity<CursorPage<Reservation>> getReservations(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(service.getReservations(after, limit));
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportReservations() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(exportService::exportReservations);
     }
 
     @ResponseStatus(HttpStatus.OK)
@@ -53,6 +72,7 @@ public class ReservationController {
     public ResponseEntity<Iterable<Reservation>> getReservationsBetween(
             @RequestBody ReservationRequest reservationRequest) {
         return ResponseEntity.ok(service.getReservationsBetween(
+                        reservationRequest.roomId(),
                         reservationRequest.reservationDateTimeStart(), reservationRequest.reservationDateTimeEnd()
                 )
         );
@@ -118,6 +138,25 @@ public class ReservationController {
         );
     }
 
+    @ResponseStatus(HttpStatus.CREATED)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(path = "/batch")
+    public ResponseEntity<ReservationBatchResult> createReservations(
+            @RequestBody List<ReservationRequest> reservationRequests) {
+        ReservationBatchResult result = service.createReservations(reservationRequests);
+        if (!result.applied()) {
+            HttpStatus status = result.items().stream()
+                    .filter(ReservationBatchItem::isRejected)
+                    .map(item -> HttpStatus.valueOf(item.status()))
+                    .filter(itemStatus -> itemStatus != HttpStatus.FAILED_DEPENDENCY)
+                    .findFirst()
+                    .orElse(HttpStatus.BAD_REQUEST);
+            return ResponseEntity.status(status).body(result);
+        }
+        LOG.debug("Batch of {} reservations was successfully created.", result.items().size());
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
     @ResponseStatus(HttpStatus.CREATED)
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
     @PostMapping(path = "/room")
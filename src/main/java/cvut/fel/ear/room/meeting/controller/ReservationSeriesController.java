@@ -0,0 +1,71 @@
+package cvut.fel.ear.room.meeting.controller;
+
+import cvut.fel.ear.room.meeting.dto.request.ReservationSeriesRequest;
+import cvut.fel.ear.room.meeting.dto.response.Occurrence;
+import cvut.fel.ear.room.meeting.entity.ReservationSeries;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.service.ReservationSeriesService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "/reservation/series")
+public class ReservationSeriesController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReservationSeriesController.class);
+    private final ReservationSeriesService service;
+
+    @Autowired
+    public ReservationSeriesController(ReservationSeriesService service) {
+        this.service = service;
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
+    @GetMapping(path = "/{id}")
+    public ResponseEntity<ReservationSeries> getSeriesById(@PathVariable("id") long seriesId) {
+        if (seriesId <= 0) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "Reservation series id must be specified.");
+        }
+        return ResponseEntity.ok(service.getSeriesById(seriesId));
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
+    @GetMapping(path = "/{id}/occurrences")
+    public ResponseEntity<List<Occurrence>> getOccurrences(
+            @PathVariable("id") long seriesId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(service.getOccurrences(seriesId, from, to));
+    }
+
+    @ResponseStatus(HttpStatus.CREATED)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping
+    public ResponseEntity<ReservationSeries> createSeries(@RequestBody ReservationSeriesRequest request) {
+        ReservationSeries series = service.createSeries(request);
+        LOG.debug("Reservation series with id {} was successfully created.", series.getId());
+        return ResponseEntity.ok(series);
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping(path = "/{id}")
+    public void deleteSeries(@PathVariable("id") long seriesId) {
+        if (seriesId <= 0) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "Reservation series id must be specified.");
+        }
+        service.deleteSeries(seriesId);
+        LOG.debug("Reservation series with id {} was successfully deleted.", seriesId);
+    }
+}
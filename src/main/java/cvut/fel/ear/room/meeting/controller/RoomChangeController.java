@@ -0,0 +1,56 @@
+package cvut.fel.ear.room.meeting.controller;
+
+import cvut.fel.ear.room.meeting.dto.response.RoomChanges;
+import cvut.fel.ear.room.meeting.service.RoomChangeService;
+import cvut.fel.ear.room.meeting.service.RoomChangeStreams;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Change feed of room calendars for clients that keep a copy, such as the screens next to the rooms. A client
+ * starts without {@code since}, which returns a reset, and then passes the returned {@code version}.
+ * <p>
+ * Only single reservations are in the feed. Occurrences of reservation series are neither in a reset nor logged as
+ * changes, and are listed by {@code GET /reservation/series/{id}/occurrences}.
+ */
+@RestController
+@RequestMapping(path = "/room")
+public class RoomChangeController {
+
+    private final RoomChangeService service;
+    private final RoomChangeStreams streams;
+
+    @Autowired
+    public RoomChangeController(RoomChangeService service, RoomChangeStreams streams) {
+        this.service = service;
+        this.streams = streams;
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
+    @GetMapping(path = "/{id}/changes")
+    public ResponseEntity<RoomChanges> getRoomChanges(
+            @PathVariable("id") long roomId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "" + RoomChangeService.MAX_CHANGES) int limit) {
+        return ResponseEntity.ok(service.getChanges(roomId, since, limit));
+    }
+
+    /**
+     * The same changes as server-sent events named {@code changes}, pushed as they are committed. Each event id is
+     * its version, so a reconnecting client resumes from {@code Last-Event-ID}.
+     */
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
+    @GetMapping(path = "/{id}/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRoomChanges(
+            @PathVariable("id") long roomId,
+            @RequestParam(required = false) Long since,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return streams.subscribe(roomId, since != null ? since : lastEventId);
+    }
+}
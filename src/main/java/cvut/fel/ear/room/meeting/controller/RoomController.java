@@ -1,18 +1,28 @@
 package cvut.fel.ear.room.meeting.controller;
 
 import cvut.fel.ear.room.meeting.dto.request.RoomRequest;
+import cvut.fel.ear.room.meeting.dto.request.RoomSearchSort;
+import cvut.fel.ear.room.meeting.dto.response.ConsistencyReport;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
+import cvut.fel.ear.room.meeting.dto.response.RoomSummary;
 import cvut.fel.ear.room.meeting.entity.Room;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.service.RoomAvailabilityHub;
 import cvut.fel.ear.room.meeting.service.RoomService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 
 @RestController
@@ -21,20 +31,25 @@ public class RoomController {
 
     private static final Logger LOG = LoggerFactory.getLogger(RoomController.class);
     private final RoomService service;
+    private final RoomAvailabilityHub availabilityHub;
 
     @Autowired
-    public RoomController(RoomService service) {
+    public RoomController(RoomService service, RoomAvailabilityHub availabilityHub) {
         this.service = service;
+        this.availabilityHub = availabilityHub;
     }
 
     @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
     @GetMapping(path = "/")
-    public ResponseEntity<Iterable<Room>> getRooms(@RequestParam(value = "free") Boolean isFree) {
+    public ResponseEntity<CursorPage<Room>> getRooms(
+            @RequestParam(value = "free") Boolean isFree,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
         if (isFree) {
-            return ResponseEntity.ok(service.getFreeRooms());
+            return ResponseEntity.ok(service.getFreeRooms(after, limit));
         } else {
-            return ResponseEntity.ok(service.getRooms());
+            return ResponseEntity.ok(service.getRooms(after, limit));
         }
     }
 
@@ -51,7 +66,7 @@ public class RoomController {
     @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
     @GetMapping(path = "/free")
-    public ResponseEntity<Iterable<Room>> getFreeRoomsBetweenTime(@RequestBody RoomRequest request) {
+    public ResponseEntity<Iterable<RoomSummary>> getFreeRoomsBetweenTime(@RequestBody RoomRequest request) {
         return ResponseEntity.ok(
                 service.getFreeRoomsBetweenTime(
                         request.reservationDateTimeStart(),
@@ -60,6 +75,59 @@ public class RoomController {
         );
     }
 
+    /**
+     * Rooms free in the optional {@code start}-{@code end} window that match every other given filter, ranked by
+     * {@code sort}. {@code next} of the page is the {@code offset} of the following page.
+     */
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
+    @GetMapping(path = "/search")
+    public ResponseEntity<CursorPage<RoomSummary>> searchRooms(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) Integer seats,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(name = "name", required = false) String namePrefix,
+            @RequestParam(defaultValue = "PRICE") RoomSearchSort sort,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(
+                service.searchRooms(start, end, seats, minPrice, maxPrice, namePrefix, sort, offset, limit));
+    }
+
+    /**
+     * Streams availability changes of the given rooms, or of all rooms without {@code rooms}, as they are booked,
+     * moved or cancelled. Clients load {@code /room/free} once and then follow this stream instead of polling it.
+     * Every given room must exist, and at most {@link RoomAvailabilityHub#MAX_ROOMS_PER_STREAM} can be given.
+     */
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
+    @GetMapping(path = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@RequestParam(name = "rooms", required = false) Set<Long> roomIds) {
+        Set<Long> rooms = roomIds == null ? Set.of() : roomIds;
+        if (rooms.size() > RoomAvailabilityHub.MAX_ROOMS_PER_STREAM) {
+            throw RoomAvailabilityHub.tooManyRooms();
+        }
+        service.checkRoomsExist(rooms);
+        return availabilityHub.subscribe(rooms);
+    }
+
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
+    @GetMapping(path = "/{id}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRoomAvailability(@PathVariable("id") long roomId) {
+        service.getRoomById(roomId);
+        return availabilityHub.subscribe(Set.of(roomId));
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping(path = "/availability/consistency")
+    public ResponseEntity<ConsistencyReport> checkAvailabilityConsistency() {
+        ConsistencyReport report = service.checkAvailabilityConsistency();
+        LOG.debug("Availability index checked, {} mismatched reservations.", report.mismatched());
+        return ResponseEntity.ok(report);
+    }
+
     @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_USER')")
     @GetMapping(path = "/{num}/capacity")
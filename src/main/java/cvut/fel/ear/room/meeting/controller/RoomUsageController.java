@@ -0,0 +1,44 @@
+package cvut.fel.ear.room.meeting.controller;
+
+import cvut.fel.ear.room.meeting.dto.response.RoomUsageBucket;
+import cvut.fel.ear.room.meeting.entity.UsageGranularity;
+import cvut.fel.ear.room.meeting.service.RoomUsageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "/room")
+public class RoomUsageController {
+
+    private final RoomUsageService service;
+
+    @Autowired
+    public RoomUsageController(RoomUsageService service) {
+        this.service = service;
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping(path = "/{id}/usage")
+    public ResponseEntity<List<RoomUsageBucket>> getRoomUsage(
+            @PathVariable("id") long roomId,
+            @RequestParam(defaultValue = "DAY") UsageGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(service.getUsage(roomId, granularity, from, to));
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(path = "/usage/rebuild")
+    public ResponseEntity<Long> rebuildRoomUsage() {
+        return ResponseEntity.ok(service.rebuild());
+    }
+}
@@ -1,6 +1,7 @@
 package cvut.fel.ear.room.meeting.controller;
 
 import cvut.fel.ear.room.meeting.dto.request.UserRequest;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
 import cvut.fel.ear.room.meeting.entity.User;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
 import cvut.fel.ear.room.meeting.service.UserService;
@@ -68,8 +69,10 @@ public class UserController {
     @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping(path = "/")
-    public ResponseEntity<Iterable<User>> getUsers() {
-        return ResponseEntity.ok(userService.getUsers());
+    public ResponseEntity<CursorPage<User>> getUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(userService.getUsers(after, limit));
     }
 
     @ResponseStatus(HttpStatus.CREATED)
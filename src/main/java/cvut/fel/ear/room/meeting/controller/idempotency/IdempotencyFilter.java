@@ -0,0 +1,229 @@
+package cvut.fel.ear.room.meeting.controller.idempotency;
+
+import cvut.fel.ear.room.meeting.entity.IdempotencyRecord;
+import cvut.fel.ear.room.meeting.service.IdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Makes POST requests that carry an {@code Idempotency-Key} header safe to retry. The first request with a key is
+ * processed and its response stored; a retry with the same key and body gets the stored response replayed with
+ * {@code Idempotent-Replayed: true} instead of being processed again. Keys are scoped to the user and path.
+ * <p>
+ * A retry arriving while the first request is still running is rejected with 409, reusing a key with a different
+ * body with 422. Server errors are not stored, so the request can be retried with the same key. Responses larger
+ * than {@link IdempotencyRecord#MAX_BODY_LENGTH} are replayed with their status only.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger LOG = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyService service;
+
+    public IdempotencyFilter(IdempotencyService service) {
+        this.service = service;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clientKey = request.getHeader(HEADER);
+        if (clientKey.isBlank() || clientKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(),
+                    HEADER + " must have between 1 and " + MAX_KEY_LENGTH + " characters.");
+            return;
+        }
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String key = sha256((currentUser() + '\0' + request.getRequestURI() + '\0' + clientKey)
+                .getBytes(StandardCharsets.UTF_8));
+        String fingerprint = sha256(body);
+
+        Optional<IdempotencyRecord> stored = service.find(key);
+        if (stored.isPresent()) {
+            replay(stored.get(), fingerprint, response);
+            return;
+        }
+        if (!service.claim(key, fingerprint)) {
+            Optional<IdempotencyRecord> winner = service.find(key);
+            if (winner.isPresent()) {
+                replay(winner.get(), fingerprint, response);
+            } else {
+                response.sendError(HttpStatus.CONFLICT.value(),
+                        "A request with this " + HEADER + " is being processed, retry later.");
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean handled = false;
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), cachingResponse);
+            handled = true;
+            store(key, cachingResponse);
+        } finally {
+            if (!handled) {
+                service.release(key);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Stores the response of a processed request. Once the request was processed the key stays claimed: when the
+     * response cannot be stored, the claim is completed with the status alone, so a retry is never processed a second
+     * time.
+     */
+    private void store(String key, ContentCachingResponseWrapper response) {
+        int status = response.getStatus();
+        if (status >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            service.release(key);
+            return;
+        }
+        byte[] content = response.getContentAsByteArray();
+        try {
+            if (content.length <= IdempotencyRecord.MAX_BODY_LENGTH) {
+                service.complete(key, status, response.getContentType(), new String(content, StandardCharsets.UTF_8));
+            } else {
+                // Too large to keep, a retry gets the status alone
+                service.complete(key, status, null, null);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Response of a request with an {} could not be stored, keeping its status only.", HEADER, e);
+            try {
+                service.completeStatus(key, status);
+            } catch (RuntimeException again) {
+                LOG.error("Request with an {} could not be completed, a retry after the pending timeout is processed"
+                        + " again.", HEADER, again);
+            }
+        }
+    }
+
+    private static void replay(IdempotencyRecord record, String fingerprint, HttpServletResponse response)
+            throws IOException {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                    HEADER + " was already used for a different request.");
+            return;
+        }
+        if (!record.isCompleted()) {
+            response.sendError(HttpStatus.CONFLICT.value(),
+                    "A request with this " + HEADER + " is being processed, retry later.");
+            return;
+        }
+        response.setStatus(record.getStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        if (record.getBody() != null && !record.getBody().isEmpty()) {
+            byte[] content = record.getBody().getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(content.length);
+            response.getOutputStream().write(content);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "" : authentication.getName();
+    }
+
+    private static String sha256(byte[] input) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(input));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Request whose body was read up front for the fingerprint and is served again to the controller.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package cvut.fel.ear.room.meeting.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Decides whether a read-only transaction may run on the replica. It may not while the replica is more than
+ * {@code maxLag} behind the primary or cannot be reached, nor for a user who wrote within the read-your-writes
+ * window, so a user sees their own booking in the next listing.
+ * <p>
+ * Recent writers are remembered in memory by user name, so read-your-writes only holds for requests served by the
+ * instance that took the write, e.g. behind a load balancer with sticky sessions. Work without an authenticated
+ * user, such as scheduled jobs, is not tracked and reads its own writes in read-write transactions.
+ */
+public class ReplicaRouting {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaRouting.class);
+
+    private static final int MAX_TRACKED_WRITERS = 100_000;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    private final JdbcTemplate replica;
+
+    private final String lagQuery;
+
+    private final Duration maxLag;
+
+    private volatile boolean lagging;
+
+    public ReplicaRouting(DataSource replica, String lagQuery, Duration maxLag, Duration readYourWritesWindow) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = StringUtils.hasText(lagQuery) ? lagQuery : null;
+        this.maxLag = maxLag;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_WRITERS)
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        // Reads stay on the primary until the first check has measured the lag
+        this.lagging = this.lagQuery != null;
+    }
+
+    public boolean canReadFromReplica() {
+        if (lagging) {
+            return false;
+        }
+        String writer = currentUser();
+        return writer == null || recentWriters.getIfPresent(writer) == null;
+    }
+
+    public void recordWrite() {
+        String writer = currentUser();
+        if (writer != null) {
+            recentWriters.put(writer, Boolean.TRUE);
+        }
+    }
+
+    public boolean isLagging() {
+        return lagging;
+    }
+
+    /**
+     * Measures the replication lag with the lag query. A failing query counts as lagging.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:PT5S}")
+    public void checkLag() {
+        if (lagQuery == null) {
+            return;
+        }
+        boolean behind;
+        try {
+            Double seconds = replica.queryForObject(lagQuery, Double.class);
+            behind = seconds == null || seconds * 1000 > maxLag.toMillis();
+        } catch (RuntimeException e) {
+            LOG.debug("Replica lag check failed.", e);
+            behind = true;
+        }
+        if (behind != lagging) {
+            LOG.warn(behind ? "Replica is lagging or unreachable, reading from the primary."
+                    : "Replica caught up, reading from the replica again.");
+        }
+        lagging = behind;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,23 @@
+package cvut.fel.ear.room.meeting.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import cvut.fel.ear.room.meeting.entity.RecurrenceFrequency;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+public record ReservationSeriesRequest(
+        Long roomId,
+        @JsonProperty("reservation_date_time_start")
+        LocalDateTime reservationDateTimeStart,
+        @JsonProperty("reservation_date_time_end")
+        LocalDateTime reservationDateTimeEnd,
+        RecurrenceFrequency frequency,
+        Integer interval,
+        Set<DayOfWeek> weekdays,
+        LocalDate until,
+        Integer count
+) {
+}
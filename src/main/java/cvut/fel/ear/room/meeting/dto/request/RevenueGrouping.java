@@ -0,0 +1,5 @@
+package cvut.fel.ear.room.meeting.dto.request;
+
+public enum RevenueGrouping {
+    PAYMENT, USER, ROOM
+}
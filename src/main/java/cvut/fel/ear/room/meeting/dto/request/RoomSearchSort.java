@@ -0,0 +1,9 @@
+package cvut.fel.ear.room.meeting.dto.request;
+
+/**
+ * Ranking of room search results. {@code FIT} puts the rooms with the fewest free places left first, so large
+ * rooms stay available for large groups; ties are broken by price.
+ */
+public enum RoomSearchSort {
+    PRICE, PRICE_DESC, FIT
+}
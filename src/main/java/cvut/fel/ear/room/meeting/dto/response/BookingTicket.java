@@ -0,0 +1,30 @@
+package cvut.fel.ear.room.meeting.dto.response;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a booking accepted for asynchronous processing. {@code status} and {@code message} are set once the
+ * booking is done and hold the HTTP status and error message the synchronous endpoint would have returned.
+ */
+public record BookingTicket(String id, State state, Integer status, String message,
+                            LocalDateTime submittedAt, LocalDateTime completedAt) {
+
+    public enum State {
+        QUEUED, SUCCEEDED, FAILED
+    }
+
+    public static BookingTicket queued(String id) {
+        return new BookingTicket(id, State.QUEUED, null, null, LocalDateTime.now(), null);
+    }
+
+    public BookingTicket succeeded() {
+        return new BookingTicket(id, State.SUCCEEDED, HttpStatus.CREATED.value(), null, submittedAt,
+                LocalDateTime.now());
+    }
+
+    public BookingTicket failed(HttpStatus failure, String reason) {
+        return new BookingTicket(id, State.FAILED, failure.value(), reason, submittedAt, LocalDateTime.now());
+    }
+}
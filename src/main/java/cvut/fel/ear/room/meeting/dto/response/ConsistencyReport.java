@@ -0,0 +1,4 @@
+package cvut.fel.ear.room.meeting.dto.response;
+
+public record ConsistencyReport(int indexed, int persisted, int mismatched) {
+}
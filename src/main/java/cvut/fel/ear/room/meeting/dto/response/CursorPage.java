@@ -0,0 +1,44 @@
+package cvut.fel.ear.room.meeting.dto.response;
+
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code next} is the id to pass as {@code after} for the following page
+ * and is {@code null} on the last page.
+ */
+public record CursorPage<T>(List<T> items, Long next) {
+
+    public static final int DEFAULT_LIMIT = 100;
+
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * Seek request for a page of {@code limit} rows. One extra row is fetched to find out whether a next page
+     * exists without a count query.
+     */
+    public static Pageable seek(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+        return PageRequest.of(0, limit + 1);
+    }
+
+    public static long after(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, Long> idOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, idOf.apply(items.get(limit - 1)));
+    }
+}
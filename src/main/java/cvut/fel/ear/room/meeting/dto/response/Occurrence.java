@@ -0,0 +1,15 @@
+package cvut.fel.ear.room.meeting.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+public record Occurrence(
+        Long seriesId,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm")
+        LocalDateTime reservationDateTimeStart,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm")
+        LocalDateTime reservationDateTimeEnd,
+        Double price
+) {
+}
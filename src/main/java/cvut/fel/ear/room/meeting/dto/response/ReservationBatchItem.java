@@ -0,0 +1,22 @@
+package cvut.fel.ear.room.meeting.dto.response;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Outcome of one request of a reservation batch. {@code status} is the HTTP status the request would have received
+ * on its own; {@code id} is set for created reservations.
+ */
+public record ReservationBatchItem(int index, Long id, int status, String message) {
+
+    public static ReservationBatchItem created(int index, Long id) {
+        return new ReservationBatchItem(index, id, HttpStatus.CREATED.value(), null);
+    }
+
+    public static ReservationBatchItem rejected(int index, HttpStatus status, String message) {
+        return new ReservationBatchItem(index, null, status.value(), message);
+    }
+
+    public boolean isRejected() {
+        return status >= 400;
+    }
+}
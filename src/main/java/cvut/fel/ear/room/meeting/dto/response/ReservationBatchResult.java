@@ -0,0 +1,10 @@
+package cvut.fel.ear.room.meeting.dto.response;
+
+import java.util.List;
+
+/**
+ * Result of a reservation batch. The batch is applied as a whole or not at all; {@code items} follow the order of
+ * the requests.
+ */
+public record ReservationBatchResult(boolean applied, List<ReservationBatchItem> items) {
+}
@@ -0,0 +1,8 @@
+package cvut.fel.ear.room.meeting.dto.response;
+
+/**
+ * Revenue of the paid reservations of one payment, user or room. Built directly by the aggregate queries of
+ * {@link cvut.fel.ear.room.meeting.repository.ReservationRepository}.
+ */
+public record RevenueTotal(Long id, Double revenue, Long reservations) {
+}
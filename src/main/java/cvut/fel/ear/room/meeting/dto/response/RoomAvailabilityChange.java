@@ -0,0 +1,15 @@
+package cvut.fel.ear.room.meeting.dto.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to when a room is occupied. {@code released} is the slot the reservation no longer holds in the room and
+ * {@code booked} the slot it holds now; either is {@code null} when the reservation left or entered the room. A
+ * client showing free rooms for a window marks the room busy when {@code booked} overlaps it and asks again when
+ * {@code released} does.
+ */
+public record RoomAvailabilityChange(Long roomId, Long reservationId, Slot released, Slot booked) {
+
+    public record Slot(LocalDateTime start, LocalDateTime end) {
+    }
+}
@@ -0,0 +1,24 @@
+package cvut.fel.ear.room.meeting.dto.response;
+
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.entity.RoomChange;
+import cvut.fel.ear.room.meeting.entity.RoomChangeType;
+
+import java.time.LocalDateTime;
+
+public record RoomChangeItem(long version, Long reservationId, RoomChangeType type, LocalDateTime start,
+                             LocalDateTime end) {
+
+    public static RoomChangeItem of(RoomChange change) {
+        return new RoomChangeItem(change.getId().getVersion(), change.getReservationId(), change.getType(),
+                change.getStart(), change.getEnd());
+    }
+
+    /**
+     * The reservation as part of a reset, where every item carries the version the reset was taken at.
+     */
+    public static RoomChangeItem current(long version, Reservation reservation) {
+        return new RoomChangeItem(version, reservation.getId(), RoomChangeType.UPSERT,
+                reservation.getReservationDateTimeStart(), reservation.getReservationDateTimeEnd());
+    }
+}
@@ -0,0 +1,11 @@
+package cvut.fel.ear.room.meeting.dto.response;
+
+import java.util.List;
+
+/**
+ * Changes to the calendar of a room after some version. With {@code reset} the client drops what it has and takes
+ * {@code changes} as the room's upcoming reservations. {@code version} is passed as {@code since} next time, and
+ * {@code more} tells that further changes can be fetched right away.
+ */
+public record RoomChanges(Long roomId, long version, boolean reset, boolean more, List<RoomChangeItem> changes) {
+}
@@ -0,0 +1,21 @@
+package cvut.fel.ear.room.meeting.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * The fields of a room that room searches return, with the same names as on {@code Room}. Built directly by the
+ * projection queries of {@link cvut.fel.ear.room.meeting.repository.RoomRepository}, so it always holds the
+ * committed values.
+ */
+public record RoomSummary(
+        Long id,
+        String name,
+        Double pricePerHour,
+        String text,
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm")
+        LocalDateTime dateOfCreate,
+        Integer roomCapacity
+) {
+}
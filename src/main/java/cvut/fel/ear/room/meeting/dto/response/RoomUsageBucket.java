@@ -0,0 +1,16 @@
+package cvut.fel.ear.room.meeting.dto.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * Usage of a room in one hour, day or month. {@code utilisation} is the occupied share of the bucket, between 0
+ * and 1.
+ */
+public record RoomUsageBucket(
+        LocalDateTime start,
+        long occupiedMinutes,
+        double utilisation,
+        double revenue,
+        int reservations
+) {
+}
@@ -0,0 +1,103 @@
+package cvut.fel.ear.room.meeting.entity;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Response stored for an {@code Idempotency-Key}. A record without a status is a claim by a request that is still
+ * being processed.
+ */
+@Entity
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_created_at", columnList = "created_at"))
+public class IdempotencyRecord implements Persistable<String> {
+
+    public static final int MAX_BODY_LENGTH = 8192;
+
+    /**
+     * SHA-256 of the user, the request path and the key sent by the client.
+     */
+    @Id
+    @Column(name = "id", length = 64, nullable = false)
+    private String id;
+
+    /**
+     * SHA-256 of the request body, to reject a reused key with a different request.
+     */
+    @Column(name = "fingerprint", length = 64, nullable = false)
+    private String fingerprint;
+
+    @Column(name = "status")
+    private Integer status;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "body", length = MAX_BODY_LENGTH)
+    private String body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Transient
+    private boolean isNew;
+
+    public IdempotencyRecord() {
+    }
+
+    public static IdempotencyRecord claim(String id, String fingerprint) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.id = id;
+        record.fingerprint = fingerprint;
+        record.createdAt = LocalDateTime.now();
+        record.isNew = true;
+        return record;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isCompleted() {
+        return status != null;
+    }
+
+    public void complete(int status, String contentType, String body) {
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+    }
+}
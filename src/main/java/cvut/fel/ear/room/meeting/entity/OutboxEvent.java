@@ -0,0 +1,87 @@
+package cvut.fel.ear.room.meeting.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A change to a reservation or payment, written in the transaction that made it and relayed to the outbox sink
+ * afterwards. Relayed events are kept for a while with {@code published_at} set.
+ */
+@Entity
+@Table(name = "outbox_event", indexes = {
+        @Index(name = "idx_outbox_event_published_at", columnList = "published_at, id"),
+        @Index(name = "idx_outbox_event_aggregate", columnList = "aggregate_type, aggregate_id")
+})
+public class OutboxEvent {
+
+    public static final int MAX_PAYLOAD_LENGTH = 4000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "aggregate_type", length = 32, nullable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    /**
+     * E.g. {@code reservation.created} or {@code payment.updated}.
+     */
+    @Column(name = "type", length = 64, nullable = false)
+    private String type;
+
+    /**
+     * JSON describing the aggregate after the change, or before it for a deletion.
+     */
+    @Column(name = "payload", length = MAX_PAYLOAD_LENGTH, nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String aggregateType, Long aggregateId, String type, String payload) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.type = type;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+}
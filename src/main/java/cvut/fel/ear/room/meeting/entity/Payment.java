@@ -30,12 +30,20 @@ public class Payment {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm")
     private LocalDateTime dateOfCreate;
 
+    /**
+     * Time of the last change of the payment or of its total price, backs the ETag and Last-Modified headers.
+     * {@code null} for payments that have not changed since this column was added.
+     */
+    @JsonIgnore
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
     @JsonIgnore
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "reservationsPayment")
     private Set<Reservation> reservations;
 
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_payments")
     private User userPayments;
 
@@ -80,6 +88,14 @@ public class Payment {
         this.userPayments = userPayments;
     }
 
+    public LocalDateTime getLastModified() {
+        return lastModified != null ? lastModified : dateOfCreate;
+    }
+
+    public void setLastModified(LocalDateTime lastModified) {
+        this.lastModified = lastModified;
+    }
+
     @Override
     public String toString() {
         return "Payment{" + "id=" + id + ", totalPrice=" + totalPrice + ", dateCreates=" + dateOfCreate + '}';
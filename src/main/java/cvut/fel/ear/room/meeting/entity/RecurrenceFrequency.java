@@ -0,0 +1,5 @@
+package cvut.fel.ear.room.meeting.entity;
+
+public enum RecurrenceFrequency {
+    DAILY, WEEKLY
+}
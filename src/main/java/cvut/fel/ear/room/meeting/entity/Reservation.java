@@ -9,11 +9,16 @@ import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "room_reservations")
+@Table(name = "room_reservations", indexes = {
+        @Index(name = "idx_room_reservations_room_time",
+                columnList = "room_reservation, reservation_date_time_start, reservation_date_time_end"),
+        @Index(name = "idx_room_reservations_payment", columnList = "reservations_payment")
+})
 public class Reservation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "room_reservations_seq")
+    @SequenceGenerator(name = "room_reservations_seq", sequenceName = "room_reservations_seq", allocationSize = 50)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -35,7 +40,7 @@ public class Reservation {
     private Set<User> userReservations;
 
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "reservations_payment")
     private Payment reservationsPayment;
 
@@ -44,7 +49,7 @@ public class Reservation {
     private Set<Admin> adminReservations;
 
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "room_reservation")
     private Room roomReservation;
 
@@ -0,0 +1,170 @@
+package cvut.fel.ear.room.meeting.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import javax.persistence.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A repeating room reservation. Only the rule is stored; occurrences are computed for the window being asked about.
+ */
+@Entity
+@Table(name = "reservation_series", indexes = @Index(name = "idx_reservation_series_room", columnList = "room_series"))
+public class ReservationSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "price", nullable = false)
+    private Double price;
+
+    @Column(name = "reservation_date_time_start", nullable = false)
+    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm", iso = DateTimeFormat.ISO.DATE_TIME)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm")
+    private LocalDateTime reservationDateTimeStart;
+
+    @Column(name = "reservation_date_time_end", nullable = false)
+    @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm", iso = DateTimeFormat.ISO.DATE_TIME)
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm")
+    private LocalDateTime reservationDateTimeEnd;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "frequency", nullable = false)
+    private RecurrenceFrequency frequency;
+
+    @Column(name = "repeat_interval", nullable = false)
+    private Integer repeatInterval;
+
+    @JsonIgnore
+    @Column(name = "weekday_mask", nullable = false)
+    private Integer weekdayMask;
+
+    @Column(name = "until_date")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate untilDate;
+
+    @Column(name = "occurrence_count")
+    private Integer occurrenceCount;
+
+    @JsonIgnore
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_series", nullable = false)
+    private Room roomSeries;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public LocalDateTime getReservationDateTimeStart() {
+        return reservationDateTimeStart;
+    }
+
+    public void setReservationDateTimeStart(LocalDateTime reservationDateTimeStart) {
+        this.reservationDateTimeStart = reservationDateTimeStart;
+    }
+
+    public LocalDateTime getReservationDateTimeEnd() {
+        return reservationDateTimeEnd;
+    }
+
+    public void setReservationDateTimeEnd(LocalDateTime reservationDateTimeEnd) {
+        this.reservationDateTimeEnd = reservationDateTimeEnd;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public Integer getRepeatInterval() {
+        return repeatInterval;
+    }
+
+    public void setRepeatInterval(Integer repeatInterval) {
+        this.repeatInterval = repeatInterval;
+    }
+
+    @JsonIgnore
+    public Integer getWeekdayMask() {
+        return weekdayMask;
+    }
+
+    public void setWeekdayMask(Integer weekdayMask) {
+        this.weekdayMask = weekdayMask;
+    }
+
+    public Set<DayOfWeek> getWeekdays() {
+        Set<DayOfWeek> weekdays = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (weekdayMask != null && (weekdayMask & (1 << day.ordinal())) != 0) {
+                weekdays.add(day);
+            }
+        }
+        return weekdays;
+    }
+
+    public void setWeekdays(Set<DayOfWeek> weekdays) {
+        int mask = 0;
+        for (DayOfWeek day : weekdays) {
+            mask |= 1 << day.ordinal();
+        }
+        this.weekdayMask = mask;
+    }
+
+    public LocalDate getUntilDate() {
+        return untilDate;
+    }
+
+    public void setUntilDate(LocalDate untilDate) {
+        this.untilDate = untilDate;
+    }
+
+    public Integer getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(Integer occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    public Room getRoomSeries() {
+        return roomSeries;
+    }
+
+    public void setRoomSeries(Room roomSeries) {
+        this.roomSeries = roomSeries;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationSeries{" + "id=" + id +
+                ", frequency=" + frequency +
+                ", repeatInterval=" + repeatInterval +
+                ", reservationDateTimeStart=" + reservationDateTimeStart +
+                ", reservationDateTimeEnd=" + reservationDateTimeEnd +
+                '}';
+    }
+}
@@ -0,0 +1,81 @@
+package cvut.fel.ear.room.meeting.entity;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One change to the calendar of a room. Versions count up from 1 per room and are assigned while the room row is
+ * locked, so they become visible in order. {@code start} and {@code end} are empty for a removal.
+ */
+@Entity
+@Table(name = "room_change", indexes = @Index(name = "idx_room_change_created_at", columnList = "created_at"))
+public class RoomChange implements Persistable<RoomChangeId> {
+
+    @EmbeddedId
+    private RoomChangeId id;
+
+    @Column(name = "reservation_id", nullable = false)
+    private Long reservationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 8, nullable = false)
+    private RoomChangeType type;
+
+    @Column(name = "reservation_start")
+    private LocalDateTime start;
+
+    @Column(name = "reservation_end")
+    private LocalDateTime end;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Transient
+    private boolean isNew;
+
+    public RoomChange() {
+    }
+
+    public RoomChange(RoomChangeId id, Long reservationId, RoomChangeType type, LocalDateTime start,
+                      LocalDateTime end) {
+        this.id = id;
+        this.reservationId = reservationId;
+        this.type = type;
+        this.start = start;
+        this.end = end;
+        this.createdAt = LocalDateTime.now();
+        this.isNew = true;
+    }
+
+    @Override
+    public RoomChangeId getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public RoomChangeType getType() {
+        return type;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
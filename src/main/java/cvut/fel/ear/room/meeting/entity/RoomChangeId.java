@@ -0,0 +1,49 @@
+package cvut.fel.ear.room.meeting.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class RoomChangeId implements Serializable {
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public RoomChangeId() {
+    }
+
+    public RoomChangeId(Long roomId, Long version) {
+        this.roomId = roomId;
+        this.version = version;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RoomChangeId)) {
+            return false;
+        }
+        RoomChangeId other = (RoomChangeId) o;
+        return Objects.equals(roomId, other.roomId) && Objects.equals(version, other.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(roomId, version);
+    }
+}
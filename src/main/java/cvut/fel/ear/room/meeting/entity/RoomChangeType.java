@@ -0,0 +1,8 @@
+package cvut.fel.ear.room.meeting.entity;
+
+/**
+ * What a calendar client does with a change: add or replace the reservation, or remove it from the room.
+ */
+public enum RoomChangeType {
+    UPSERT, REMOVE
+}
@@ -0,0 +1,65 @@
+package cvut.fel.ear.room.meeting.entity;
+
+import javax.persistence.*;
+
+/**
+ * Occupancy of one room in one hour, day or month. {@code reservations} counts the reservations that start in the
+ * bucket, so the counts of adjacent buckets add up.
+ */
+@Entity
+@Table(name = "room_usage")
+public class RoomUsage {
+
+    @EmbeddedId
+    private RoomUsageId id;
+
+    @Column(name = "occupied_minutes", nullable = false)
+    private long occupiedMinutes;
+
+    @Column(name = "revenue", nullable = false)
+    private double revenue;
+
+    @Column(name = "reservations", nullable = false)
+    private int reservations;
+
+    public RoomUsage() {
+    }
+
+    public RoomUsage(RoomUsageId id) {
+        this.id = id;
+    }
+
+    public RoomUsageId getId() {
+        return id;
+    }
+
+    public long getOccupiedMinutes() {
+        return occupiedMinutes;
+    }
+
+    public void setOccupiedMinutes(long occupiedMinutes) {
+        this.occupiedMinutes = occupiedMinutes;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+
+    public int getReservations() {
+        return reservations;
+    }
+
+    public void setReservations(int reservations) {
+        this.reservations = reservations;
+    }
+
+    public void add(long occupiedMinutes, double revenue, int reservations) {
+        this.occupiedMinutes += occupiedMinutes;
+        this.revenue += revenue;
+        this.reservations += reservations;
+    }
+}
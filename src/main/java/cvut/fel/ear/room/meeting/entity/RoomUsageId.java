@@ -0,0 +1,62 @@
+package cvut.fel.ear.room.meeting.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Embeddable
+public class RoomUsageId implements Serializable {
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private UsageGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    public RoomUsageId() {
+    }
+
+    public RoomUsageId(Long roomId, UsageGranularity granularity, LocalDateTime bucketStart) {
+        this.roomId = roomId;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public UsageGranularity getGranularity() {
+        return granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RoomUsageId)) {
+            return false;
+        }
+        RoomUsageId other = (RoomUsageId) o;
+        return Objects.equals(roomId, other.roomId) && granularity == other.granularity
+                && Objects.equals(bucketStart, other.bucketStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(roomId, granularity, bucketStart);
+    }
+}
@@ -14,7 +14,8 @@ public class User extends AbstractUser {
     @JoinTable(
             name = "user_has_reservation",
             joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "reservation_id")
+            inverseJoinColumns = @JoinColumn(name = "reservation_id"),
+            indexes = @Index(name = "idx_user_has_reservation_reservation", columnList = "reservation_id")
     )
     private Set<Reservation> userHasReservation;
 
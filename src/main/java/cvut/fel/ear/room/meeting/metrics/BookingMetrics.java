@@ -0,0 +1,39 @@
+package cvut.fel.ear.room.meeting.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counters for rejected bookings.
+ */
+@Component
+public class BookingMetrics {
+
+    public static final String CONFLICTS = "app.booking.conflicts";
+
+    public static final String CAPACITY_FULL = "app.booking.capacity.full";
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public BookingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * A booking was rejected because the room is already reserved for that time.
+     *
+     * @param source the kind of booking, e.g. {@code reservation} or {@code series}
+     */
+    public void conflict(String source) {
+        registry.counter(CONFLICTS, "source", source).increment();
+    }
+
+    /**
+     * A booking was rejected because the room has no capacity left.
+     */
+    public void capacityFull() {
+        registry.counter(CAPACITY_FULL).increment();
+    }
+}
@@ -0,0 +1,53 @@
+package cvut.fel.ear.room.meeting.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records every JDBC statement execution as {@code app.jdbc.queries}, tagged with the data source, the statement
+ * type and whether it succeeded. Its count is the query count, its histogram the latency distribution. A batch
+ * counts as one execution.
+ */
+public class JdbcMetricsListener implements QueryExecutionListener {
+
+    public static final String METRIC = "app.jdbc.queries";
+
+    private final Supplier<MeterRegistry> registry;
+
+    /**
+     * @param registry looked up at the first query, as data sources are created before the registry
+     */
+    public JdbcMetricsListener(Supplier<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        MeterRegistry meterRegistry = registry.get();
+        if (meterRegistry == null) {
+            return;
+        }
+        String type = queryInfoList.isEmpty() ? "OTHER"
+                : QueryUtils.getQueryType(queryInfoList.get(0).getQuery()).name();
+        Timer.builder(METRIC)
+                .tag("datasource", String.valueOf(execInfo.getDataSourceName()))
+                .tag("type", type)
+                .tag("batch", String.valueOf(execInfo.isBatch()))
+                .tag("success", String.valueOf(execInfo.isSuccess()))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(execInfo.getElapsedTime(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,52 @@
+package cvut.fel.ear.room.meeting.metrics;
+
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Times every public method of the core services as {@code app.service.calls}, tagged with the service, the method
+ * and the exception it ended with: the HTTP status of an {@link ApplicationException}, the simple class name of any
+ * other exception, or {@code none}. Calls a service makes to its own methods are not proxied and so not timed.
+ */
+@Aspect
+public class ServiceMetricsAspect {
+
+    public static final String METRIC = "app.service.calls";
+
+    private final MeterRegistry registry;
+
+    public ServiceMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * *(..)) && ("
+            + "within(cvut.fel.ear.room.meeting.service.ReservationService)"
+            + " || within(cvut.fel.ear.room.meeting.service.RoomService)"
+            + " || within(cvut.fel.ear.room.meeting.service.UserService)"
+            + " || within(cvut.fel.ear.room.meeting.service.PaymentService)"
+            + " || within(cvut.fel.ear.room.meeting.service.AdminService))")
+    public Object time(ProceedingJoinPoint call) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return call.proceed();
+        } catch (ApplicationException e) {
+            exception = e.getHttpStatus().name();
+            throw e;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .tag("service", call.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", call.getSignature().getName())
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+}
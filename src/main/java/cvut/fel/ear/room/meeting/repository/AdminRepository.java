@@ -2,7 +2,10 @@ package cvut.fel.ear.room.meeting.repository;
 
 import cvut.fel.ear.room.meeting.entity.Admin;
 import cvut.fel.ear.room.meeting.entity.Room;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,6 +13,8 @@ import java.util.List;
 @Repository
 public interface AdminRepository extends JpaRepository<Admin, Long> {
 
+    List<Admin> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
     List<Admin> findAllByIdIsNotNullOrderByUsernameAsc();
 
     List<Admin> findAllByIdIsNotNullOrderByUsernameDesc();
@@ -23,4 +28,8 @@ public interface AdminRepository extends JpaRepository<Admin, Long> {
     Boolean findAllByUsername(String username);
 
     Boolean existsByAdminControlRoomContains(Room one);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM admin_has_reservation " +
+            "WHERE admin_id = :adminId AND reservation_id = :reservationId)", nativeQuery = true)
+    boolean holdsReservation(@Param("adminId") Long adminId, @Param("reservationId") Long reservationId);
 }
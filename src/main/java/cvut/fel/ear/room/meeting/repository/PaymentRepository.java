@@ -1,16 +1,38 @@
 package cvut.fel.ear.room.meeting.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import cvut.fel.ear.room.meeting.entity.Payment;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Set;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    List<Payment> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
+    /**
+     * Sets the total price of the payment to the sum of the prices of its reservations and marks it as modified,
+     * in one statement. Pending changes are flushed first so the sum sees them.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Payment p SET p.totalPrice = (SELECT COALESCE(SUM(r.price), 0) FROM Reservation r " +
+            "WHERE r.reservationsPayment.id = p.id), p.lastModified = :now WHERE p.id = :paymentId")
+    int refreshTotalPrice(@Param("paymentId") Long paymentId, @Param("now") LocalDateTime now);
+
+    default int refreshTotalPrice(Long paymentId) {
+        return refreshTotalPrice(paymentId, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
     @Query(name = "Payment.findAllByDateOfCreateAfter")
     Set<Payment> findAllByDateOfCreateAfter(@Param("startDate") LocalDateTime startDate);
 }
@@ -1,41 +1,107 @@
 package cvut.fel.ear.room.meeting.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import cvut.fel.ear.room.meeting.dto.response.RevenueTotal;
 import cvut.fel.ear.room.meeting.entity.Reservation;
 
 import javax.persistence.OrderBy;
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
 
-    @Query(name = "Reservation.findReservationsByReservationDateTimeStartBetweenOrReservationDateTimeEndBetween")
-    Set<Reservation> findReservationsByReservationDateTimeStartBetweenOrReservationDateTimeEndBetween(
+    @Query("SELECT r FROM Reservation r " +
+            "WHERE r.reservationDateTimeStart < :end AND r.reservationDateTimeEnd > :start " +
+            "ORDER BY r.reservationDateTimeStart")
+    List<Reservation> findOverlapping(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Reservations of one room that overlap {@code [start, end)}. Served by the
+     * {@code (room_reservation, reservation_date_time_start, reservation_date_time_end)} index.
+     */
+    @Query("SELECT r FROM Reservation r WHERE r.roomReservation.id = :roomId " +
+            "AND r.reservationDateTimeStart < :end AND r.reservationDateTimeEnd > :start " +
+            "ORDER BY r.reservationDateTimeStart")
+    List<Reservation> findOverlappingInRoom(@Param("roomId") Long roomId,
+                                            @Param("start") LocalDateTime start,
+                                            @Param("end") LocalDateTime end);
+
+    List<Reservation> findAllByIdIsNotNullOrderByPriceAsc(Pageable pageable);
 
-            @Param("reservationDateTimeStart") LocalDateTime reservationDateTimeStart,
-            @Param("reservationDateTimeStart2") LocalDateTime reservationDateTimeStart2,
+    List<Reservation> findAllByIdIsNotNullOrderByPriceDesc(Pageable pageable);
 
-            @Param("reservationDateTimeEnd") LocalDateTime reservationDateTimeEnd,
-            @Param("reservationDateTimeEnd2") LocalDateTime reservationDateTimeEnd2
-    );
+    /**
+     * Loads a reservation for booking, together with the room whose capacity is checked and the payment.
+     */
+    @EntityGraph(attributePaths = {"roomReservation", "reservationsPayment"})
+    Optional<Reservation> findWithRoomAndPaymentById(Long id);
 
-    List<Reservation> findAllByIdIsNotNullOrderByPriceAsc();
+    /**
+     * The id of the room the reservation is in, empty when the reservation does not exist or has no room.
+     */
+    @Query("SELECT r.roomReservation.id FROM Reservation r WHERE r.id = :id")
+    Optional<Long> findRoomIdById(@Param("id") Long id);
 
-    List<Reservation> findAllByIdIsNotNullOrderByPriceDesc();
+    List<Reservation> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
+    /**
+     * Streams every reservation in id order through a server-side cursor. The to-one associations are fetched in
+     * the same query, so no row triggers further selects. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.roomReservation " +
+            "LEFT JOIN FETCH r.reservationsPayment p LEFT JOIN FETCH p.userPayments ORDER BY r.id")
+    Stream<Reservation> streamAllOrderById();
 
     Boolean existsByRoomReservationId(Long roomId);
 
+    List<Reservation> findAllByRoomReservationIsNotNull();
+
     @OrderBy("timeStart ASC")
     List<Reservation> findAllByReservationDateTimeStartAfter(LocalDateTime timeStart);
 
     @OrderBy("timeStart DESC")
     List<Reservation> findAllByReservationDateTimeEndBefore(LocalDateTime timeEnd);
 
-    @Query(name = "SELECT SUM(r.price) FROM Reservation r")
-    List<Reservation> findAllByReservationsPaymentNotNull();
+    @Query("SELECT COALESCE(SUM(r.price), 0) FROM Reservation r WHERE r.reservationsPayment.id = :paymentId")
+    Double sumPriceByPaymentId(@Param("paymentId") Long paymentId);
+
+    @Query("SELECT COALESCE(SUM(r.price), 0) FROM Reservation r WHERE r.reservationsPayment IS NOT NULL " +
+            "AND r.reservationDateTimeStart >= :from AND r.reservationDateTimeStart < :to")
+    Double sumPaidPrice(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new cvut.fel.ear.room.meeting.dto.response.RevenueTotal(p.id, SUM(r.price), COUNT(r)) " +
+            "FROM Reservation r JOIN r.reservationsPayment p " +
+            "WHERE r.reservationDateTimeStart >= :from AND r.reservationDateTimeStart < :to " +
+            "GROUP BY p.id ORDER BY p.id")
+    List<RevenueTotal> sumPaidPriceByPayment(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new cvut.fel.ear.room.meeting.dto.response.RevenueTotal(u.id, SUM(r.price), COUNT(r)) " +
+            "FROM Reservation r JOIN r.reservationsPayment p JOIN p.userPayments u " +
+            "WHERE r.reservationDateTimeStart >= :from AND r.reservationDateTimeStart < :to " +
+            "GROUP BY u.id ORDER BY u.id")
+    List<RevenueTotal> sumPaidPriceByUser(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new cvut.fel.ear.room.meeting.dto.response.RevenueTotal(room.id, SUM(r.price), COUNT(r)) " +
+            "FROM Reservation r JOIN r.reservationsPayment p JOIN r.roomReservation room " +
+            "WHERE r.reservationDateTimeStart >= :from AND r.reservationDateTimeStart < :to " +
+            "GROUP BY room.id ORDER BY room.id")
+    List<RevenueTotal> sumPaidPriceByRoom(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,19 @@
+package cvut.fel.ear.room.meeting.repository;
+
+import cvut.fel.ear.room.meeting.entity.ReservationSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReservationSeriesRepository extends JpaRepository<ReservationSeries, Long> {
+
+    @Query("SELECT s FROM ReservationSeries s JOIN FETCH s.roomSeries")
+    List<ReservationSeries> findAllWithRoom();
+
+    List<ReservationSeries> findByRoomSeriesId(Long roomId);
+
+    boolean existsByRoomSeriesId(Long roomId);
+}
@@ -0,0 +1,46 @@
+package cvut.fel.ear.room.meeting.repository;
+
+import cvut.fel.ear.room.meeting.entity.RoomChange;
+import cvut.fel.ear.room.meeting.entity.RoomChangeId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RoomChangeRepository extends JpaRepository<RoomChange, RoomChangeId> {
+
+    /**
+     * Locks the room row until the end of the transaction and returns the room's latest change version, or
+     * {@code null} before its first change. Writers of the same room queue up here, so versions are assigned and
+     * committed in order.
+     */
+    @Query(value = "SELECT (SELECT MAX(c.version) FROM room_change c WHERE c.room_id = r.id) " +
+            "FROM room r WHERE r.id = :roomId FOR UPDATE", nativeQuery = true)
+    Long lockRoomAndFindLatestVersion(@Param("roomId") Long roomId);
+
+    @Query("SELECT MAX(c.id.version) FROM RoomChange c WHERE c.id.roomId = :roomId")
+    Long findLatestVersion(@Param("roomId") Long roomId);
+
+    @Query("SELECT MIN(c.id.version) FROM RoomChange c WHERE c.id.roomId = :roomId")
+    Long findOldestVersion(@Param("roomId") Long roomId);
+
+    @Query("SELECT c FROM RoomChange c WHERE c.id.roomId = :roomId AND c.id.version > :since " +
+            "ORDER BY c.id.version")
+    List<RoomChange> findSince(@Param("roomId") Long roomId, @Param("since") long since, Pageable pageable);
+
+    /**
+     * Deletes changes created before {@code before}, except the latest one of each room, which keeps its version.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RoomChange c WHERE c.createdAt < :before AND c.id.version < " +
+            "(SELECT MAX(l.id.version) FROM RoomChange l WHERE l.id.roomId = c.id.roomId)")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
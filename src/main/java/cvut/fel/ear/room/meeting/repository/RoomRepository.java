@@ -1,17 +1,24 @@
 package cvut.fel.ear.room.meeting.repository;
 
+import cvut.fel.ear.room.meeting.dto.response.RoomSummary;
 import cvut.fel.ear.room.meeting.entity.Room;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
 public interface RoomRepository extends CrudRepository<Room, Long> {
-    Set<Room> findRoomsByReservationsIsNull();
+    List<Room> findByReservationsIsEmptyAndIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
+    List<Room> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
 
     @SuppressWarnings("NullableProblems")
     Set<Room> findAll();
@@ -31,5 +38,33 @@ public interface RoomRepository extends CrudRepository<Room, Long> {
     @Query("SELECT r FROM Room r WHERE r.id <= (SELECT MAX(r2.id) FROM Room r2) ORDER BY r.roomCapacity ASC")
     List<Room> findTopNByRoomCapacityAsc(Pageable pageable);
 
+    @Query("SELECT new cvut.fel.ear.room.meeting.dto.response.RoomSummary(" +
+            "r.id, r.name, r.pricePerHour, r.text, r.dateOfCreate, r.roomCapacity) FROM Room r")
+    List<RoomSummary> findAllSummaries();
+
+    @Query("SELECT new cvut.fel.ear.room.meeting.dto.response.RoomSummary(" +
+            "r.id, r.name, r.pricePerHour, r.text, r.dateOfCreate, r.roomCapacity) FROM Room r WHERE r.id = :roomId")
+    Optional<RoomSummary> findSummaryById(@Param("roomId") Long roomId);
+
+    @Query("SELECT r.id FROM Room r WHERE r.id IN :roomIds")
+    Set<Long> findExistingIds(@Param("roomIds") Set<Long> roomIds);
+
+    /**
+     * Locks the room row until the end of the transaction and returns its id, or {@code null} when the room does not
+     * exist.
+     */
+    @Query(value = "SELECT r.id FROM room r WHERE r.id = :roomId FOR UPDATE", nativeQuery = true)
+    Long lockById(@Param("roomId") Long roomId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Room r SET r.roomCapacity = r.roomCapacity + 1 " +
+            "WHERE r.id = :roomId AND r.roomCapacity < :maxCapacity")
+    int incrementCapacity(@Param("roomId") Long roomId, @Param("maxCapacity") int maxCapacity);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Room r SET r.roomCapacity = r.roomCapacity - 1 WHERE r.id = :roomId AND r.roomCapacity > 0")
+    int decrementCapacity(@Param("roomId") Long roomId);
 
 }
\ No newline at end of file
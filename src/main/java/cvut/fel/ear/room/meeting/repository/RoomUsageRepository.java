@@ -0,0 +1,41 @@
+package cvut.fel.ear.room.meeting.repository;
+
+import cvut.fel.ear.room.meeting.entity.RoomUsage;
+import cvut.fel.ear.room.meeting.entity.RoomUsageId;
+import cvut.fel.ear.room.meeting.entity.UsageGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RoomUsageRepository extends JpaRepository<RoomUsage, RoomUsageId> {
+
+    @Query("SELECT u FROM RoomUsage u WHERE u.id.roomId = :roomId AND u.id.granularity = :granularity " +
+            "AND u.id.bucketStart >= :from AND u.id.bucketStart < :to ORDER BY u.id.bucketStart")
+    List<RoomUsage> findBuckets(@Param("roomId") Long roomId,
+                                @Param("granularity") UsageGranularity granularity,
+                                @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to);
+
+    /**
+     * Adds the deltas to an existing bucket in place, so concurrent flushes of several instances do not overwrite
+     * each other.
+     *
+     * @return 0 when the bucket does not exist yet
+     */
+    @Modifying
+    @Query("UPDATE RoomUsage u SET u.occupiedMinutes = u.occupiedMinutes + :minutes, " +
+            "u.revenue = u.revenue + :revenue, u.reservations = u.reservations + :reservations " +
+            "WHERE u.id.roomId = :roomId AND u.id.granularity = :granularity AND u.id.bucketStart = :bucketStart")
+    int addTo(@Param("roomId") Long roomId,
+              @Param("granularity") UsageGranularity granularity,
+              @Param("bucketStart") LocalDateTime bucketStart,
+              @Param("minutes") long minutes,
+              @Param("revenue") double revenue,
+              @Param("reservations") int reservations);
+}
@@ -1,7 +1,10 @@
 package cvut.fel.ear.room.meeting.repository;
 
 import cvut.fel.ear.room.meeting.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import javax.validation.constraints.Email;
@@ -10,11 +13,19 @@ import java.util.List;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    List<User> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
     List<User> findAllByIdIsNotNullOrderByUsernameAsc();
 
     List<User> findAllByIdIsNotNullOrderByUsernameDesc();
 
-    List<User> findAllByUserHasReservationNotNull();
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM user_has_reservation WHERE reservation_id = :reservationId)",
+            nativeQuery = true)
+    boolean isReservationHeld(@Param("reservationId") Long reservationId);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM user_has_reservation " +
+            "WHERE user_id = :userId AND reservation_id = :reservationId)", nativeQuery = true)
+    boolean holdsReservation(@Param("userId") Long userId, @Param("reservationId") Long reservationId);
 
     @Email
     User findByEmail(String email);
@@ -6,6 +6,7 @@ import cvut.fel.ear.room.meeting.security.model.UserDetails;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.security.web.authentication.logout.LogoutSuccessHandler;
@@ -25,9 +26,12 @@ public class AuthSuccess implements AuthenticationSuccessHandler, LogoutSuccessH
 
     private final ObjectMapper mapper;
 
+    private final SignedTokenService tokenService;
+
     @Autowired
-    public AuthSuccess(ObjectMapper mapper) {
+    public AuthSuccess(ObjectMapper mapper, SignedTokenService tokenService) {
         this.mapper = mapper;
+        this.tokenService = tokenService;
     }
 
     @Override
@@ -38,6 +42,11 @@ public class AuthSuccess implements AuthenticationSuccessHandler, LogoutSuccessH
             LOG.trace("Successfully authenticated user {}", username);
         }
         final LoginStatus loginStatus = new LoginStatus(true, authentication.isAuthenticated(), username, null);
+        if (tokenService.isEnabled()) {
+            final String token = tokenService.issue((UserDetails) authentication.getPrincipal());
+            httpServletResponse.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+            loginStatus.setToken(token);
+        }
         mapper.writeValue(httpServletResponse.getOutputStream(), loginStatus);
     }
 
@@ -26,16 +26,27 @@ public class DefaultAuthProvider implements AuthenticationProvider {
 
     private final PasswordEncoder passwordEncoder;
 
+    private final VerifiedCredentialCache verifiedCredentials;
+
     @Autowired
-    public DefaultAuthProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+    public DefaultAuthProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                               VerifiedCredentialCache verifiedCredentials) {
         this.userDetailsService = userDetailsService;
         this.passwordEncoder = passwordEncoder;
+        this.verifiedCredentials = verifiedCredentials;
     }
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         UserDetails userDetails = (UserDetails) userDetailsService.loadUserByUsername(authentication.getName());
-        if (passwordEncoder.matches(authentication.getCredentials().toString(), userDetails.getPassword())) {
+        String password = authentication.getCredentials().toString();
+        String username = userDetails.getUsername();
+        if (verifiedCredentials.isVerified(username, password, userDetails.getPassword())) {
+            userDetails.eraseCredentials();
+            return SecurityUtil.setCurrentUser(userDetails);
+        }
+        if (passwordEncoder.matches(password, userDetails.getPassword())) {
+            verifiedCredentials.remember(username, password, userDetails.getPassword());
             userDetails.eraseCredentials();
             return SecurityUtil.setCurrentUser(userDetails);
         } else {
@@ -0,0 +1,115 @@
+package cvut.fel.ear.room.meeting.security;
+
+import cvut.fel.ear.room.meeting.config.TokenProperties;
+import cvut.fel.ear.room.meeting.entity.Role;
+import cvut.fel.ear.room.meeting.entity.User;
+import cvut.fel.ear.room.meeting.security.model.AuthToken;
+import cvut.fel.ear.room.meeting.security.model.UserDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies {@code <payload>.<signature>} tokens. The payload carries the user id, role, expiry and
+ * username, and the signature is an HMAC-SHA256 over it, so a request is authenticated without a session or a
+ * database lookup.
+ * <p>
+ * A token stays valid until it expires, even after logout or a change of the user's role.
+ */
+@Service
+public class SignedTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final TokenProperties properties;
+
+    private final Clock clock;
+
+    private final SecretKeySpec key;
+
+    @Autowired
+    public SignedTokenService(TokenProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    SignedTokenService(TokenProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        if (!properties.isEnabled()) {
+            this.key = null;
+            return;
+        }
+        String secret = properties.getSecret();
+        if (secret == null || secret.length() < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException(
+                    "app.security.token.secret must have at least " + MIN_SECRET_LENGTH + " characters.");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public String issue(UserDetails userDetails) {
+        User user = userDetails.getUser();
+        long expires = clock.instant().plus(properties.getTtl()).getEpochSecond();
+        String payload = user.getId() + ":" + user.getRole().name() + ":" + expires + ":" + user.getUsername();
+        String encoded = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encoded + "." + ENCODER.encodeToString(sign(encoded));
+    }
+
+    /**
+     * @return the authentication carried by the token, or empty when the token is malformed, forged or expired
+     */
+    public Optional<AuthToken> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        String encoded = token.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(sign(encoded), DECODER.decode(token.substring(dot + 1)))) {
+                return Optional.empty();
+            }
+            // Username goes last, it is the only field that may contain the separator
+            String[] fields = new String(DECODER.decode(encoded), StandardCharsets.UTF_8).split(":", 4);
+            if (fields.length != 4 || Instant.ofEpochSecond(Long.parseLong(fields[2])).isBefore(clock.instant())) {
+                return Optional.empty();
+            }
+            User user = new User();
+            user.setId(Long.valueOf(fields[0]));
+            user.setRole(Role.valueOf(fields[1]));
+            user.setUsername(fields[3]);
+            UserDetails userDetails = new UserDetails(user);
+            return Optional.of(new AuthToken(userDetails.getAuthorities(), userDetails));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String encodedPayload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available.", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package cvut.fel.ear.room.meeting.security;
+
+import cvut.fel.ear.room.meeting.security.model.AuthToken;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Authenticates requests carrying an {@code Authorization: Bearer} token issued by {@link SignedTokenService}.
+ * Requests without the header pass through anonymously; a bad or expired token is rejected with 401.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final SignedTokenService tokenService;
+
+    public TokenAuthenticationFilter(SignedTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Optional<AuthToken> authentication = tokenService.verify(header.substring(BEARER.length()));
+        if (authentication.isEmpty()) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "Token is invalid or expired.");
+            return;
+        }
+        SecurityContext context = new SecurityContextImpl();
+        context.setAuthentication(authentication.get());
+        SecurityContextHolder.setContext(context);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
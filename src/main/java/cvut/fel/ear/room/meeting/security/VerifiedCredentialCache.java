@@ -0,0 +1,66 @@
+package cvut.fel.ear.room.meeting.security;
+
+import cvut.fel.ear.room.meeting.config.CacheConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Remembers credentials that recently passed the BCrypt check, so a repeated login can be verified with one HMAC
+ * instead of a full BCrypt round.
+ * <p>
+ * Only a keyed hash of the presented password is stored, under a key that is generated at startup and never leaves
+ * the process. The stored password hash is part of the MAC input, so changing the password invalidates the entry
+ * without an explicit eviction. Entries expire after the TTL of the {@code verifiedCredentials} region.
+ */
+@Component
+public class VerifiedCredentialCache {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final Cache cache;
+
+    private final SecretKeySpec key;
+
+    @Autowired
+    public VerifiedCredentialCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CacheConfig.VERIFIED_CREDENTIALS);
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    public boolean isVerified(String username, String password, String passwordHash) {
+        String remembered = cache.get(username, String.class);
+        if (remembered == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(remembered.getBytes(StandardCharsets.US_ASCII),
+                mac(username, password, passwordHash).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public void remember(String username, String password, String passwordHash) {
+        cache.put(username, mac(username, password, passwordHash));
+    }
+
+    private String mac(String username, String password, String passwordHash) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            // NUL cannot occur in form input, so the fields cannot be shifted into one another
+            String message = username + '\0' + password + '\0' + passwordHash;
+            return Base64.getEncoder().encodeToString(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available.", e);
+        }
+    }
+}
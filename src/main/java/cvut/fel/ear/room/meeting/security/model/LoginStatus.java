@@ -9,6 +9,7 @@ public class LoginStatus {
     private String username;
     private String errorMessage;
     private boolean success;
+    private String token;
 
     public LoginStatus() {
     }
@@ -51,4 +52,12 @@ public class LoginStatus {
     public void setSuccess(boolean success) {
         this.success = success;
     }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
 }
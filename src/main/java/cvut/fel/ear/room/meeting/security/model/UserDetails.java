@@ -13,11 +13,15 @@ public class UserDetails implements org.springframework.security.core.userdetail
 
     private final User user;
 
+    // Kept apart from the user, which may be shared through the cache, so erasing it affects this login only
+    private String password;
+
     private final Set<GrantedAuthority> authorities;
 
     public UserDetails(User user) {
         Objects.requireNonNull(user);
         this.user = user;
+        this.password = user.getPassword();
         this.authorities = new HashSet<>();
         addUserRole();
     }
@@ -33,7 +37,7 @@ public class UserDetails implements org.springframework.security.core.userdetail
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
@@ -66,6 +70,6 @@ public class UserDetails implements org.springframework.security.core.userdetail
     }
 
     public void eraseCredentials() {
-        user.erasePassword();
+        password = null;
     }
 }
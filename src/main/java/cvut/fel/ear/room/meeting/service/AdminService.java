@@ -1,19 +1,23 @@
 package cvut.fel.ear.room.meeting.service;
 
+import cvut.fel.ear.room.meeting.config.CacheConfig;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
 import cvut.fel.ear.room.meeting.entity.Admin;
 import cvut.fel.ear.room.meeting.entity.Reservation;
 import cvut.fel.ear.room.meeting.entity.Room;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.metrics.BookingMetrics;
 import cvut.fel.ear.room.meeting.repository.AdminRepository;
 import cvut.fel.ear.room.meeting.repository.ReservationRepository;
 import cvut.fel.ear.room.meeting.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 
@@ -27,22 +31,30 @@ public class AdminService {
     private final ReservationRepository resRepository;
 
     private final PasswordEncoder passwordEncoder;
+    private final BookingCoordinator bookingCoordinator;
+    private final BookingMetrics metrics;
 
     @Autowired
     public AdminService(AdminRepository repository,
                         RoomRepository roomRepository,
-                        ReservationRepository resRepository, PasswordEncoder passwordEncoder) {
+                        ReservationRepository resRepository, PasswordEncoder passwordEncoder,
+                        BookingCoordinator bookingCoordinator, BookingMetrics metrics) {
         this.repository = repository;
         this.roomRepository = roomRepository;
         this.resRepository = resRepository;
         this.passwordEncoder = passwordEncoder;
+        this.bookingCoordinator = bookingCoordinator;
+        this.metrics = metrics;
     }
 
 
-    public Collection<Admin> getAdmins() {
-        return repository.findAll();
+    public CursorPage<Admin> getAdmins(Long after, int limit) {
+        return CursorPage.of(
+                repository.findByIdGreaterThanOrderByIdAsc(CursorPage.after(after), CursorPage.seek(limit)),
+                limit, Admin::getId);
     }
 
+    @Cacheable(cacheNames = CacheConfig.ADMINS, key = "#id")
     public Admin getAdminById(Long id) {
         return repository.findById(id).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Admin with id " + id + " does not exist."));
@@ -67,17 +79,19 @@ public class AdminService {
     }
 
     public void addAdminReservation(Long id, Long reservationId) {
-        Admin admin = repository.findById(id).orElseThrow(
-                () -> new ApplicationException(HttpStatus.NOT_FOUND, "Admin with id " + id + " does not exist."));
-        Reservation reservation = UserService.getReservationById(reservationId, resRepository, MAX_ROOM_CAPACITY);
-        if (!admin.getAdminReservations().contains(reservation)) {
-            UserService.addToRoom(reservation);
-        } else {
-            throw new ApplicationException(HttpStatus.BAD_REQUEST, "User already has a reservation in this room.");
-        }
-        resRepository.save(reservation);
-        admin.getAdminReservations().add(reservation);
-        repository.save(admin);
+        Reservation reservation = UserService.getReservationById(reservationId, resRepository, MAX_ROOM_CAPACITY,
+                metrics);
+        // Checked under the room lock, so two identical requests cannot both take a place
+        bookingCoordinator.admit(reservation.getRoomReservation().getId(), MAX_ROOM_CAPACITY, () -> {
+            Admin admin = repository.findById(id).orElseThrow(
+                    () -> new ApplicationException(HttpStatus.NOT_FOUND, "Admin with id " + id + " does not exist."));
+            if (repository.holdsReservation(id, reservationId)) {
+                throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                        "User already has a reservation in this room.");
+            }
+            admin.getAdminReservations().add(reservation);
+            repository.save(admin);
+        });
     }
 
     public void adminControlRoom(Long adminId, Long roomId) {
@@ -99,6 +113,7 @@ public class AdminService {
         return repository.findAllByIdIsNotNullOrderByUsernameDesc();
     }
 
+    @CacheEvict(cacheNames = CacheConfig.ADMINS, key = "#adminId")
     @Transactional
     public void updateAdmin(Long adminId, String email) {
         Admin admin = repository.findById(adminId).orElseThrow(
@@ -112,6 +127,7 @@ public class AdminService {
         repository.save(admin);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.ADMINS, key = "#adminId")
     public void deleteAdmin(Long adminId) {
         boolean exists = repository.existsById(adminId);
         if (!exists) {
@@ -127,14 +143,13 @@ public class AdminService {
         Reservation reservation = resRepository.findById(reservationId).orElseThrow(
                 () -> new ApplicationException(
                         HttpStatus.NOT_FOUND, "Reservation with id " + reservationId + " does not exist."));
-        if (admin.getAdminReservations().contains(reservation)) {
-            UserService.removeFromRoom(reservation);
-        } else {
-            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Admin " + admin.getUsername() +
-                    " does not have a reservation with id " + reservationId + ".");
-        }
-        admin.getAdminReservations().clear();
-        resRepository.save(reservation);
-        repository.save(admin);
+        bookingCoordinator.release(reservation.getRoomReservation().getId(), () -> {
+            if (!repository.holdsReservation(adminId, reservationId)) {
+                throw new ApplicationException(HttpStatus.BAD_REQUEST, "Admin " + admin.getUsername() +
+                        " does not have a reservation with id " + reservationId + ".");
+            }
+            admin.getAdminReservations().removeIf(held -> held.getId().equals(reservationId));
+            repository.save(admin);
+        });
     }
 }
@@ -0,0 +1,179 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.config.AppConfig;
+import cvut.fel.ear.room.meeting.dto.response.ConsistencyReport;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.entity.ReservationSeries;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.ReservationSeriesRepository;
+import cvut.fel.ear.room.meeting.service.availability.RecurringCalendar;
+import cvut.fel.ear.room.meeting.service.availability.RoomAvailabilityIndex;
+import cvut.fel.ear.room.meeting.service.event.ReservationChangedEvent;
+import cvut.fel.ear.room.meeting.service.event.ReservationSeriesChangedEvent;
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+import cvut.fel.ear.room.meeting.service.event.RoomChangedEvent;
+import cvut.fel.ear.room.meeting.service.recurrence.RecurrenceRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Answers room availability questions from {@link RoomAvailabilityIndex} and {@link RecurringCalendar}, which are
+ * loaded from the database at startup and then kept up to date from {@link ReservationChangedEvent}s and
+ * {@link ReservationSeriesChangedEvent}s.
+ */
+@Service
+public class AvailabilityService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AvailabilityService.class);
+
+    private final ReservationRepository reservationRepository;
+
+    private final ReservationSeriesRepository seriesRepository;
+
+    private final TransactionTemplate txTemplate;
+
+    private final RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+
+    private final RecurringCalendar calendar = new RecurringCalendar();
+
+    @Autowired
+    public AvailabilityService(ReservationRepository reservationRepository,
+                               ReservationSeriesRepository seriesRepository,
+                               @Qualifier(AppConfig.PRIMARY_TX_TEMPLATE) TransactionTemplate txTemplate) {
+        this.reservationRepository = reservationRepository;
+        this.seriesRepository = seriesRepository;
+        this.txTemplate = txTemplate;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Collection<ReservationSnapshot> persisted = loadPersisted();
+        index.reset(persisted);
+        loadSeries();
+        LOG.info("Availability index loaded with {} room reservations and {} series, slot bitset uses {} bytes.",
+                index.size(), calendar.size(), index.slotMemoryBytes());
+    }
+
+    public boolean isRoomFree(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        validateWindow(startTime, endTime);
+        return index.isFree(roomId, startTime, endTime) && calendar.isFree(roomId, startTime, endTime);
+    }
+
+    /**
+     * Whether no reservation or other series of the room intersects any occurrence of the rule. Single
+     * reservations are only looked up within the span of the series.
+     */
+    public boolean isRoomFreeForSeries(Long roomId, RecurrenceRule rule) {
+        Optional<LocalDateTime> first = rule.firstStart();
+        if (first.isEmpty()) {
+            return true;
+        }
+        boolean clashesWithReservation = index.findOverlapping(roomId, first.get(), rule.endBound()).stream()
+                .anyMatch(reservation -> rule.overlaps(reservation.start(), reservation.end()));
+        return !clashesWithReservation && calendar.inRoom(roomId).stream().noneMatch(rule::overlaps);
+    }
+
+    /**
+     * Whether the room is free for the reservation, not counting the reservation itself when it already
+     * holds the room.
+     */
+    public boolean isRoomFreeFor(Long roomId, Reservation reservation) {
+        validateWindow(reservation.getReservationDateTimeStart(), reservation.getReservationDateTimeEnd());
+        return index.isFree(roomId, reservation.getReservationDateTimeStart(),
+                reservation.getReservationDateTimeEnd(), reservation.getId())
+                && calendar.isFree(roomId, reservation.getReservationDateTimeStart(),
+                reservation.getReservationDateTimeEnd());
+    }
+
+    /**
+     * Compares the index with the reservations stored in the database and reloads it when they differ.
+     */
+    public ConsistencyReport checkConsistency() {
+        Map<Long, ReservationSnapshot> persisted = loadPersisted().stream()
+                .collect(Collectors.toMap(ReservationSnapshot::id, snapshot -> snapshot));
+        Map<Long, ReservationSnapshot> indexed = index.snapshot().stream()
+                .collect(Collectors.toMap(ReservationSnapshot::id, snapshot -> snapshot));
+        Set<Long> ids = new HashSet<>(persisted.keySet());
+        ids.addAll(indexed.keySet());
+        int mismatched = 0;
+        for (Long id : ids) {
+            if (!sameSlot(persisted.get(id), indexed.get(id))) {
+                LOG.warn("Availability index is out of sync for reservation with id {}.", id);
+                mismatched++;
+            }
+        }
+        if (mismatched > 0) {
+            index.reset(persisted.values());
+        }
+        return new ConsistencyReport(indexed.size(), persisted.size(), mismatched);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (event.isDeleted()) {
+            index.remove(event.reservationId());
+        } else {
+            index.put(event.current());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        if (event.deleted()) {
+            index.removeRoom(event.roomId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationSeriesChanged(ReservationSeriesChangedEvent event) {
+        if (event.isDeleted()) {
+            calendar.remove(event.seriesId());
+        } else {
+            calendar.put(event.seriesId(), event.roomId(), event.rule());
+        }
+    }
+
+    private void loadSeries() {
+        List<ReservationSeries> series = txTemplate.execute(status -> seriesRepository.findAllWithRoom());
+        calendar.clear();
+        for (ReservationSeries each : Objects.requireNonNull(series)) {
+            calendar.put(each.getId(), each.getRoomSeries().getId(), ReservationSeriesService.ruleOf(each));
+        }
+    }
+
+    private Collection<ReservationSnapshot> loadPersisted() {
+        return txTemplate.execute(status -> reservationRepository.findAllByRoomReservationIsNotNull()
+                .stream()
+                .map(ReservationSnapshot::of)
+                .filter(ReservationSnapshot::occupiesRoom)
+                .collect(Collectors.toList()));
+    }
+
+    private static boolean sameSlot(ReservationSnapshot persisted, ReservationSnapshot indexed) {
+        return persisted != null && indexed != null
+                && Objects.equals(persisted.roomId(), indexed.roomId())
+                && Objects.equals(persisted.start(), indexed.start())
+                && Objects.equals(persisted.end(), indexed.end());
+    }
+
+    private static void validateWindow(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Start time and end time must be specified.");
+        }
+        if (!endTime.isAfter(startTime)) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "End time must be after start time.");
+        }
+    }
+}
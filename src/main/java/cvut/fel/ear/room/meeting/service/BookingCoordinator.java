@@ -0,0 +1,127 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.config.CacheConfig;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.metrics.BookingMetrics;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.service.event.RoomChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serialises admissions to the same room while bookings of different rooms run in parallel. A room maps to
+ * one of a fixed number of lock stripes, and the occupancy change itself is a conditional update, so the
+ * capacity limit also holds across several application instances.
+ */
+@Component
+public class BookingCoordinator {
+
+    private static final int STRIPES = 64;
+
+    private static final long LOCK_TIMEOUT_SECONDS = 5;
+
+    private final RoomRepository roomRepository;
+
+    private final TransactionTemplate txTemplate;
+
+    private final Cache rooms;
+
+    private final Cache roomsByName;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BookingMetrics metrics;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    @Autowired
+    public BookingCoordinator(RoomRepository roomRepository, PlatformTransactionManager txManager,
+                              CacheManager cacheManager, ApplicationEventPublisher eventPublisher,
+                              BookingMetrics metrics) {
+        this.roomRepository = roomRepository;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.rooms = cacheManager.getCache(CacheConfig.ROOMS);
+        this.roomsByName = cacheManager.getCache(CacheConfig.ROOMS_BY_NAME);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Takes one place in the room and runs {@code booking} in the same transaction. Nothing is stored when the
+     * room is already full or the booking fails.
+     */
+    public void admit(Long roomId, int maxCapacity, Runnable booking) {
+        withRoomLock(roomId, () -> {
+            if (roomRepository.incrementCapacity(roomId, maxCapacity) == 0) {
+                metrics.capacityFull();
+                throw new ApplicationException(HttpStatus.BAD_REQUEST, "Room capacity is full.");
+            }
+            booking.run();
+            eventPublisher.publishEvent(new RoomChangedEvent(roomId));
+        });
+    }
+
+    /**
+     * Frees one place in the room and runs {@code cancellation} in the same transaction.
+     */
+    public void release(Long roomId, Runnable cancellation) {
+        withRoomLock(roomId, () -> {
+            if (roomRepository.decrementCapacity(roomId) == 0) {
+                throw new ApplicationException(HttpStatus.BAD_REQUEST, "Room is already empty.");
+            }
+            cancellation.run();
+            eventPublisher.publishEvent(new RoomChangedEvent(roomId));
+        });
+    }
+
+    private void withRoomLock(Long roomId, Runnable action) {
+        ReentrantLock lock = locks[Math.floorMod(Long.hashCode(roomId), STRIPES)];
+        try {
+            if (!lock.tryLock(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Room with id " + roomId + " is busy, try again later.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE, "Booking was interrupted.");
+        }
+        try {
+            String name = txTemplate.execute(status -> {
+                action.run();
+                return nameOf(roomId);
+            });
+            // The cached room still shows the old capacity
+            rooms.evict(roomId);
+            if (name != null) {
+                roomsByName.evict(name);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The room's name for evicting it from the name cache, from the cached room or else from the persistence
+     * context, which already holds the room the caller booked.
+     */
+    private String nameOf(Long roomId) {
+        Room cached = rooms.get(roomId, Room.class);
+        if (cached != null) {
+            return cached.getName();
+        }
+        return roomRepository.findById(roomId).map(Room::getName).orElse(null);
+    }
+}
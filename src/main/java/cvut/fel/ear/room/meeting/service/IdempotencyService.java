@@ -0,0 +1,145 @@
+package cvut.fel.ear.room.meeting.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import cvut.fel.ear.room.meeting.config.IdempotencyProperties;
+import cvut.fel.ear.room.meeting.entity.IdempotencyRecord;
+import cvut.fel.ear.room.meeting.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores the responses of requests sent with an {@code Idempotency-Key}. Completed responses are kept in a bounded
+ * in-memory cache in front of the {@code idempotency_key} table, so most retries are answered without touching
+ * the database. Claims are only written to the table, whose primary key lets one request per key through across
+ * all instances.
+ * <p>
+ * A claim without a response is given up after {@code pending-timeout}, unless its request is still running on this
+ * instance. A processed request whose response cannot be stored is completed with its status alone, so its claim is
+ * never given up and a retry is not processed again.
+ * <p>
+ * Lookups run in read-write transactions so they are not routed to a replica that may not have the claim yet.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyRecordRepository repository;
+
+    private final Duration ttl;
+
+    private final Duration pendingTimeout;
+
+    private final Cache<String, IdempotencyRecord> completed;
+
+    /**
+     * Keys claimed by requests that are still running on this instance.
+     */
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository repository, IdempotencyProperties properties) {
+        this.repository = repository;
+        this.ttl = properties.getTtl();
+        this.pendingTimeout = properties.getPendingTimeout();
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * The record stored for the key, if any. Expired records and abandoned claims are removed and not returned.
+     */
+    @Transactional
+    public Optional<IdempotencyRecord> find(String key) {
+        IdempotencyRecord cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<IdempotencyRecord> stored = repository.findById(key);
+        if (stored.isEmpty()) {
+            return stored;
+        }
+        IdempotencyRecord record = stored.get();
+        LocalDateTime now = LocalDateTime.now();
+        if (record.getCreatedAt().isBefore(now.minus(ttl))
+                || !record.isCompleted() && !running.contains(key)
+                && record.getCreatedAt().isBefore(now.minus(pendingTimeout))) {
+            repository.delete(record);
+            return Optional.empty();
+        }
+        if (record.isCompleted()) {
+            completed.put(key, record);
+        }
+        return stored;
+    }
+
+    /**
+     * Claims the key for a request about to be processed.
+     *
+     * @return {@code false} when another request already holds or completed the key
+     */
+    public boolean claim(String key, String fingerprint) {
+        try {
+            repository.saveAndFlush(IdempotencyRecord.claim(key, fingerprint));
+            running.add(key);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @Transactional
+    public void complete(String key, int status, String contentType, String body) {
+        repository.findById(key).ifPresent(record -> {
+            record.complete(status, contentType, body);
+            completed.put(key, record);
+        });
+        running.remove(key);
+    }
+
+    /**
+     * Completes the claim with the status alone, in one statement that does not depend on the claim being loaded.
+     * Used when the full response could not be stored.
+     */
+    @Transactional
+    public void completeStatus(String key, int status) {
+        try {
+            completed.invalidate(key);
+            repository.completeWithStatus(key, status);
+        } finally {
+            running.remove(key);
+        }
+    }
+
+    /**
+     * Gives up a claim, so the client can retry with the same key.
+     */
+    @Transactional
+    public void release(String key) {
+        completed.invalidate(key);
+        running.remove(key);
+        repository.findById(key).ifPresent(repository::delete);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = repository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (purged > 0) {
+            LOG.debug("Purged {} expired idempotency keys.", purged);
+        }
+    }
+}
@@ -1,87 +1,142 @@
 package cvut.fel.ear.room.meeting.service;
 
+import cvut.fel.ear.room.meeting.dto.request.RevenueGrouping;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
+import cvut.fel.ear.room.meeting.dto.response.RevenueTotal;
 import cvut.fel.ear.room.meeting.entity.Payment;
 import cvut.fel.ear.room.meeting.entity.Reservation;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
 import cvut.fel.ear.room.meeting.repository.PaymentRepository;
 import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.service.event.PaymentChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.List;
 
 @Service
 public class PaymentService {
 
+    /**
+     * Open bounds: the first and last instant of the four-digit years, which PostgreSQL and H2 both store. Unlike
+     * {@link LocalDateTime#MIN} and {@link LocalDateTime#MAX} they can be bound as timestamps.
+     */
+    private static final LocalDateTime OPEN_START = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime OPEN_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_999_000);
+
     private final PaymentRepository repository;
     private final ReservationRepository reservationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     @Autowired
-    public PaymentService(PaymentRepository repository, ReservationRepository reservationRepository) {
+    public PaymentService(PaymentRepository repository, ReservationRepository reservationRepository,
+                          ApplicationEventPublisher eventPublisher, EntityManager entityManager) {
         this.repository = repository;
         this.reservationRepository = reservationRepository;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
-    public Collection<Payment> getPayments() {
-        return repository.findAll();
+    public CursorPage<Payment> getPayments(Long after, int limit) {
+        return CursorPage.of(
+                repository.findByIdGreaterThanOrderByIdAsc(CursorPage.after(after), CursorPage.seek(limit)),
+                limit, Payment::getId);
     }
 
+    @Transactional(readOnly = true)
     public Payment getPaymentById(Long paymentId) {
-        Payment payment = repository.findById(paymentId).orElseThrow(
+        return repository.findById(paymentId).orElseThrow(
                 () -> new ApplicationException(
                         HttpStatus.NOT_FOUND, "Payment with id " + paymentId + " does not exist."));
-        createStartingPrice(payment);
-        return payment;
-    }
-
-    public void createStartingPrice(Payment payment) {
-        Double totalPrice = 0D;
-
-        if (reservationRepository.findAllByReservationsPaymentNotNull() != null) {
-            payment.setTotalPrice(totalPrice);
-        }
-        payment.setTotalPrice(totalPrice);
-        repository.save(payment);
     }
 
     public Collection<Payment> getPaymentsByDates(LocalDateTime startDate) {
         return repository.findAllByDateOfCreateAfter(startDate);
     }
 
+    /**
+     * Creates a payment for the reservation. A reservation already paid by another payment is moved to the new one,
+     * and the totals of both payments are recomputed from their reservations.
+     */
+    @Transactional
     public Payment createPayment(Long reservationId) {
-        Payment payment = new Payment();
-        Reservation reservation = addTotalPrice(reservationId, payment);
-        reservation.setReservationsPayment(payment);
-        payment.setDateOfCreate(LocalDateTime.now());
-        return repository.save(payment);
-    }
-
-    private Reservation addTotalPrice(Long reservationId, Payment payment) {
-        Double totalPrice = 0D;
         Reservation reservation = reservationRepository.findById(reservationId).orElseThrow(
                 () -> new ApplicationException(
                         HttpStatus.NOT_FOUND, "Reservation with id " + reservationId + " does not exist."));
-        if (reservationRepository.findAllByReservationsPaymentNotNull() != null) {
-            totalPrice += reservation.getPrice();
+        Payment previous = reservation.getReservationsPayment();
+        Payment payment = new Payment();
+        payment.setTotalPrice(0.0);
+        payment.setDateOfCreate(LocalDateTime.now());
+        Payment saved = repository.save(payment);
+        reservation.setReservationsPayment(saved);
+        reservationRepository.save(reservation);
+        repository.refreshTotalPrice(saved.getId());
+        // The total was set by the update statement, reload it for the response
+        entityManager.refresh(saved);
+        eventPublisher.publishEvent(
+                new PaymentChangedEvent(saved.getId(), reservationId, PaymentChangedEvent.Type.CREATED));
+        if (previous != null) {
+            repository.refreshTotalPrice(previous.getId());
+            eventPublisher.publishEvent(
+                    new PaymentChangedEvent(previous.getId(), null, PaymentChangedEvent.Type.UPDATED));
         }
-        payment.setTotalPrice(totalPrice);
-        return reservation;
+        return saved;
     }
 
+    @Transactional
     public void addPaymentReservation(Long id, Long reservationId) {
         Payment payment = repository.findById(id).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Payment whit id " + id + " does not exist."));
         Reservation reservation = reservationRepository.findById(reservationId).orElseThrow(
                 () -> new ApplicationException(
                         HttpStatus.NOT_FOUND, "Reservation with id " + reservationId + " does not exist."));
-        payment.getReservations().add(reservation);
+        Payment previous = reservation.getReservationsPayment();
         reservation.setReservationsPayment(payment);
         reservationRepository.save(reservation);
-        repository.save(payment);
+        repository.refreshTotalPrice(payment.getId());
+        eventPublisher.publishEvent(
+                new PaymentChangedEvent(payment.getId(), reservationId, PaymentChangedEvent.Type.UPDATED));
+        if (previous != null && !previous.getId().equals(payment.getId())) {
+            repository.refreshTotalPrice(previous.getId());
+            eventPublisher.publishEvent(
+                    new PaymentChangedEvent(previous.getId(), null, PaymentChangedEvent.Type.UPDATED));
+        }
+    }
+
+    /**
+     * Revenue of the paid reservations starting within [from, to), either bounds may be {@code null}.
+     */
+    public Double getRevenue(LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+        return reservationRepository.sumPaidPrice(lowerBound(from), upperBound(to));
     }
 
+    /**
+     * Revenue of the paid reservations starting within [from, to) per payment, user or room, ordered by id.
+     */
+    public List<RevenueTotal> getRevenue(RevenueGrouping grouping, LocalDateTime from, LocalDateTime to) {
+        if (grouping == null) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Revenue grouping must be specified.");
+        }
+        validateRange(from, to);
+        LocalDateTime lower = lowerBound(from);
+        LocalDateTime upper = upperBound(to);
+        return switch (grouping) {
+            case PAYMENT -> reservationRepository.sumPaidPriceByPayment(lower, upper);
+            case USER -> reservationRepository.sumPaidPriceByUser(lower, upper);
+            case ROOM -> reservationRepository.sumPaidPriceByRoom(lower, upper);
+        };
+    }
+
+    @Transactional
     public void deletePayment(Long paymentId) {
         boolean exists = repository.existsById(paymentId);
         if (!exists) {
@@ -89,5 +144,21 @@ public class PaymentService {
                     HttpStatus.NOT_FOUND, "Payment with id " + paymentId + " does not exist.");
         }
         repository.deleteById(paymentId);
+        eventPublisher.publishEvent(new PaymentChangedEvent(paymentId, null, PaymentChangedEvent.Type.DELETED));
+    }
+
+    private static void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !to.isAfter(from)) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "To must be after from.");
+        }
+    }
+
+    // Open bounds are replaced by far away dates rather than null parameters, which PostgreSQL cannot type
+    private static LocalDateTime lowerBound(LocalDateTime from) {
+        return from == null ? OPEN_START : from;
+    }
+
+    private static LocalDateTime upperBound(LocalDateTime to) {
+        return to == null ? OPEN_END : to;
     }
 }
@@ -0,0 +1,73 @@
+package cvut.fel.ear.room.meeting.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class ReservationExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReservationExportService.class);
+
+    /**
+     * Rows written between flushes of the output and of the persistence context.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private final ReservationRepository repository;
+    private final EntityManager entityManager;
+    private final ObjectWriter writer;
+
+    @Autowired
+    public ReservationExportService(ReservationRepository repository, EntityManager entityManager,
+                                    ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.writer = objectMapper.writerFor(Reservation.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes every reservation to {@code out} as newline-delimited JSON. Each reservation is detached once written
+     * and the persistence context is cleared every {@link #BATCH_SIZE} rows, so memory use does not grow with the
+     * table.
+     *
+     * @return number of reservations written
+     */
+    @Transactional(readOnly = true)
+    public long exportReservations(OutputStream out) throws IOException {
+        long written = 0;
+        try (Stream<Reservation> reservations = repository.streamAllOrderById();
+             JsonGenerator generator = writer.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<Reservation> iterator = reservations.iterator();
+            while (iterator.hasNext()) {
+                Reservation reservation = iterator.next();
+                writer.writeValue(generator, reservation);
+                generator.writeRaw('\n');
+                entityManager.detach(reservation);
+                if (++written % BATCH_SIZE == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        LOG.debug("Exported {} reservations.", written);
+        return written;
+    }
+}
@@ -0,0 +1,167 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.dto.request.ReservationSeriesRequest;
+import cvut.fel.ear.room.meeting.dto.response.Occurrence;
+import cvut.fel.ear.room.meeting.entity.RecurrenceFrequency;
+import cvut.fel.ear.room.meeting.entity.ReservationSeries;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.metrics.BookingMetrics;
+import cvut.fel.ear.room.meeting.repository.ReservationSeriesRepository;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.service.event.ReservationSeriesChangedEvent;
+import cvut.fel.ear.room.meeting.service.recurrence.RecurrenceRule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class ReservationSeriesService {
+
+    private static final int MAX_INTERVAL = 52;
+
+    private static final Duration MAX_WINDOW = Duration.ofDays(366);
+
+    private final ReservationSeriesRepository repository;
+    private final RoomRepository roomRepository;
+    private final AvailabilityService availabilityService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingMetrics metrics;
+
+    @Autowired
+    public ReservationSeriesService(ReservationSeriesRepository repository, RoomRepository roomRepository,
+                                    AvailabilityService availabilityService,
+                                    ApplicationEventPublisher eventPublisher, BookingMetrics metrics) {
+        this.repository = repository;
+        this.roomRepository = roomRepository;
+        this.availabilityService = availabilityService;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+    }
+
+    public static RecurrenceRule ruleOf(ReservationSeries series) {
+        return RecurrenceRule.of(
+                series.getReservationDateTimeStart(),
+                Duration.between(series.getReservationDateTimeStart(), series.getReservationDateTimeEnd()),
+                series.getFrequency(),
+                series.getRepeatInterval(),
+                series.getWeekdays(),
+                series.getUntilDate(),
+                series.getOccurrenceCount());
+    }
+
+    public ReservationSeries getSeriesById(Long seriesId) {
+        return repository.findById(seriesId).orElseThrow(
+                () -> new ApplicationException(
+                        HttpStatus.NOT_FOUND, "Reservation series with id " + seriesId + " does not exist."));
+    }
+
+    /**
+     * Occurrences of the series intersecting the window. Only this window is expanded.
+     */
+    public List<Occurrence> getOccurrences(Long seriesId, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !to.isAfter(from)) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "End time must be after start time.");
+        }
+        if (Duration.between(from, to).compareTo(MAX_WINDOW) > 0) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Occurrences can be listed for at most " + MAX_WINDOW.toDays() + " days at once.");
+        }
+        ReservationSeries series = getSeriesById(seriesId);
+        RecurrenceRule rule = ruleOf(series);
+        return rule.startsBetween(from, to)
+                .map(start -> new Occurrence(series.getId(), start, start.plus(rule.duration()), series.getPrice()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates the series when none of its occurrences clashes with a reservation or another series of the room. The
+     * room row is locked before the check, so series of the same room are created one at a time.
+     */
+    @Transactional
+    public ReservationSeries createSeries(ReservationSeriesRequest request) {
+        LocalDateTime start = request.reservationDateTimeStart();
+        LocalDateTime end = request.reservationDateTimeEnd();
+        if (request.roomId() == null || start == null || end == null || request.frequency() == null) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Room id, start time, end time and frequency of the series must be specified.");
+        }
+        if (!end.isAfter(start) || !end.isBefore(start.plusDays(1))) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "An occurrence must end after it starts and last less than a day.");
+        }
+        if (start.isBefore(LocalDateTime.now())) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "You cannot select a date and time that has already passed.");
+        }
+        int interval = request.interval() == null ? 1 : request.interval();
+        if (interval < 1 || interval > MAX_INTERVAL) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Interval must be between 1 and " + MAX_INTERVAL + ".");
+        }
+        if (request.count() != null && request.count() < 1) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Count must be at least 1.");
+        }
+        if (roomRepository.lockById(request.roomId()) == null) {
+            throw new ApplicationException(
+                    HttpStatus.NOT_FOUND, "Room with id " + request.roomId() + " does not exist.");
+        }
+        Room room = roomRepository.findById(request.roomId()).orElseThrow();
+
+        ReservationSeries series = new ReservationSeries();
+        series.setRoomSeries(room);
+        series.setReservationDateTimeStart(start);
+        series.setReservationDateTimeEnd(end);
+        series.setFrequency(request.frequency());
+        series.setRepeatInterval(interval);
+        series.setWeekdays(request.frequency() == RecurrenceFrequency.WEEKLY
+                && request.weekdays() != null && !request.weekdays().isEmpty()
+                ? request.weekdays()
+                : EnumSet.of(start.getDayOfWeek()));
+        series.setUntilDate(request.until());
+        series.setOccurrenceCount(request.count());
+        series.setPrice((double) Duration.between(start, end).toMinutes() / 60 * room.getPricePerHour());
+
+        RecurrenceRule rule = ruleOf(series);
+        if (rule.isEmpty()) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "The series does not have any occurrence.");
+        }
+        if (!isRoomFreeForSeries(room.getId(), rule)) {
+            metrics.conflict("series");
+            throw new ApplicationException(HttpStatus.CONFLICT,
+                    "Room with id " + room.getId() + " is already reserved during an occurrence of the series.");
+        }
+        ReservationSeries saved = repository.save(series);
+        eventPublisher.publishEvent(new ReservationSeriesChangedEvent(saved.getId(), room.getId(), rule));
+        return saved;
+    }
+
+    @Transactional
+    public void deleteSeries(Long seriesId) {
+        if (!repository.existsById(seriesId)) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND,
+                    "Reservation series with id " + seriesId + " does not exist.");
+        }
+        repository.deleteById(seriesId);
+        eventPublisher.publishEvent(ReservationSeriesChangedEvent.deleted(seriesId));
+    }
+
+    /**
+     * Other series of the room are read from the database under the room lock, as the availability calendar only
+     * learns of a series after its transaction has committed.
+     */
+    private boolean isRoomFreeForSeries(Long roomId, RecurrenceRule rule) {
+        return availabilityService.isRoomFreeForSeries(roomId, rule)
+                && repository.findByRoomSeriesId(roomId).stream()
+                .map(ReservationSeriesService::ruleOf)
+                .noneMatch(rule::overlaps);
+    }
+}
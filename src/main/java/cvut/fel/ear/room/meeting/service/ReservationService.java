@@ -1,16 +1,29 @@
 package cvut.fel.ear.room.meeting.service;
 
+import cvut.fel.ear.room.meeting.dto.request.ReservationRequest;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
+import cvut.fel.ear.room.meeting.dto.response.ReservationBatchItem;
+import cvut.fel.ear.room.meeting.dto.response.ReservationBatchResult;
 import cvut.fel.ear.room.meeting.entity.Reservation;
 import cvut.fel.ear.room.meeting.entity.Room;
-import cvut.fel.ear.room.meeting.entity.User;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.metrics.BookingMetrics;
+import cvut.fel.ear.room.meeting.repository.PaymentRepository;
 import cvut.fel.ear.room.meeting.repository.ReservationRepository;
 import cvut.fel.ear.room.meeting.repository.RoomRepository;
 import cvut.fel.ear.room.meeting.repository.UserRepository;
+import cvut.fel.ear.room.meeting.service.event.ReservationChangedEvent;
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -20,45 +33,78 @@ import static java.lang.Math.abs;
 @Service
 public class ReservationService {
 
+    private static final int MAX_BATCH_SIZE = 10_000;
+
+    /**
+     * Name of the exclusion constraint in {@code db/postgresql/room-overlap-constraint.sql}.
+     */
+    static final String OVERLAP_CONSTRAINT = "room_reservations_no_overlap";
+
+    /**
+     * Postgres SQLState of an exclusion constraint violation.
+     */
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
     private final ReservationRepository repository;
     private final RoomRepository roomRepository;
     private final UserRepository userRepository;
+    private final PaymentRepository paymentRepository;
+    private final AvailabilityService availabilityService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingMetrics metrics;
 
     @Autowired
     public ReservationService(ReservationRepository repository, RoomRepository roomRepository,
-                              UserRepository userRepository) {
+                              UserRepository userRepository, PaymentRepository paymentRepository,
+                              AvailabilityService availabilityService, ApplicationEventPublisher eventPublisher,
+                              BookingMetrics metrics) {
         this.repository = repository;
         this.roomRepository = roomRepository;
         this.userRepository = userRepository;
+        this.paymentRepository = paymentRepository;
+        this.availabilityService = availabilityService;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
     }
 
     /*
     • Reservation service for Admin
     */
 
-    public Collection<Reservation> getReservations() {
-        return repository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<Reservation> getReservations(Long after, int limit) {
+        return CursorPage.of(
+                repository.findByIdGreaterThanOrderByIdAsc(CursorPage.after(after), CursorPage.seek(limit)),
+                limit, Reservation::getId);
     }
 
+    @Transactional(readOnly = true)
     public Reservation getReservationById(Long reservationId) {
         return repository.findById(reservationId).orElseThrow(
                 () -> new ApplicationException(
                         HttpStatus.NOT_FOUND, "Reservation with id " + reservationId + " does not exist."));
     }
 
-    public Collection<Reservation> getReservationsBetween(LocalDateTime timeStart, LocalDateTime timeEnd) {
-        return repository.findReservationsByReservationDateTimeStartBetweenOrReservationDateTimeEndBetween(
-                timeStart, timeEnd,
-                timeStart, timeEnd
-        );
+    @Transactional(readOnly = true)
+    public Collection<Reservation> getReservationsBetween(Long roomId, LocalDateTime timeStart,
+                                                          LocalDateTime timeEnd) {
+        if (timeStart == null || timeEnd == null || !timeStart.isBefore(timeEnd)) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Start time must be before end time.");
+        }
+        if (roomId == null) {
+            return repository.findOverlapping(timeStart, timeEnd);
+        }
+        return repository.findOverlappingInRoom(roomId, timeStart, timeEnd);
     }
 
+    @Transactional
     public void updateReservation(Long reservationId, LocalDateTime reservationDateTimeStart,
                                   LocalDateTime reservationDateTimeEnd) {
         Reservation reservation = repository.findById(reservationId).orElseThrow(
                 () -> new ApplicationException(
                         HttpStatus.NOT_FOUND, "Reservation with id " + reservationId + " does not exist.")
         );
+        ReservationSnapshot previous = ReservationSnapshot.of(reservation);
         if (reservationDateTimeStart != null &&
                 !Objects.equals(reservation.getReservationDateTimeStart(), reservationDateTimeStart) &&
                 !reservationDateTimeStart.isBefore(LocalDateTime.now())) {
@@ -74,32 +120,45 @@ public class ReservationService {
         }
         reservation.setReservationDateTimeStart(reservationDateTimeStart);
         reservation.setReservationDateTimeEnd(reservationDateTimeEnd);
-        repository.save(reservation);
+        Reservation saved;
+        if (reservation.getRoomReservation() != null) {
+            Long roomId = reservation.getRoomReservation().getId();
+            checkRoomIsFree(roomId, reservation);
+            saved = saveInRoom(roomId, reservation);
+        } else {
+            saved = repository.save(reservation);
+        }
+        eventPublisher.publishEvent(new ReservationChangedEvent(previous, ReservationSnapshot.of(saved)));
     }
 
     /*
      * Usage for both roles
      */
+    @Transactional(readOnly = true)
     public List<Reservation> getReservationsByNumAsc(int num) {
-        return getReservations(repository.findAllByIdIsNotNullOrderByPriceAsc(), num);
+        if (checkTopNumber(num) == 0) {
+            return new ArrayList<>();
+        }
+        return repository.findAllByIdIsNotNullOrderByPriceAsc(PageRequest.of(0, num));
     }
 
+    @Transactional(readOnly = true)
     public List<Reservation> getReservationsByNumDesc(Integer num) {
-        return getReservations(repository.findAllByIdIsNotNullOrderByPriceDesc(), num);
+        if (checkTopNumber(num) == 0) {
+            return new ArrayList<>();
+        }
+        return repository.findAllByIdIsNotNullOrderByPriceDesc(PageRequest.of(0, num));
     }
 
-    private List<Reservation> getReservations(List<Reservation> reservations, Integer num) {
-        List<Reservation> printReservations = new ArrayList<>();
-        if (num > repository.count()) {
-            throw new ApplicationException(HttpStatus.BAD_REQUEST,
-                    "Top number can be maximum " + repository.count() + ".");
+    private int checkTopNumber(int num) {
+        long count = repository.count();
+        if (num > count) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Top number can be maximum " + count + ".");
         }
-        for (int i = 0; i < num; i++) {
-            printReservations.add(reservations.get(i));
-        }
-        return printReservations;
+        return Math.max(num, 0);
     }
 
+    @Transactional(readOnly = true)
     public Collection<Reservation> getReservationsStart(LocalDateTime timeStart) {
         if (timeStart == null) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Start time must be set.");
@@ -107,6 +166,7 @@ public class ReservationService {
         return repository.findAllByReservationDateTimeStartAfter(timeStart);
     }
 
+    @Transactional(readOnly = true)
     public Collection<Reservation> getReservationsEnd(LocalDateTime timeEnd) {
         if (timeEnd == null) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "End time must be set.");
@@ -114,9 +174,139 @@ public class ReservationService {
         return repository.findAllByReservationDateTimeEndBefore(timeEnd);
     }
 
+    @Transactional
     public Reservation createReservation(LocalDateTime reservationDateTimeStart,
                                          LocalDateTime reservationDateTimeEnd) {
         Reservation reservation = new Reservation();
+        validateReservationTime(reservationDateTimeStart, reservationDateTimeEnd);
+        reservation.setPrice(0D);
+        reservation.setReservationDateTimeStart(reservationDateTimeStart);
+        reservation.setReservationDateTimeEnd(reservationDateTimeEnd);
+        Reservation saved = repository.save(reservation);
+        eventPublisher.publishEvent(ReservationChangedEvent.created(ReservationSnapshot.of(saved)));
+        return saved;
+    }
+
+    /**
+     * Creates a batch of reservations in one transaction. Requests that name a room take it directly and are
+     * checked for overlaps with each other and with existing reservations. If any request is rejected nothing is
+     * written and the valid requests are reported as {@link HttpStatus#FAILED_DEPENDENCY}.
+     */
+    @Transactional
+    public ReservationBatchResult createReservations(List<ReservationRequest> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "A batch must contain between 1 and " + MAX_BATCH_SIZE + " reservations.");
+        }
+        Map<Long, Room> rooms = new HashMap<>();
+        roomRepository.findAllById(requests.stream()
+                        .map(ReservationRequest::roomId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .forEach(room -> rooms.put(room.getId(), room));
+
+        List<Reservation> reservations = new ArrayList<>(requests.size());
+        ReservationBatchItem[] items = new ReservationBatchItem[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                reservations.add(prepareBatchReservation(requests.get(i), rooms));
+            } catch (ApplicationException e) {
+                reservations.add(null);
+                items[i] = ReservationBatchItem.rejected(i, e.getHttpStatus(), e.getMessage());
+            }
+        }
+        rejectOverlapsWithinBatch(reservations, items);
+        if (Arrays.stream(items).anyMatch(Objects::nonNull)) {
+            for (int i = 0; i < items.length; i++) {
+                if (items[i] == null) {
+                    items[i] = ReservationBatchItem.rejected(i, HttpStatus.FAILED_DEPENDENCY,
+                            "Not created because other reservations of the batch were rejected.");
+                }
+            }
+            return new ReservationBatchResult(false, List.of(items));
+        }
+
+        List<Reservation> saved;
+        try {
+            saved = repository.saveAll(reservations);
+            repository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (!isRoomOverlap(e)) {
+                throw e;
+            }
+            metrics.conflict("batch");
+            throw new ApplicationException(HttpStatus.CONFLICT,
+                    "The batch overlaps a reservation that was created concurrently.");
+        }
+        for (int i = 0; i < saved.size(); i++) {
+            items[i] = ReservationBatchItem.created(i, saved.get(i).getId());
+            eventPublisher.publishEvent(ReservationChangedEvent.created(ReservationSnapshot.of(saved.get(i))));
+        }
+        return new ReservationBatchResult(true, List.of(items));
+    }
+
+    private Reservation prepareBatchReservation(ReservationRequest request, Map<Long, Room> rooms) {
+        LocalDateTime start = request.reservationDateTimeStart();
+        LocalDateTime end = request.reservationDateTimeEnd();
+        if (start == null || end == null) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Start time and end time for reservation must be specified.");
+        }
+        if (!end.isAfter(start)) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "End time must be after start time.");
+        }
+        validateReservationTime(start, end);
+        Reservation reservation = new Reservation();
+        reservation.setReservationDateTimeStart(start);
+        reservation.setReservationDateTimeEnd(end);
+        if (request.roomId() != null) {
+            Room room = rooms.get(request.roomId());
+            if (room == null) {
+                throw new ApplicationException(HttpStatus.NOT_FOUND,
+                        "Room with id " + request.roomId() + " does not exist.");
+            }
+            if (!availabilityService.isRoomFree(room.getId(), start, end)) {
+                throw roomAlreadyReserved(room.getId(), reservation);
+            }
+            reservation.setRoomReservation(room);
+        }
+        addPriceToReservation(reservation);
+        return reservation;
+    }
+
+    /**
+     * Sorts the valid reservations of each room by start and rejects every one that begins before an earlier one of
+     * the same room has ended.
+     */
+    private void rejectOverlapsWithinBatch(List<Reservation> reservations, ReservationBatchItem[] items) {
+        Map<Long, List<Integer>> byRoom = new HashMap<>();
+        for (int i = 0; i < reservations.size(); i++) {
+            Reservation reservation = reservations.get(i);
+            if (reservation != null && reservation.getRoomReservation() != null) {
+                byRoom.computeIfAbsent(reservation.getRoomReservation().getId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+        for (List<Integer> indexes : byRoom.values()) {
+            indexes.sort(Comparator.comparing(i -> reservations.get(i).getReservationDateTimeStart()));
+            int latest = indexes.get(0);
+            for (int i : indexes.subList(1, indexes.size())) {
+                Reservation reservation = reservations.get(i);
+                Reservation previous = reservations.get(latest);
+                if (reservation.getReservationDateTimeStart().isBefore(previous.getReservationDateTimeEnd())) {
+                    metrics.conflict("batch");
+                    items[i] = ReservationBatchItem.rejected(i, HttpStatus.CONFLICT,
+                            "Overlaps reservation " + latest + " of the batch in room with id " +
+                                    reservation.getRoomReservation().getId() + ".");
+                }
+                if (reservation.getReservationDateTimeEnd().isAfter(previous.getReservationDateTimeEnd())) {
+                    latest = i;
+                }
+            }
+        }
+    }
+
+    private static void validateReservationTime(LocalDateTime reservationDateTimeStart,
+                                                LocalDateTime reservationDateTimeEnd) {
         if (reservationDateTimeStart.isBefore(LocalDateTime.now())) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST,
                     "You cannot select a date and time that has already passed.");
@@ -129,16 +319,13 @@ public class ReservationService {
                     "You cannot select a date and time that is greater" +
                             " than the maximum date and time of the current month.");
         }
-        reservation.setPrice(0D);
-        reservation.setReservationDateTimeStart(reservationDateTimeStart);
-        reservation.setReservationDateTimeEnd(reservationDateTimeEnd);
-        return repository.save(reservation);
     }
 
     /*
     • Reservation service for User
     */
 
+    @Transactional
     public void addReservationRoom(Long reservationId, Long roomId) {
         Reservation reservation = repository.findById(reservationId)
                 .orElseThrow(
@@ -151,9 +338,59 @@ public class ReservationService {
         if (reservation.getReservationsPayment() == null) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Room cannot be added until payment is not set.");
         }
+        checkRoomIsFree(roomId, reservation);
+        ReservationSnapshot previous = ReservationSnapshot.of(reservation);
         reservation.setRoomReservation(room);
         addPriceToReservation(reservation);
-        repository.save(reservation);
+        Reservation saved = saveInRoom(roomId, reservation);
+        paymentRepository.refreshTotalPrice(reservation.getReservationsPayment().getId());
+        eventPublisher.publishEvent(new ReservationChangedEvent(previous, ReservationSnapshot.of(saved)));
+    }
+
+    private void checkRoomIsFree(Long roomId, Reservation reservation) {
+        if (!availabilityService.isRoomFreeFor(roomId, reservation)) {
+            throw roomAlreadyReserved(roomId, reservation);
+        }
+    }
+
+    /**
+     * Saves a reservation that holds a room. With the Postgres exclusion constraint in place a concurrent booking
+     * that slipped past {@link #checkRoomIsFree} is rejected by the database; it is reported as the same conflict.
+     * The save is flushed so the violation surfaces here and not at commit. Other integrity violations are rethrown.
+     */
+    private Reservation saveInRoom(Long roomId, Reservation reservation) {
+        try {
+            return repository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            if (!isRoomOverlap(e)) {
+                throw e;
+            }
+            throw roomAlreadyReserved(roomId, reservation);
+        }
+    }
+
+    /**
+     * Whether the violation comes from the overlap exclusion constraint, by its name or by its SQLState.
+     */
+    private static boolean isRoomOverlap(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && OVERLAP_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName())) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && EXCLUSION_VIOLATION.equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ApplicationException roomAlreadyReserved(Long roomId, Reservation reservation) {
+        metrics.conflict("reservation");
+        return new ApplicationException(HttpStatus.CONFLICT,
+                "Room with id " + roomId + " is already reserved between " +
+                        reservation.getReservationDateTimeStart() + " and " +
+                        reservation.getReservationDateTimeEnd() + ".");
     }
 
     public void addPriceToReservation(Reservation reservation) {
@@ -174,28 +411,24 @@ public class ReservationService {
             int inMinutes = deltaHour * 60 + deltaMinute;
             price = (double) inMinutes / 60 * room.getPricePerHour();
             reservation.setPrice(price);
-            repository.save(reservation);
         }
     }
 
+    @Transactional
     public void deleteReservation(Long reservationId) {
-        boolean exists = repository.existsById(reservationId);
-        if (!exists) {
-            throw new ApplicationException(HttpStatus.BAD_REQUEST,
-                    "Reservation with id " + reservationId + " does not exist.");
-        }
+        Reservation reservation = repository.findById(reservationId).orElseThrow(
+                () -> new ApplicationException(HttpStatus.BAD_REQUEST,
+                        "Reservation with id " + reservationId + " does not exist."));
         // Check if there are any reservations for the user
-        Set<Long> userReservedRoomIds = userRepository.findAllByUserHasReservationNotNull()
-                .stream()
-                .map(User::getUserHasReservation)
-                .flatMap(Set::stream) // flatten to stream of reservations
-                .map(Reservation::getId)
-                .collect(Collectors.toSet());
-        if (userReservedRoomIds.contains(reservationId)) {
+        if (userRepository.isReservationHeld(reservationId)) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST,
                     "Reservation with id " + reservationId + " cannot be deleted " +
                             "because it is controlled by user.");
         }
-        repository.deleteById(reservationId);
+        repository.delete(reservation);
+        if (reservation.getReservationsPayment() != null) {
+            paymentRepository.refreshTotalPrice(reservation.getReservationsPayment().getId());
+        }
+        eventPublisher.publishEvent(ReservationChangedEvent.deleted(ReservationSnapshot.of(reservation)));
     }
 }
@@ -0,0 +1,307 @@
+package cvut.fel.ear.room.meeting.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cvut.fel.ear.room.meeting.dto.response.RoomAvailabilityChange;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.service.event.ReservationChangedEvent;
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans out room availability changes to server-sent event streams, each subscribed to a set of rooms or to all of
+ * them. A change is serialized once and the same prepared event is queued for every matching stream. Streams are
+ * written on the task executor, one task per stream with pending events, so neither the booking that caused the
+ * change nor other clients wait for a slow client. A stream that falls {@value #MAX_PENDING} events behind is
+ * closed; its client reconnects and reloads the free rooms. A stream follows at most {@value #MAX_ROOMS_PER_STREAM}
+ * rooms, and a room is dropped from the fan-out once its last stream is closed.
+ * <p>
+ * Idle streams hold no thread, only their connection, and get a comment every
+ * {@code app.availability.keep-alive-interval} so proxies keep them open.
+ */
+@Component
+public class RoomAvailabilityHub {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RoomAvailabilityHub.class);
+
+    public static final String EVENT_NAME = "availability";
+
+    static final int MAX_PENDING = 32;
+
+    public static final int MAX_ROOMS_PER_STREAM = 100;
+
+    private static final SseEmitter.SseEventBuilder KEEP_ALIVE = new PreparedEvent(
+            SseEmitter.event().comment("keep-alive"));
+
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final long timeoutMillis;
+    private final int maxStreams;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> allRooms = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<Long, Set<Subscriber>> byRoom = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RoomAvailabilityHub(ObjectMapper objectMapper,
+                               @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                               Executor executor,
+                               @Value("${app.availability.stream-timeout:PT30M}") Duration timeout,
+                               @Value("${app.availability.max-streams:10000}") int maxStreams) {
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.timeoutMillis = timeout.toMillis();
+        this.maxStreams = maxStreams;
+    }
+
+    /**
+     * Opens a stream of the changes of {@code roomIds}, or of all rooms when the set is empty.
+     */
+    public SseEmitter subscribe(Set<Long> roomIds) {
+        return subscribe(roomIds, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Set<Long> roomIds, SseEmitter emitter) {
+        if (subscribers.size() >= maxStreams) {
+            throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many availability streams are open, try again later.");
+        }
+        if (roomIds.size() > MAX_ROOMS_PER_STREAM) {
+            throw tooManyRooms();
+        }
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(roomIds));
+        subscribers.add(subscriber);
+        if (subscriber.rooms.isEmpty()) {
+            allRooms.add(subscriber);
+        } else {
+            // Added inside compute, so a stream closing at the same time cannot drop the set being added to
+            subscriber.rooms.forEach(roomId -> byRoom.compute(roomId, (id, room) -> {
+                Set<Subscriber> subscribed = room == null ? ConcurrentHashMap.newKeySet() : room;
+                subscribed.add(subscriber);
+                return subscribed;
+            }));
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        return emitter;
+    }
+
+    public static ApplicationException tooManyRooms() {
+        return new ApplicationException(HttpStatus.BAD_REQUEST,
+                "At most " + MAX_ROOMS_PER_STREAM + " rooms can be followed by one stream.");
+    }
+
+    /**
+     * Publishes the change once it is committed. Changes that move neither the start, the end nor the room, such as
+     * a new price, are not published.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        ReservationSnapshot previous = occupying(event.previous());
+        ReservationSnapshot current = occupying(event.current());
+        if (previous != null && current != null && previous.roomId().equals(current.roomId())) {
+            if (!previous.start().equals(current.start()) || !previous.end().equals(current.end())) {
+                publish(new RoomAvailabilityChange(current.roomId(), current.id(), slot(previous), slot(current)));
+            }
+            return;
+        }
+        if (previous != null) {
+            publish(new RoomAvailabilityChange(previous.roomId(), previous.id(), slot(previous), null));
+        }
+        if (current != null) {
+            publish(new RoomAvailabilityChange(current.roomId(), current.id(), null, slot(current)));
+        }
+    }
+
+    private static ReservationSnapshot occupying(ReservationSnapshot snapshot) {
+        return snapshot != null && snapshot.occupiesRoom() ? snapshot : null;
+    }
+
+    private static RoomAvailabilityChange.Slot slot(ReservationSnapshot snapshot) {
+        return new RoomAvailabilityChange.Slot(snapshot.start(), snapshot.end());
+    }
+
+    void publish(RoomAvailabilityChange change) {
+        Set<Subscriber> room = byRoom.getOrDefault(change.roomId(), Set.of());
+        if (room.isEmpty() && allRooms.isEmpty()) {
+            return;
+        }
+        PreparedEvent event;
+        try {
+            event = new PreparedEvent(SseEmitter.event()
+                    .name(EVENT_NAME)
+                    .data(objectMapper.writeValueAsString(change), MediaType.APPLICATION_JSON));
+        } catch (JsonProcessingException e) {
+            LOG.error("Availability change of room {} cannot be serialized.", change.roomId(), e);
+            return;
+        }
+        allRooms.forEach(subscriber -> subscriber.offer(event));
+        room.forEach(subscriber -> subscriber.offer(event));
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability.keep-alive-interval:PT20S}")
+    public void keepAlive() {
+        subscribers.forEach(subscriber -> subscriber.offer(KEEP_ALIVE));
+    }
+
+    /**
+     * Open streams, for monitoring.
+     */
+    public int size() {
+        return subscribers.size();
+    }
+
+    /**
+     * Rooms followed by at least one stream.
+     */
+    int followedRooms() {
+        return byRoom.size();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Set<Long> rooms;
+
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pendingCount = new AtomicInteger();
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Set<Long> rooms) {
+            this.emitter = emitter;
+            this.rooms = rooms;
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > MAX_PENDING) {
+                LOG.debug("Closing availability stream that fell {} events behind.", MAX_PENDING);
+                close();
+                emitter.complete();
+                return;
+            }
+            pending.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                LOG.trace("Availability stream closed: {}", e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+                if (!closed.get() && !pending.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                allRooms.remove(this);
+                rooms.forEach(roomId -> byRoom.computeIfPresent(roomId, (id, room) -> {
+                    room.remove(this);
+                    return room.isEmpty() ? null : room;
+                }));
+                pending.clear();
+            }
+        }
+    }
+
+    /**
+     * An event built once and sent as is to every stream.
+     */
+    private static final class PreparedEvent implements SseEmitter.SseEventBuilder {
+
+        private final Set<ResponseBodyEmitter.DataWithMediaType> data;
+
+        private PreparedEvent(SseEmitter.SseEventBuilder builder) {
+            this.data = Objects.requireNonNull(builder.build());
+        }
+
+        @Override
+        public Set<ResponseBodyEmitter.DataWithMediaType> build() {
+            return data;
+        }
+
+        @Override
+        public SseEmitter.SseEventBuilder id(String id) {
+            throw new UnsupportedOperationException("A prepared event cannot be changed.");
+        }
+
+        @Override
+        public SseEmitter.SseEventBuilder name(String eventName) {
+            throw new UnsupportedOperationException("A prepared event cannot be changed.");
+        }
+
+        @Override
+        public SseEmitter.SseEventBuilder reconnectTime(long reconnectTimeMillis) {
+            throw new UnsupportedOperationException("A prepared event cannot be changed.");
+        }
+
+        @Override
+        public SseEmitter.SseEventBuilder comment(String comment) {
+            throw new UnsupportedOperationException("A prepared event cannot be changed.");
+        }
+
+        @Override
+        public SseEmitter.SseEventBuilder data(Object object) {
+            throw new UnsupportedOperationException("A prepared event cannot be changed.");
+        }
+
+        @Override
+        public SseEmitter.SseEventBuilder data(Object object, MediaType mediaType) {
+            throw new UnsupportedOperationException("A prepared event cannot be changed.");
+        }
+    }
+}
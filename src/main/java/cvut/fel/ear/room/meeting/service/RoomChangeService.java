@@ -0,0 +1,136 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.dto.response.RoomChangeItem;
+import cvut.fel.ear.room.meeting.dto.response.RoomChanges;
+import cvut.fel.ear.room.meeting.entity.RoomChange;
+import cvut.fel.ear.room.meeting.entity.RoomChangeId;
+import cvut.fel.ear.room.meeting.entity.RoomChangeType;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.RoomChangeRepository;
+import cvut.fel.ear.room.meeting.service.event.ReservationChangedEvent;
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Keeps a versioned change log of each room's calendar, so calendar clients fetch what changed since the version
+ * they hold instead of all reservations. Changes are written in the transaction of the reservation change.
+ * <p>
+ * A client whose version is no longer covered by the log, because older changes were purged after
+ * {@code app.changes.retention}, gets a reset with the room's upcoming reservations instead.
+ * <p>
+ * Only rows of {@code room_reservations} are covered. Reservation series are not logged and their occurrences are
+ * not part of a reset.
+ */
+@Service
+public class RoomChangeService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RoomChangeService.class);
+
+    /**
+     * Largest number of changes returned at once.
+     */
+    public static final int MAX_CHANGES = 500;
+
+    private static final LocalDateTime OPEN_END = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final RoomChangeRepository repository;
+    private final ReservationRepository reservationRepository;
+    private final RoomService roomService;
+    private final Duration retention;
+
+    @Autowired
+    public RoomChangeService(RoomChangeRepository repository, ReservationRepository reservationRepository,
+                             RoomService roomService, @Value("${app.changes.retention:P30D}") Duration retention) {
+        this.repository = repository;
+        this.reservationRepository = reservationRepository;
+        this.roomService = roomService;
+        this.retention = retention;
+    }
+
+    /**
+     * Records the change in every room it affects. A reservation moved to another room is removed from the old
+     * one. Rooms are locked in id order, so two moves in opposite directions cannot deadlock.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        ReservationSnapshot previous = event.previous();
+        ReservationSnapshot current = event.current();
+        TreeMap<Long, ReservationSnapshot> upserts = new TreeMap<>();
+        TreeMap<Long, RoomChangeType> changes = new TreeMap<>();
+        if (current != null && current.roomId() != null) {
+            changes.put(current.roomId(), RoomChangeType.UPSERT);
+            upserts.put(current.roomId(), current);
+        }
+        if (previous != null && previous.roomId() != null) {
+            changes.putIfAbsent(previous.roomId(), RoomChangeType.REMOVE);
+        }
+        changes.forEach((roomId, type) -> {
+            Long latest = repository.lockRoomAndFindLatestVersion(roomId);
+            ReservationSnapshot state = upserts.get(roomId);
+            repository.save(new RoomChange(new RoomChangeId(roomId, latest == null ? 1 : latest + 1),
+                    event.reservationId(), type, state == null ? null : state.start(),
+                    state == null ? null : state.end()));
+        });
+    }
+
+    /**
+     * Changes of the room after version {@code since}, at most {@code limit} of them. A reset is returned when
+     * {@code since} is {@code null} or not covered by the log. The version is read before the reservations of a
+     * reset, so a change committed in between is also sent again as a change.
+     */
+    @Transactional(readOnly = true)
+    public RoomChanges getChanges(Long roomId, Long since, int limit) {
+        if (limit <= 0 || limit > MAX_CHANGES) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Limit must be between 1 and " + MAX_CHANGES + ".");
+        }
+        roomService.getRoomById(roomId);
+        Long latest = repository.findLatestVersion(roomId);
+        long version = latest == null ? 0 : latest;
+        if (since == null || since > version || since < oldestCovered(roomId)) {
+            List<RoomChangeItem> reservations = reservationRepository
+                    .findOverlappingInRoom(roomId, LocalDateTime.now(), OPEN_END).stream()
+                    .map(reservation -> RoomChangeItem.current(version, reservation))
+                    .toList();
+            return new RoomChanges(roomId, version, true, false, reservations);
+        }
+        List<RoomChangeItem> changes = repository.findSince(roomId, since, PageRequest.of(0, limit)).stream()
+                .map(RoomChangeItem::of)
+                .toList();
+        long last = changes.isEmpty() ? since : changes.get(changes.size() - 1).version();
+        return new RoomChanges(roomId, last, false, last < version, changes);
+    }
+
+    /**
+     * The lowest version a client can continue from: the one before the oldest change still kept.
+     */
+    private long oldestCovered(Long roomId) {
+        Long oldest = repository.findOldestVersion(roomId);
+        return oldest == null ? 0 : oldest - 1;
+    }
+
+    @Scheduled(fixedDelayString = "${app.changes.purge-interval:PT1H}",
+            initialDelayString = "${app.changes.purge-interval:PT1H}")
+    public void purgeOldChanges() {
+        int purged = repository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            LOG.debug("Purged {} room calendar changes.", purged);
+        }
+    }
+}
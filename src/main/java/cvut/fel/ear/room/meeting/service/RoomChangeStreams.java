@@ -0,0 +1,212 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.dto.response.RoomChanges;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.service.event.ReservationChangedEvent;
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes room calendar changes to server-sent event streams. After a reservation change commits, the affected rooms
+ * are read from the change log once per distinct client version and sent on the task executor, so writers do not
+ * wait for slow clients. Every {@code app.changes.poll-interval} all streamed rooms are checked as well, which
+ * picks up changes made on other instances and keeps idle connections open; that check also runs each room on the
+ * task executor, so a slow client never holds up the scheduler. At most {@code app.changes.max-streams} streams
+ * are open at once.
+ */
+@Component
+public class RoomChangeStreams {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RoomChangeStreams.class);
+
+    public static final String EVENT_NAME = "changes";
+
+    private final RoomChangeService changeService;
+    private final Executor executor;
+    private final long timeoutMillis;
+    private final int maxStreams;
+
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+
+    @Autowired
+    public RoomChangeStreams(RoomChangeService changeService,
+                             @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                             Executor executor,
+                             @Value("${app.changes.stream-timeout:PT30M}") Duration timeout,
+                             @Value("${app.changes.max-streams:10000}") int maxStreams) {
+        this.changeService = changeService;
+        this.executor = executor;
+        this.timeoutMillis = timeout.toMillis();
+        this.maxStreams = maxStreams;
+    }
+
+    /**
+     * Opens a stream of the room's changes after {@code since}, starting with the changes or reset the client
+     * would get from {@link RoomChangeService#getChanges}.
+     */
+    public SseEmitter subscribe(Long roomId, Long since) {
+        return subscribe(roomId, since, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Long roomId, Long since, SseEmitter emitter) {
+        RoomChanges initial = changeService.getChanges(roomId, since, RoomChangeService.MAX_CHANGES);
+        if (open.incrementAndGet() > maxStreams) {
+            open.decrementAndGet();
+            throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many change streams are open, try again later.");
+        }
+        Subscriber subscriber = new Subscriber(emitter, initial.version());
+        // Added inside compute, so a stream closing at the same time cannot drop the set being added to
+        subscribers.compute(roomId, (id, room) -> {
+            Set<Subscriber> subscribed = room == null ? ConcurrentHashMap.newKeySet() : room;
+            subscribed.add(subscriber);
+            return subscribed;
+        });
+        Runnable remove = () -> unsubscribe(roomId, subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        synchronized (subscriber) {
+            send(roomId, subscriber, initial);
+        }
+        if (initial.more()) {
+            pushAsync(roomId);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        pushAsync(event.previous());
+        pushAsync(event.current());
+    }
+
+    private void pushAsync(ReservationSnapshot snapshot) {
+        if (snapshot != null && snapshot.roomId() != null && subscribers.containsKey(snapshot.roomId())) {
+            pushAsync(snapshot.roomId());
+        }
+    }
+
+    private void pushAsync(Long roomId) {
+        try {
+            executor.execute(() -> push(roomId));
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Changes of room {} are pushed with the next poll: {}", roomId, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.changes.poll-interval:PT15S}")
+    public void pushAll() {
+        subscribers.keySet().forEach(this::pushAsync);
+    }
+
+    /**
+     * Sends every subscriber of the room the changes after its version. Subscribers at the same version, usually
+     * all of them, share one read.
+     */
+    void push(Long roomId) {
+        Set<Subscriber> room = subscribers.get(roomId);
+        if (room == null || room.isEmpty()) {
+            return;
+        }
+        Map<Long, Set<Subscriber>> byVersion = room.stream()
+                .collect(Collectors.groupingBy(subscriber -> subscriber.version, Collectors.toSet()));
+        byVersion.forEach((version, group) -> {
+            RoomChanges changes;
+            try {
+                changes = changeService.getChanges(roomId, version, RoomChangeService.MAX_CHANGES);
+            } catch (RuntimeException e) {
+                LOG.warn("Changes of room {} could not be read: {}", roomId, e.getMessage());
+                return;
+            }
+            for (Subscriber subscriber : group) {
+                synchronized (subscriber) {
+                    // Another push may have moved the subscriber on in the meantime
+                    if (subscriber.version == version) {
+                        send(roomId, subscriber, changes);
+                    }
+                }
+            }
+            if (changes.more()) {
+                pushAsync(roomId);
+            }
+        });
+    }
+
+    private void send(Long roomId, Subscriber subscriber, RoomChanges changes) {
+        try {
+            if (changes.changes().isEmpty() && !changes.reset()) {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                return;
+            }
+            subscriber.emitter.send(SseEmitter.event()
+                    .name(EVENT_NAME)
+                    .id(Long.toString(changes.version()))
+                    .data(changes));
+            subscriber.version = changes.version();
+        } catch (IOException | IllegalStateException e) {
+            LOG.trace("Change stream of room {} closed: {}", roomId, e.getMessage());
+            unsubscribe(roomId, subscriber);
+        }
+    }
+
+    /**
+     * Removes the subscriber, and the room once nobody follows it.
+     */
+    private void unsubscribe(Long roomId, Subscriber subscriber) {
+        subscribers.computeIfPresent(roomId, (id, room) -> {
+            if (room.remove(subscriber)) {
+                open.decrementAndGet();
+            }
+            return room.isEmpty() ? null : room;
+        });
+    }
+
+    /**
+     * Open streams, for monitoring.
+     */
+    public int size() {
+        return open.get();
+    }
+
+    /**
+     * Rooms followed by at least one stream.
+     */
+    int streamedRooms() {
+        return subscribers.size();
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private volatile long version;
+
+        private Subscriber(SseEmitter emitter, long version) {
+            this.emitter = emitter;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.config.AppConfig;
+import cvut.fel.ear.room.meeting.dto.request.RoomSearchSort;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
+import cvut.fel.ear.room.meeting.dto.response.RoomSummary;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.service.event.RoomChangedEvent;
+import cvut.fel.ear.room.meeting.service.search.RoomSearchIndex;
+import cvut.fel.ear.room.meeting.service.search.RoomSearchQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.LongPredicate;
+
+/**
+ * Searches rooms by free time window, free places, price and name, ranked and paginated, from a
+ * {@link RoomSearchIndex} and the {@link AvailabilityService}, without a database round trip. The index is loaded at
+ * startup and the changed room is reloaded on every {@link RoomChangedEvent}.
+ */
+@Service
+public class RoomSearchService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RoomSearchService.class);
+
+    private final RoomRepository repository;
+
+    private final AvailabilityService availabilityService;
+
+    private final TransactionTemplate txTemplate;
+
+    private final RoomSearchIndex index = new RoomSearchIndex(UserService.MAX_ROOM_CAPACITY);
+
+    @Autowired
+    public RoomSearchService(RoomRepository repository, AvailabilityService availabilityService,
+                             @Qualifier(AppConfig.PRIMARY_TX_TEMPLATE) TransactionTemplate txTemplate) {
+        this.repository = repository;
+        this.availabilityService = availabilityService;
+        this.txTemplate = txTemplate;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        List<RoomSummary> rooms = txTemplate.execute(status -> repository.findAllSummaries());
+        index.reset(Objects.requireNonNull(rooms));
+        LOG.info("Room search index loaded with {} rooms.", index.size());
+    }
+
+    /**
+     * One page of the rooms matching every given filter. The time window is optional, but needs both ends.
+     * {@code next} of the page is the {@code offset} of the following page.
+     */
+    public CursorPage<RoomSummary> search(LocalDateTime start, LocalDateTime end, Integer seats, Double minPrice,
+                                   Double maxPrice, String namePrefix, RoomSearchSort sort, int offset, int limit) {
+        if (limit <= 0 || limit > CursorPage.MAX_LIMIT) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Limit must be between 1 and " + CursorPage.MAX_LIMIT + ".");
+        }
+        if (offset < 0) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Offset must not be negative.");
+        }
+        if (seats != null && (seats <= 0 || seats > UserService.MAX_ROOM_CAPACITY)) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Seats must be between 1 and " + UserService.MAX_ROOM_CAPACITY + ".");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Minimum price must not exceed maximum price.");
+        }
+        LongPredicate available = roomId -> true;
+        if (start != null || end != null) {
+            if (start == null || end == null) {
+                throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                        "Start time and end time must be specified together.");
+            }
+            if (!end.isAfter(start)) {
+                throw new ApplicationException(HttpStatus.BAD_REQUEST, "End time must be after start time.");
+            }
+            available = roomId -> availabilityService.isRoomFree(roomId, start, end);
+        }
+        RoomSearchQuery query = new RoomSearchQuery(seats, minPrice, maxPrice, namePrefix,
+                sort == null ? RoomSearchSort.PRICE : sort);
+        // One extra room tells whether a next page exists
+        List<RoomSummary> rooms = index.search(query, available, offset, limit + 1);
+        if (rooms.size() <= limit) {
+            return new CursorPage<>(rooms, null);
+        }
+        return new CursorPage<>(rooms.subList(0, limit), (long) offset + limit);
+    }
+
+    /**
+     * Every room free between {@code start} and {@code end}, in id order, from the index instead of loading all
+     * rooms.
+     */
+    public List<RoomSummary> freeRooms(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Start time and end time must be specified.");
+        }
+        if (!end.isAfter(start)) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "End time must be after start time.");
+        }
+        return index.filter(roomId -> availabilityService.isRoomFree(roomId, start, end));
+    }
+
+    /**
+     * Reads the room's columns with a projection query. Capacity changes are bulk updates, so a {@code Room} still
+     * held by the request's persistence context would show the old values.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        Optional<RoomSummary> room = txTemplate.execute(status -> repository.findSummaryById(event.roomId()));
+        if (room != null && room.isPresent()) {
+            index.put(room.get());
+        } else {
+            index.remove(event.roomId());
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package cvut.fel.ear.room.meeting.service;
 
-import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.config.CacheConfig;
+import cvut.fel.ear.room.meeting.dto.request.RoomSearchSort;
+import cvut.fel.ear.room.meeting.dto.response.ConsistencyReport;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
+import cvut.fel.ear.room.meeting.dto.response.RoomSummary;
 import cvut.fel.ear.room.meeting.entity.Room;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
 import cvut.fel.ear.room.meeting.repository.AdminRepository;
 import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.ReservationSeriesRepository;
 import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.service.event.RoomChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -24,38 +35,80 @@ public class RoomService {
 
     private final AdminRepository adminRepository;
 
+    private final ReservationSeriesRepository seriesRepository;
+
+    private final AvailabilityService availabilityService;
+
+    private final RoomSearchService searchService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
     @Autowired
     public RoomService(ReservationRepository reservationRepository,
-                       RoomRepository repository, AdminRepository adminRepository1) {
+                       RoomRepository repository, AdminRepository adminRepository1,
+                       ReservationSeriesRepository seriesRepository,
+                       AvailabilityService availabilityService,
+                       RoomSearchService searchService,
+                       ApplicationEventPublisher eventPublisher) {
         this.reservationRepository = reservationRepository;
         this.repository = repository;
         this.adminRepository = adminRepository1;
+        this.seriesRepository = seriesRepository;
+        this.availabilityService = availabilityService;
+        this.searchService = searchService;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Cacheable(cacheNames = CacheConfig.ROOMS, key = "#roomId")
+    @Transactional(readOnly = true)
     public Room getRoomById(Long roomId) {
         return repository.findById(roomId).orElseThrow(
                 () -> new ApplicationException(
                         HttpStatus.NOT_FOUND, "Room with id " + roomId + " does not exist."));
     }
 
-    public Collection<Room> getRooms() {
-        return repository.findAll();
+    /**
+     * Fails with 404 naming the rooms that do not exist.
+     */
+    @Transactional(readOnly = true)
+    public void checkRoomsExist(Set<Long> roomIds) {
+        if (roomIds.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new TreeSet<>(roomIds);
+        missing.removeAll(repository.findExistingIds(roomIds));
+        if (!missing.isEmpty()) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "Rooms with ids " + missing + " do not exist.");
+        }
     }
 
-    public Collection<Room> getFreeRooms() {
-        return repository.findRoomsByReservationsIsNull();
+    @Transactional(readOnly = true)
+    public CursorPage<Room> getRooms(Long after, int limit) {
+        return CursorPage.of(
+                repository.findByIdGreaterThanOrderByIdAsc(CursorPage.after(after), CursorPage.seek(limit)),
+                limit, Room::getId);
     }
 
-    public Collection<Room> getFreeRoomsBetweenTime(LocalDateTime startTime, LocalDateTime endTime) {
-        Set<Room> availableRooms = repository.findAll();
-        Set<Reservation> reservations = reservationRepository.
-                findReservationsByReservationDateTimeStartBetweenOrReservationDateTimeEndBetween(
-                        startTime, endTime,
-                        startTime, endTime);
-        for (Reservation reservation : reservations) {
-            availableRooms.remove(reservation.getRoomReservation());
-        }
-        return availableRooms;
+    @Transactional(readOnly = true)
+    public CursorPage<Room> getFreeRooms(Long after, int limit) {
+        return CursorPage.of(
+                repository.findByReservationsIsEmptyAndIdGreaterThanOrderByIdAsc(
+                        CursorPage.after(after), CursorPage.seek(limit)),
+                limit, Room::getId);
+    }
+
+    public List<RoomSummary> getFreeRoomsBetweenTime(LocalDateTime startTime, LocalDateTime endTime) {
+        return searchService.freeRooms(startTime, endTime);
+    }
+
+    public CursorPage<RoomSummary> searchRooms(LocalDateTime startTime, LocalDateTime endTime, Integer seats,
+                                               Double minPrice, Double maxPrice, String namePrefix,
+                                               RoomSearchSort sort, int offset, int limit) {
+        return searchService.search(startTime, endTime, seats, minPrice, maxPrice, namePrefix, sort, offset, limit);
+    }
+
+    public ConsistencyReport checkAvailabilityConsistency() {
+        return availabilityService.checkConsistency();
     }
 
     public Room createRoom(String name, Double pricePerHour, String description) {
@@ -72,9 +125,16 @@ public class RoomService {
         newRoom.setPricePerHour(pricePerHour);
         newRoom.setText(description);
         newRoom.setDateOfCreate(LocalDateTime.now());
-        return repository.save(newRoom);
+        Room saved = repository.save(newRoom);
+        eventPublisher.publishEvent(new RoomChangedEvent(saved.getId()));
+        return saved;
     }
 
+    // The previous name is not known here, so every name entry goes
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ROOMS, key = "#roomId"),
+            @CacheEvict(cacheNames = CacheConfig.ROOMS_BY_NAME, allEntries = true)
+    })
     public void updateRoom(Long roomId, String name, Double pricePerHour, String description) {
         Room room = repository.findById(roomId).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "Room with id " + roomId + " does not exist."));
@@ -91,8 +151,13 @@ public class RoomService {
                     HttpStatus.BAD_REQUEST, "Description must be filled and can contain lup to 20 characters.");
         }
         repository.save(room);
+        eventPublisher.publishEvent(new RoomChangedEvent(roomId));
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ROOMS, key = "#roomId"),
+            @CacheEvict(cacheNames = CacheConfig.ROOMS_BY_NAME, allEntries = true)
+    })
     public void deleteRoom(Long roomId) {
         boolean exists = repository.existsById(roomId);
         if (!exists) {
@@ -105,6 +170,10 @@ public class RoomService {
             throw new ApplicationException(HttpStatus.BAD_REQUEST,
                     "Room with id " + roomId + " cannot be deleted because it is reserved by a user.");
         }
+        if (seriesRepository.existsByRoomSeriesId(roomId)) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Room with id " + roomId + " cannot be deleted because it has a repeating reservation.");
+        }
         // Check if there are any admins controlling the room
         boolean roomIsControlledByAdmin = adminRepository.existsByAdminControlRoomContains(repository.getOne(roomId));
         if (roomIsControlledByAdmin) {
@@ -113,15 +182,20 @@ public class RoomService {
                             "because it is controlled by one or more admins.");
         }
         repository.deleteById(roomId);
+        eventPublisher.publishEvent(RoomChangedEvent.deleted(roomId));
     }
 
+    @Cacheable(cacheNames = CacheConfig.ROOMS_BY_NAME, key = "#name")
+    @Transactional(readOnly = true)
     public Room getRoomByName(String name) {
-        if (repository.findByName(name) == null) {
+        Room room = repository.findByName(name);
+        if (room == null) {
             throw new ApplicationException(HttpStatus.NOT_FOUND, "Name does not exist.");
         }
-        return repository.findByName(name);
+        return room;
     }
 
+    @Transactional(readOnly = true)
     public List<Room> getRoomsByNumAsc(Integer num) {
         Pageable pageable = PageRequest.of(0, num);
         List<Room> rooms = repository.findTopNByPricePerHourAsc(pageable);
@@ -132,6 +206,7 @@ public class RoomService {
         return rooms;
     }
 
+    @Transactional(readOnly = true)
     public List<Room> getRoomsByNumDesc(Integer num) {
         Pageable pageable = PageRequest.of(0, num);
         List<Room> rooms = repository.findTopNByPricePerHourDesc(pageable);
@@ -142,6 +217,7 @@ public class RoomService {
         return rooms;
     }
 
+    @Transactional(readOnly = true)
     public List<Room> getRoomsByCapacityAsc(Integer num) {
         Pageable pageable = PageRequest.of(0, num);
         List<Room> rooms = repository.findTopNByRoomCapacityAsc(pageable);
@@ -0,0 +1,206 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.dto.response.RoomUsageBucket;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.entity.RoomUsage;
+import cvut.fel.ear.room.meeting.entity.RoomUsageId;
+import cvut.fel.ear.room.meeting.entity.UsageGranularity;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.RoomUsageRepository;
+import cvut.fel.ear.room.meeting.service.event.ReservationChangedEvent;
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+import cvut.fel.ear.room.meeting.service.usage.UsageAccumulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the {@link RoomUsage} rollups. Reservation changes are accumulated in memory per room and hour and
+ * written to the hourly, daily and monthly buckets every {@code app.usage.flush-interval}, so the rollups lag
+ * behind the reservations by at most one interval.
+ */
+@Service
+public class RoomUsageService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RoomUsageService.class);
+
+    /**
+     * Largest number of buckets one usage request may span.
+     */
+    public static final int MAX_BUCKETS = 1000;
+
+    /**
+     * Reservations read between clears of the persistence context during a rebuild.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private final RoomUsageRepository usageRepository;
+    private final ReservationRepository reservationRepository;
+    private final RoomService roomService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate txTemplate;
+
+    private final UsageAccumulator pending = new UsageAccumulator();
+
+    private final Object flushLock = new Object();
+
+    @Autowired
+    public RoomUsageService(RoomUsageRepository usageRepository,
+                            ReservationRepository reservationRepository,
+                            RoomService roomService,
+                            EntityManager entityManager,
+                            PlatformTransactionManager txManager) {
+        this.usageRepository = usageRepository;
+        this.reservationRepository = reservationRepository;
+        this.roomService = roomService;
+        this.entityManager = entityManager;
+        this.txTemplate = new TransactionTemplate(txManager);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (event.previous() != null) {
+            pending.add(event.previous(), -1);
+        }
+        if (event.current() != null) {
+            pending.add(event.current(), 1);
+        }
+    }
+
+    /**
+     * Writes the pending deltas. When the write fails they are put back and retried with the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.usage.flush-interval:PT30S}")
+    public void flush() {
+        synchronized (flushLock) {
+            UsageAccumulator batch = pending.drain();
+            if (batch.size() == 0) {
+                return;
+            }
+            try {
+                txTemplate.executeWithoutResult(status -> write(batch));
+            } catch (RuntimeException e) {
+                pending.addAll(batch);
+                LOG.warn("Writing {} room usage deltas failed, retrying with the next flush.", batch.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Writes what is left on shutdown. Runs on the close event rather than {@code @PreDestroy} because the entity
+     * manager factory may already be closed by the time this bean is destroyed.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Buckets of the room starting within [from, to). Buckets in which the room was never used are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<RoomUsageBucket> getUsage(Long roomId, UsageGranularity granularity,
+                                          LocalDateTime from, LocalDateTime to) {
+        validateWindow(granularity, from, to);
+        roomService.getRoomById(roomId);
+        List<RoomUsageBucket> buckets = new ArrayList<>();
+        for (RoomUsage usage : usageRepository.findBuckets(roomId, granularity, granularity.bucketOf(from), to)) {
+            LocalDateTime start = usage.getId().getBucketStart();
+            long length = Duration.between(start, granularity.next(start)).toMinutes();
+            buckets.add(new RoomUsageBucket(start, usage.getOccupiedMinutes(),
+                    (double) usage.getOccupiedMinutes() / length, usage.getRevenue(), usage.getReservations()));
+        }
+        return buckets;
+    }
+
+    /**
+     * Recomputes all rollups from the reservations table. Meant for backfilling and for repairing the rollups after
+     * reservations were changed outside of the application.
+     * <p>
+     * Pending deltas are dropped once the scan has started, as the reservations committed by then are in its
+     * snapshot. Deltas of reservations committed later are kept and flushed on top of the rebuilt rollups.
+     *
+     * @return number of reservations counted
+     */
+    @Transactional
+    public long rebuild() {
+        synchronized (flushLock) {
+            usageRepository.deleteAllInBatch();
+            UsageAccumulator all = new UsageAccumulator();
+            long counted = 0;
+            long read = 0;
+            try (Stream<Reservation> reservations = reservationRepository.streamAllOrderById()) {
+                Iterator<Reservation> iterator = reservations.iterator();
+                // Fetching the first row runs the query, which takes its snapshot
+                iterator.hasNext();
+                pending.clear();
+                while (iterator.hasNext()) {
+                    ReservationSnapshot snapshot = ReservationSnapshot.of(iterator.next());
+                    if (snapshot.occupiesRoom()) {
+                        all.add(snapshot, 1);
+                        counted++;
+                    }
+                    if (++read % BATCH_SIZE == 0) {
+                        entityManager.clear();
+                    }
+                }
+            }
+            write(all);
+            LOG.info("Room usage rebuilt from {} reservations.", counted);
+            return counted;
+        }
+    }
+
+    private void write(UsageAccumulator batch) {
+        Map<RoomUsageId, RoomUsage> deltas = new HashMap<>();
+        batch.forEach((roomId, hour, minutes, revenue, reservations) -> {
+            for (UsageGranularity granularity : UsageGranularity.values()) {
+                deltas.computeIfAbsent(new RoomUsageId(roomId, granularity, granularity.bucketOf(hour)),
+                        RoomUsage::new).add(minutes, revenue, reservations);
+            }
+        });
+        for (RoomUsage delta : deltas.values()) {
+            RoomUsageId id = delta.getId();
+            int updated = usageRepository.addTo(id.getRoomId(), id.getGranularity(), id.getBucketStart(),
+                    delta.getOccupiedMinutes(), delta.getRevenue(), delta.getReservations());
+            if (updated == 0) {
+                entityManager.persist(delta);
+            }
+        }
+    }
+
+    private static void validateWindow(UsageGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        if (granularity == null || from == null || to == null) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Granularity, from and to must be specified.");
+        }
+        if (!to.isAfter(from)) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "To must be after from.");
+        }
+        ChronoUnit unit = switch (granularity) {
+            case HOUR -> ChronoUnit.HOURS;
+            case DAY -> ChronoUnit.DAYS;
+            case MONTH -> ChronoUnit.MONTHS;
+        };
+        if (unit.between(granularity.bucketOf(from), to) > MAX_BUCKETS) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "The window must not span more than " + MAX_BUCKETS + " buckets.");
+        }
+    }
+}
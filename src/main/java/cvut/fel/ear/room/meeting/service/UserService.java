@@ -1,20 +1,25 @@
 package cvut.fel.ear.room.meeting.service;
 
+import cvut.fel.ear.room.meeting.config.CacheConfig;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
 import cvut.fel.ear.room.meeting.entity.Payment;
 import cvut.fel.ear.room.meeting.entity.Reservation;
 import cvut.fel.ear.room.meeting.entity.User;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.metrics.BookingMetrics;
 import cvut.fel.ear.room.meeting.repository.PaymentRepository;
 import cvut.fel.ear.room.meeting.repository.ReservationRepository;
 import cvut.fel.ear.room.meeting.repository.UserRepository;
 import cvut.fel.ear.room.meeting.util.Constants;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 
@@ -27,28 +32,38 @@ public class UserService {
     private final PaymentRepository paymentRepository;
     private final ReservationRepository reservationRepository;
     private final PasswordEncoder passwordEncoder;
+    private final BookingCoordinator bookingCoordinator;
+    private final BookingMetrics metrics;
 
     @Autowired
     public UserService(UserRepository userRepository,
                        PaymentRepository paymentRepository,
                        ReservationRepository reservationRepository,
-                       PasswordEncoder passwordEncoder) {
+                       PasswordEncoder passwordEncoder,
+                       BookingCoordinator bookingCoordinator,
+                       BookingMetrics metrics) {
         this.repository = userRepository;
         this.paymentRepository = paymentRepository;
         this.reservationRepository = reservationRepository;
         this.passwordEncoder = passwordEncoder;
+        this.bookingCoordinator = bookingCoordinator;
+        this.metrics = metrics;
     }
 
 
-    public Collection<User> getUsers() {
-        return repository.findAll();
+    public CursorPage<User> getUsers(Long after, int limit) {
+        return CursorPage.of(
+                repository.findByIdGreaterThanOrderByIdAsc(CursorPage.after(after), CursorPage.seek(limit)),
+                limit, User::getId);
     }
 
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#id")
     public User getUserById(Long id) {
         return repository.findById(id).orElseThrow(
                 () -> new ApplicationException(HttpStatus.NOT_FOUND, "User with id " + id + " does not exist."));
     }
 
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_USERNAME, key = "#username")
     public User getUserByUsername(String username) {
         User user = repository.findByUsername(username);
         if (user == null) {
@@ -74,6 +89,7 @@ public class UserService {
         return repository.findAllByIdIsNotNullOrderByUsernameDesc();
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_USERNAME, key = "#username")
     public User createUser(String username, String email, String password) {
         User newUser = new User();
         if (username.isEmpty() || email.isEmpty() || password.isEmpty()) {
@@ -94,17 +110,18 @@ public class UserService {
     }
 
     public void addUserReservation(Long userId, Long reservationId) {
-        User user = repository.findById(userId).orElseThrow(
-                () -> new ApplicationException(HttpStatus.NOT_FOUND, "User with Id " + userId + " does not exist."));
-        Reservation reservation = getReservationById(reservationId, reservationRepository, MAX_ROOM_CAPACITY);
-        if (!user.getUserHasReservation().contains(reservation)) {
-            addToRoom(reservation);
-        } else {
-            throw new ApplicationException(HttpStatus.BAD_REQUEST, "User already has a reservation in this room.");
-        }
-        reservationRepository.save(reservation);
-        user.getUserHasReservation().add(reservation);
-        repository.save(user);
+        Reservation reservation = getReservationById(reservationId, reservationRepository, MAX_ROOM_CAPACITY, metrics);
+        // Checked under the room lock, so two identical requests cannot both take a place
+        bookingCoordinator.admit(reservation.getRoomReservation().getId(), MAX_ROOM_CAPACITY, () -> {
+            // Loaded in the booking transaction, so its lazy reservations are changed there
+            User user = findUser(userId);
+            if (repository.holdsReservation(userId, reservationId)) {
+                throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                        "User already has a reservation in this room.");
+            }
+            user.getUserHasReservation().add(reservation);
+            repository.save(user);
+        });
     }
 
     public void addUserPayment(Long userId, Long paymentId) {
@@ -117,6 +134,10 @@ public class UserService {
         repository.save(user);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_USERNAME, allEntries = true)
+    })
     @Transactional
     public void updateUser(Long userId, String username, String email, String password) {
         User user = repository.findById(userId).orElseThrow(
@@ -143,6 +164,10 @@ public class UserService {
         repository.save(user);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_USERNAME, allEntries = true)
+    })
     public void deleteUser(Long userId) {
         boolean exists = repository.existsById(userId);
         if (!exists) {
@@ -152,46 +177,38 @@ public class UserService {
     }
 
     public void deleteReservationFromUser(Long userId, Long reservationId) {
-        User user = repository.findById(userId).orElseThrow(
-                () -> new ApplicationException(HttpStatus.NOT_FOUND, "User with Id " + userId + " does not exist."));
         Reservation reservation = reservationRepository.findById(reservationId).orElseThrow(
                 () -> new ApplicationException(
                         HttpStatus.NOT_FOUND, "Reservation with id " + reservationId + " does not exist."));
-        if (user.getUserHasReservation().contains(reservation)) {
-            removeFromRoom(reservation);
-        } else {
-            throw new ApplicationException(HttpStatus.BAD_REQUEST,
-                    "User " + user.getUsername() + " already does not have a reservation " +
-                            " with id " + reservationId + ".");
-        }
-        user.getUserHasReservation().clear();
-        reservationRepository.save(reservation);
-        repository.save(user);
-    }
-
-    public static void addToRoom(Reservation reservation) {
-        int newRoomCapacity = reservation.getRoomReservation().getRoomCapacity() + 1;
-        reservation.getRoomReservation().setRoomCapacity(newRoomCapacity);
-    }
-
-    public static void removeFromRoom(Reservation reservation) {
-        int newRoomCapacity = reservation.getRoomReservation().getRoomCapacity() - 1;
-        if (newRoomCapacity <= -1) {
-            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Room is already empty.");
-        }
-        reservation.getRoomReservation().setRoomCapacity(newRoomCapacity);
+        bookingCoordinator.release(reservation.getRoomReservation().getId(), () -> {
+            User user = findUser(userId);
+            if (!repository.holdsReservation(userId, reservationId)) {
+                throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                        "User " + user.getUsername() + " already does not have a reservation " +
+                                " with id " + reservationId + ".");
+            }
+            user.getUserHasReservation().removeIf(held -> held.getId().equals(reservationId));
+            repository.save(user);
+        });
+    }
+
+    private User findUser(Long userId) {
+        return repository.findById(userId).orElseThrow(
+                () -> new ApplicationException(HttpStatus.NOT_FOUND, "User with Id " + userId + " does not exist."));
     }
 
     public static Reservation getReservationById(Long reservationId,
                                                  ReservationRepository resRepository,
-                                                 Integer maxRoomCapacity) {
-        Reservation reservation = resRepository.findById(reservationId).orElseThrow(
+                                                 Integer maxRoomCapacity,
+                                                 BookingMetrics metrics) {
+        Reservation reservation = resRepository.findWithRoomAndPaymentById(reservationId).orElseThrow(
                 () -> new ApplicationException(
                         HttpStatus.NOT_FOUND, "Reservation with id " + reservationId + " does not exist."));
         if (reservation.getRoomReservation() == null) {
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Room reservation is null.");
         }
         if (reservation.getRoomReservation().getRoomCapacity() >= maxRoomCapacity) {
+            metrics.capacityFull();
             throw new ApplicationException(HttpStatus.BAD_REQUEST, "Room capacity is full.");
         }
         return reservation;
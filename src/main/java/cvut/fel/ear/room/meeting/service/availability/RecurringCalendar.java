@@ -0,0 +1,66 @@
+package cvut.fel.ear.room.meeting.service.availability;
+
+import cvut.fel.ear.room.meeting.service.recurrence.RecurrenceRule;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recurrence rules of the repeating reservations, grouped by room. A window is checked by asking each rule of the
+ * room whether it has an occurrence there, so series are never expanded. Writers are serialised and replace the
+ * per-room maps, readers never lock.
+ */
+public class RecurringCalendar {
+
+    private final Map<Long, Map<Long, RecurrenceRule>> rooms = new ConcurrentHashMap<>();
+
+    private final Map<Long, Long> roomOfSeries = new ConcurrentHashMap<>();
+
+    public synchronized void put(Long seriesId, Long roomId, RecurrenceRule rule) {
+        remove(seriesId);
+        Map<Long, RecurrenceRule> updated = new HashMap<>(rooms.getOrDefault(roomId, Collections.emptyMap()));
+        updated.put(seriesId, rule);
+        rooms.put(roomId, Collections.unmodifiableMap(updated));
+        roomOfSeries.put(seriesId, roomId);
+    }
+
+    public synchronized void remove(Long seriesId) {
+        Long roomId = roomOfSeries.remove(seriesId);
+        if (roomId == null) {
+            return;
+        }
+        Map<Long, RecurrenceRule> updated = new HashMap<>(rooms.getOrDefault(roomId, Collections.emptyMap()));
+        updated.remove(seriesId);
+        if (updated.isEmpty()) {
+            rooms.remove(roomId);
+        } else {
+            rooms.put(roomId, Collections.unmodifiableMap(updated));
+        }
+    }
+
+    public synchronized void clear() {
+        rooms.clear();
+        roomOfSeries.clear();
+    }
+
+    public boolean isFree(Long roomId, LocalDateTime start, LocalDateTime end) {
+        for (RecurrenceRule rule : inRoom(roomId)) {
+            if (rule.overlaps(start, end)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Collection<RecurrenceRule> inRoom(Long roomId) {
+        return rooms.getOrDefault(roomId, Collections.emptyMap()).values();
+    }
+
+    public int size() {
+        return roomOfSeries.size();
+    }
+}
@@ -0,0 +1,231 @@
+package cvut.fel.ear.room.meeting.service.availability;
+
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index of room reservations answering "is this room free between A and B" without a database
+ * round trip. Writers hold the write lock of a {@link StampedLock}; readers work on immutable {@link RoomTimeline}s
+ * under an optimistic read that is retried with the read lock when a writer got in between, so the bitset and the
+ * timelines are always read as of the same write.
+ * <p>
+ * Windows inside the current month, the only one reservations can be created for, are first checked against a
+ * {@link SlotOccupancy} bitset. The exact timeline is consulted only when the window touches a marked slot.
+ */
+public class RoomAvailabilityIndex {
+
+    private final Map<Long, RoomTimeline> timelines = new ConcurrentHashMap<>();
+
+    private final Map<Long, ReservationSnapshot> reservations = new ConcurrentHashMap<>();
+
+    private final StampedLock lock = new StampedLock();
+
+    private final Clock clock;
+
+    private volatile SlotOccupancy occupancy;
+
+    public RoomAvailabilityIndex() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public RoomAvailabilityIndex(Clock clock) {
+        this.clock = clock;
+        this.occupancy = newOccupancy();
+    }
+
+    public void put(ReservationSnapshot reservation) {
+        write(() -> putLocked(reservation));
+    }
+
+    public void remove(Long reservationId) {
+        write(() -> removeLocked(reservationId));
+    }
+
+    /**
+     * Drops the reservations still indexed for a deleted room and frees its row of the bitset.
+     */
+    public void removeRoom(Long roomId) {
+        write(() -> {
+            RoomTimeline timeline = timelines.remove(roomId);
+            if (timeline != null) {
+                for (int i = 0; i < timeline.size(); i++) {
+                    reservations.remove(timeline.idAt(i));
+                }
+            }
+            occupancy.release(roomId);
+        });
+    }
+
+    public void reset(Collection<ReservationSnapshot> snapshot) {
+        write(() -> {
+            timelines.clear();
+            reservations.clear();
+            occupancy = newOccupancy();
+            snapshot.forEach(this::putLocked);
+        });
+    }
+
+    public boolean isFree(Long roomId, LocalDateTime start, LocalDateTime end) {
+        return isFree(roomId, start, end, null);
+    }
+
+    /**
+     * Same as {@link #isFree(Long, LocalDateTime, LocalDateTime)} but ignores the given reservation, so a
+     * reservation can be checked against the rest of the room calendar.
+     */
+    public boolean isFree(Long roomId, LocalDateTime start, LocalDateTime end, Long ignoredReservationId) {
+        long startSeconds = toSeconds(start);
+        long endSeconds = toSeconds(end);
+        refreshHorizon();
+        return read(() -> isFreeLocked(roomId, startSeconds, endSeconds, ignoredReservationId));
+    }
+
+    /**
+     * Reservations of the room intersecting the window, in descending start order.
+     */
+    public List<ReservationSnapshot> findOverlapping(Long roomId, LocalDateTime start, LocalDateTime end) {
+        long startSeconds = toSeconds(start);
+        long endSeconds = toSeconds(end);
+        return read(() -> {
+            RoomTimeline timeline = timelines.get(roomId);
+            if (timeline == null) {
+                return Collections.emptyList();
+            }
+            List<ReservationSnapshot> result = new ArrayList<>();
+            for (Long id : timeline.overlapping(startSeconds, endSeconds)) {
+                ReservationSnapshot reservation = reservations.get(id);
+                if (reservation != null) {
+                    result.add(reservation);
+                }
+            }
+            return result;
+        });
+    }
+
+    public Optional<ReservationSnapshot> get(Long reservationId) {
+        return Optional.ofNullable(reservations.get(reservationId));
+    }
+
+    public int size() {
+        return reservations.size();
+    }
+
+    public long slotMemoryBytes() {
+        return occupancy.memoryBytes();
+    }
+
+    public Collection<ReservationSnapshot> snapshot() {
+        return new ArrayList<>(reservations.values());
+    }
+
+    private void putLocked(ReservationSnapshot reservation) {
+        removeLocked(reservation.id());
+        if (!reservation.occupiesRoom()) {
+            return;
+        }
+        long start = toSeconds(reservation.start());
+        long end = toSeconds(reservation.end());
+        reservations.put(reservation.id(), reservation);
+        timelines.compute(reservation.roomId(), (roomId, timeline) ->
+                (timeline == null ? RoomTimeline.EMPTY : timeline).with(reservation.id(), start, end));
+        occupancy.mark(reservation.roomId(), start, end);
+    }
+
+    private void removeLocked(Long reservationId) {
+        ReservationSnapshot previous = reservations.remove(reservationId);
+        if (previous == null) {
+            return;
+        }
+        RoomTimeline updated = timelines.getOrDefault(previous.roomId(), RoomTimeline.EMPTY)
+                .without(previous.id(), toSeconds(previous.start()));
+        if (updated.isEmpty()) {
+            timelines.remove(previous.roomId());
+        } else {
+            timelines.put(previous.roomId(), updated);
+        }
+        occupancy.rewrite(previous.roomId(), updated);
+    }
+
+    private boolean isFreeLocked(Long roomId, long start, long end, Long ignoredReservationId) {
+        SlotOccupancy slots = occupancy;
+        if (slots.covers(start, end) && slots.isClear(roomId, start, end)) {
+            return true;
+        }
+        RoomTimeline timeline = timelines.get(roomId);
+        if (timeline == null) {
+            return true;
+        }
+        if (ignoredReservationId == null) {
+            return !timeline.overlaps(start, end);
+        }
+        List<Long> overlapping = timeline.overlapping(start, end);
+        return overlapping.isEmpty() || overlapping.equals(List.of(ignoredReservationId));
+    }
+
+    private void write(Runnable change) {
+        long stamp = lock.writeLock();
+        try {
+            change.run();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private <T> T read(Supplier<T> query) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = query.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Saw a write half done, read again below under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return query.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * The bitset covers the month it was created in; once the calendar moves on it is rebuilt from the
+     * timelines, which keep every reservation regardless of the horizon.
+     */
+    private void refreshHorizon() {
+        if (occupancy.horizonStart() != monthStart()) {
+            write(() -> {
+                if (occupancy.horizonStart() != monthStart()) {
+                    SlotOccupancy rebuilt = newOccupancy();
+                    timelines.forEach(rebuilt::rewrite);
+                    occupancy = rebuilt;
+                }
+            });
+        }
+    }
+
+    private SlotOccupancy newOccupancy() {
+        long start = monthStart();
+        long end = toSeconds(LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC).plusMonths(1));
+        return new SlotOccupancy(start, end);
+    }
+
+    private long monthStart() {
+        return toSeconds(LocalDateTime.now(clock).withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS));
+    }
+
+    static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,132 @@
+package cvut.fel.ear.room.meeting.service.availability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reservations of a single room kept as parallel arrays sorted by start time. Every array holds epoch seconds
+ * except {@code ids}; {@code maxEnds[i]} is the latest end among the first {@code i + 1} intervals, so an
+ * overlap test is a binary search followed by one comparison.
+ * <p>
+ * Instances are immutable, a change returns a new timeline, which lets readers go through without locking.
+ */
+final class RoomTimeline {
+
+    static final RoomTimeline EMPTY = new RoomTimeline(new long[0], new long[0], new long[0]);
+
+    private final long[] ids;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    private RoomTimeline(long[] ids, long[] starts, long[] ends) {
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new long[ends.length];
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < ends.length; i++) {
+            max = Math.max(max, ends[i]);
+            maxEnds[i] = max;
+        }
+    }
+
+    RoomTimeline with(long id, long start, long end) {
+        int position = lowerBound(start);
+        int size = ids.length;
+        long[] newIds = new long[size + 1];
+        long[] newStarts = new long[size + 1];
+        long[] newEnds = new long[size + 1];
+        copyAround(ids, newIds, position);
+        copyAround(starts, newStarts, position);
+        copyAround(ends, newEnds, position);
+        newIds[position] = id;
+        newStarts[position] = start;
+        newEnds[position] = end;
+        return new RoomTimeline(newIds, newStarts, newEnds);
+    }
+
+    RoomTimeline without(long id, long start) {
+        for (int i = lowerBound(start); i < ids.length && starts[i] == start; i++) {
+            if (ids[i] == id) {
+                if (ids.length == 1) {
+                    return EMPTY;
+                }
+                return new RoomTimeline(removeAt(ids, i), removeAt(starts, i), removeAt(ends, i));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Whether any interval intersects the half-open window {@code [start, end)}. Touching intervals, where one
+     * ends exactly when the other starts, do not overlap.
+     */
+    boolean overlaps(long start, long end) {
+        int last = lowerBound(end) - 1;
+        return last >= 0 && maxEnds[last] > start;
+    }
+
+    /**
+     * Ids of the intervals that intersect {@code [start, end)}, walking back from the last interval starting
+     * before {@code end} only while the prefix maximum says an overlap is still possible.
+     */
+    List<Long> overlapping(long start, long end) {
+        List<Long> result = new ArrayList<>();
+        for (int i = lowerBound(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+            if (ends[i] > start) {
+                result.add(ids[i]);
+            }
+        }
+        return result;
+    }
+
+    long idAt(int position) {
+        return ids[position];
+    }
+
+    long startAt(int position) {
+        return starts[position];
+    }
+
+    long endAt(int position) {
+        return ends[position];
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    /**
+     * First position whose start is not less than {@code value}.
+     */
+    private int lowerBound(long value) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static void copyAround(long[] source, long[] target, int gap) {
+        System.arraycopy(source, 0, target, 0, gap);
+        System.arraycopy(source, gap, target, gap + 1, source.length - gap);
+    }
+
+    private static long[] removeAt(long[] source, int position) {
+        long[] target = Arrays.copyOf(source, source.length - 1);
+        System.arraycopy(source, position + 1, target, position, source.length - position - 1);
+        return target;
+    }
+}
@@ -0,0 +1,162 @@
+package cvut.fel.ear.room.meeting.service.availability;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Occupancy of every room as a bitset of fixed-size slots over the booking horizon. All rooms share one
+ * {@code long[]}; a room owns a row of {@code wordsPerRoom} consecutive words, so a month of 15-minute slots
+ * costs 47 words (376 bytes) per room and 10 000 rooms fit in under 4 MB.
+ * <p>
+ * A slot is marked when any reservation touches it, so a clear range proves the room is free while a marked
+ * range only says it may be busy. Writers must be serialised by the caller; a row is rewritten word by word so
+ * bits that stay set are never observed cleared by a concurrent reader. Rows of deleted rooms are cleared and
+ * handed to the next new room.
+ */
+final class SlotOccupancy {
+
+    static final long SLOT_SECONDS = 15 * 60;
+
+    private final long horizonStart;
+    private final long horizonEnd;
+    private final int wordsPerRoom;
+
+    private final Map<Long, Integer> rows = new ConcurrentHashMap<>();
+    private final Deque<Integer> freeRows = new ArrayDeque<>();
+    private int nextRow;
+    private volatile long[] words;
+
+    SlotOccupancy(long horizonStart, long horizonEnd) {
+        this.horizonStart = horizonStart;
+        this.horizonEnd = horizonEnd;
+        int slotCount = (int) ((horizonEnd - horizonStart + SLOT_SECONDS - 1) / SLOT_SECONDS);
+        this.wordsPerRoom = (slotCount + Long.SIZE - 1) / Long.SIZE;
+        this.words = new long[wordsPerRoom * 16];
+    }
+
+    long horizonStart() {
+        return horizonStart;
+    }
+
+    boolean covers(long start, long end) {
+        return start >= horizonStart && end <= horizonEnd;
+    }
+
+    /**
+     * Whether no slot of the room between {@code start} and {@code end} is marked. Only meaningful when the
+     * window is {@link #covers(long, long) covered} by the horizon.
+     */
+    boolean isClear(long roomId, long start, long end) {
+        Integer row = rows.get(roomId);
+        if (row == null) {
+            return true;
+        }
+        long[] current = words;
+        int offset = row * wordsPerRoom;
+        int from = firstSlot(start);
+        int to = lastSlot(end);
+        while (from < to) {
+            int word = from >>> 6;
+            int bits = Math.min(Long.SIZE - (from & 63), to - from);
+            if ((current[offset + word] & mask(from & 63, bits)) != 0) {
+                return false;
+            }
+            from += bits;
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the row of the room with the given intervals, each a {@code [start, end)} pair of epoch seconds.
+     */
+    void rewrite(long roomId, RoomTimeline timeline) {
+        long[] row = new long[wordsPerRoom];
+        for (int i = 0; i < timeline.size(); i++) {
+            mark(row, timeline.startAt(i), timeline.endAt(i));
+        }
+        int offset = rowOf(roomId) * wordsPerRoom;
+        long[] current = words;
+        for (int i = 0; i < wordsPerRoom; i++) {
+            current[offset + i] = row[i];
+        }
+    }
+
+    void mark(long roomId, long start, long end) {
+        int offset = rowOf(roomId) * wordsPerRoom;
+        long[] current = words;
+        int from = firstSlot(start);
+        int to = lastSlot(end);
+        while (from < to) {
+            int word = from >>> 6;
+            int bits = Math.min(Long.SIZE - (from & 63), to - from);
+            current[offset + word] |= mask(from & 63, bits);
+            from += bits;
+        }
+    }
+
+    /**
+     * Clears the row of a deleted room and frees it for another room.
+     */
+    void release(long roomId) {
+        Integer row = rows.remove(roomId);
+        if (row != null) {
+            Arrays.fill(words, row * wordsPerRoom, (row + 1) * wordsPerRoom, 0L);
+            freeRows.push(row);
+        }
+    }
+
+    long memoryBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    private void mark(long[] row, long start, long end) {
+        int from = firstSlot(start);
+        int to = lastSlot(end);
+        while (from < to) {
+            int bits = Math.min(Long.SIZE - (from & 63), to - from);
+            row[from >>> 6] |= mask(from & 63, bits);
+            from += bits;
+        }
+    }
+
+    private int rowOf(long roomId) {
+        Integer row = rows.get(roomId);
+        if (row != null) {
+            return row;
+        }
+        Integer free = freeRows.poll();
+        if (free != null) {
+            rows.put(roomId, free);
+            return free;
+        }
+        int next = nextRow++;
+        if ((next + 1) * wordsPerRoom > words.length) {
+            long[] grown = new long[words.length * 2];
+            System.arraycopy(words, 0, grown, 0, words.length);
+            words = grown;
+        }
+        rows.put(roomId, next);
+        return next;
+    }
+
+    private int firstSlot(long seconds) {
+        long clipped = Math.max(seconds, horizonStart);
+        return (int) Math.min((clipped - horizonStart) / SLOT_SECONDS, (long) wordsPerRoom * Long.SIZE);
+    }
+
+    private int lastSlot(long seconds) {
+        long clipped = Math.min(seconds, horizonEnd);
+        if (clipped <= horizonStart) {
+            return 0;
+        }
+        return (int) ((clipped - horizonStart + SLOT_SECONDS - 1) / SLOT_SECONDS);
+    }
+
+    private static long mask(int fromBit, int bits) {
+        long ones = bits == Long.SIZE ? -1L : (1L << bits) - 1;
+        return ones << fromBit;
+    }
+}
@@ -0,0 +1,345 @@
+package cvut.fel.ear.room.meeting.service.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import cvut.fel.ear.room.meeting.config.AsyncBookingProperties;
+import cvut.fel.ear.room.meeting.dto.response.BookingTicket;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.service.ReservationService;
+import cvut.fel.ear.room.meeting.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Accepts bookings into a bounded queue per room and applies them on a small pool of workers. At most one worker
+ * drains a room at a time and applies up to {@code max-batch-size} of its bookings in one transaction, so a burst on
+ * one room costs a few transactions instead of one request thread and connection per booking. If any booking of a
+ * batch fails, the batch is rolled back and its bookings are applied again one per transaction, so each gets the
+ * outcome it would have had on its own.
+ * <p>
+ * The availability index only learns about a booking once its transaction commits, so within a batch it cannot see
+ * the bookings made earlier in the same batch. Those are checked here instead: a booking overlapping one of them
+ * fails the batch, and applied alone it meets the committed booking in the index.
+ * <p>
+ * Queues and tickets live in memory: bookings still waiting when the instance stops are lost, and a ticket can only
+ * be polled on the instance that accepted it.
+ */
+public class AsyncBookingService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncBookingService.class);
+
+    private final ReservationService reservationService;
+
+    private final UserService userService;
+
+    private final ReservationRepository reservationRepository;
+
+    private final RoomRepository roomRepository;
+
+    private final TransactionTemplate txTemplate;
+
+    private final RestTemplate callbacks;
+
+    private final Executor workers;
+
+    private final Executor callbackExecutor;
+
+    private final int queueCapacity;
+
+    private final int maxBatchSize;
+
+    private final Set<String> callbackHosts;
+
+    private final ConcurrentMap<Long, RoomQueue> queues = new ConcurrentHashMap<>();
+
+    private final Cache<String, Ticket> tickets;
+
+    public AsyncBookingService(ReservationService reservationService, UserService userService,
+                               ReservationRepository reservationRepository, RoomRepository roomRepository,
+                               PlatformTransactionManager txManager, RestTemplate callbacks,
+                               Executor callbackExecutor, AsyncBookingProperties properties) {
+        this(reservationService, userService, reservationRepository, roomRepository, txManager, callbacks,
+                Executors.newFixedThreadPool(properties.getWorkers(), new CustomizableThreadFactory("booking-")),
+                callbackExecutor, properties);
+    }
+
+    AsyncBookingService(ReservationService reservationService, UserService userService,
+                        ReservationRepository reservationRepository, RoomRepository roomRepository,
+                        PlatformTransactionManager txManager, RestTemplate callbacks, Executor workers,
+                        Executor callbackExecutor, AsyncBookingProperties properties) {
+        this.reservationService = reservationService;
+        this.userService = userService;
+        this.reservationRepository = reservationRepository;
+        this.roomRepository = roomRepository;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.callbacks = callbacks;
+        this.workers = workers;
+        this.callbackExecutor = callbackExecutor;
+        this.queueCapacity = properties.getQueueCapacity();
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.callbackHosts = properties.getCallbackHosts().stream()
+                .map(host -> host.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTickets())
+                .expireAfterWrite(properties.getTicketTtl())
+                .build();
+    }
+
+    /**
+     * Queues {@link ReservationService#addReservationRoom}.
+     */
+    public BookingTicket submitReservationRoom(Long reservationId, Long roomId, URI callback, String owner) {
+        // Queues are per room, so only existing rooms get one
+        if (!roomRepository.existsById(roomId)) {
+            throw new ApplicationException(HttpStatus.NOT_FOUND, "Room with id " + roomId + " does not exist.");
+        }
+        return submit(BookingCommand.Kind.RESERVATION_ROOM, roomId, reservationId, null, callback, owner);
+    }
+
+    /**
+     * Queues {@link UserService#addUserReservation} behind the other bookings of the reservation's room.
+     */
+    public BookingTicket submitUserReservation(Long userId, Long reservationId, URI callback, String owner) {
+        Long roomId = reservationRepository.findRoomIdById(reservationId).orElseThrow(() ->
+                reservationRepository.existsById(reservationId)
+                        ? new ApplicationException(HttpStatus.BAD_REQUEST, "Room reservation is null.")
+                        : new ApplicationException(HttpStatus.NOT_FOUND,
+                        "Reservation with id " + reservationId + " does not exist."));
+        return submit(BookingCommand.Kind.USER_RESERVATION, roomId, reservationId, userId, callback, owner);
+    }
+
+    /**
+     * The ticket, if it has not expired and was submitted by {@code owner} or {@code admin} is set.
+     */
+    public Optional<BookingTicket> getTicket(String ticketId, String owner, boolean admin) {
+        return Optional.ofNullable(tickets.getIfPresent(ticketId))
+                .filter(ticket -> admin || ticket.owner().equals(owner))
+                .map(Ticket::view);
+    }
+
+    /**
+     * Bookings accepted but not yet applied, over all rooms.
+     */
+    public int queued() {
+        return queues.values().stream().mapToInt(queue -> queue.commands.size()).sum();
+    }
+
+    /**
+     * Rooms with a booking queue, for monitoring.
+     */
+    int rooms() {
+        return queues.size();
+    }
+
+    private BookingTicket submit(BookingCommand.Kind kind, Long roomId, Long reservationId, Long userId,
+                                 URI callback, String owner) {
+        checkCallback(callback);
+        BookingTicket ticket = BookingTicket.queued(UUID.randomUUID().toString());
+        BookingCommand command = new BookingCommand(kind, roomId, reservationId, userId, ticket.id(), callback);
+        // Stored before queueing, a worker may finish the booking before offer() returns
+        tickets.put(ticket.id(), new Ticket(owner, ticket));
+        boolean[] accepted = new boolean[1];
+        // Offered while the map entry is locked, so a worker cannot drop the queue in between
+        RoomQueue queue = queues.compute(roomId, (id, current) -> {
+            RoomQueue target = current == null ? new RoomQueue(queueCapacity) : current;
+            accepted[0] = target.commands.offer(command);
+            return target;
+        });
+        if (!accepted[0]) {
+            tickets.invalidate(ticket.id());
+            throw new ApplicationException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many bookings are waiting for room with id " + roomId + ", try again later.");
+        }
+        schedule(roomId, queue);
+        return ticket;
+    }
+
+    /**
+     * Callbacks are posted from the server, so they may only go to the configured hosts.
+     */
+    private void checkCallback(URI callback) {
+        if (callback == null) {
+            return;
+        }
+        if (!("http".equals(callback.getScheme()) || "https".equals(callback.getScheme()))) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST, "Callback must be an absolute http(s) URL.");
+        }
+        if (callback.getHost() == null || !callbackHosts.contains(callback.getHost().toLowerCase(Locale.ROOT))) {
+            throw new ApplicationException(HttpStatus.BAD_REQUEST,
+                    "Callbacks to host " + callback.getHost() + " are not allowed.");
+        }
+    }
+
+    private void schedule(Long roomId, RoomQueue queue) {
+        if (queue.scheduled.compareAndSet(false, true)) {
+            try {
+                workers.execute(() -> drain(roomId, queue));
+            } catch (RejectedExecutionException e) {
+                queue.scheduled.set(false);
+                LOG.warn("Bookings of room {} were not applied, the worker pool is shut down.", roomId);
+            }
+        }
+    }
+
+    /**
+     * Applies one batch and hands the room back, so a busy room does not keep a worker from the other rooms.
+     */
+    private void drain(Long roomId, RoomQueue queue) {
+        try {
+            List<BookingCommand> batch = new ArrayList<>(maxBatchSize);
+            queue.commands.drainTo(batch, maxBatchSize);
+            if (!batch.isEmpty()) {
+                apply(batch);
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Applying bookings of room {} failed.", roomId, e);
+        } finally {
+            queue.scheduled.set(false);
+            // A drained room gives up its queue, bookings arriving later start a new one
+            queues.computeIfPresent(roomId, (id, current) ->
+                    current == queue && queue.commands.isEmpty() && !queue.scheduled.get() ? null : current);
+            if (!queue.commands.isEmpty()) {
+                schedule(roomId, queue);
+            }
+        }
+    }
+
+    private void apply(List<BookingCommand> batch) {
+        try {
+            txTemplate.executeWithoutResult(status -> {
+                List<Reservation> booked = new ArrayList<>();
+                batch.forEach(command -> execute(command, booked));
+            });
+            batch.forEach(command -> complete(command, null));
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                complete(batch.get(0), e);
+                return;
+            }
+            LOG.debug("Batch of {} bookings was rolled back, applying them one by one.", batch.size(), e);
+        }
+        for (BookingCommand command : batch) {
+            try {
+                txTemplate.executeWithoutResult(status -> execute(command, new ArrayList<>()));
+                complete(command, null);
+            } catch (RuntimeException e) {
+                complete(command, e);
+            }
+        }
+    }
+
+    /**
+     * Applies the command in the current transaction. {@code booked} holds the reservations the transaction already
+     * placed in the room.
+     */
+    private void execute(BookingCommand command, List<Reservation> booked) {
+        switch (command.kind()) {
+            case RESERVATION_ROOM -> {
+                reservationService.addReservationRoom(command.reservationId(), command.roomId());
+                // Already loaded by the booking, so this does not query
+                reservationRepository.findById(command.reservationId()).ifPresent(reservation -> {
+                    rejectOverlap(reservation, booked);
+                    booked.add(reservation);
+                });
+            }
+            case USER_RESERVATION -> userService.addUserReservation(command.userId(), command.reservationId());
+        }
+    }
+
+    private static void rejectOverlap(Reservation reservation, List<Reservation> booked) {
+        for (Reservation other : booked) {
+            if (!other.getId().equals(reservation.getId())
+                    && reservation.getReservationDateTimeStart().isBefore(other.getReservationDateTimeEnd())
+                    && other.getReservationDateTimeStart().isBefore(reservation.getReservationDateTimeEnd())) {
+                throw new ApplicationException(HttpStatus.CONFLICT,
+                        "Reservation " + reservation.getId() + " overlaps reservation " + other.getId() +
+                                " of the same batch.");
+            }
+        }
+    }
+
+    private void complete(BookingCommand command, RuntimeException failure) {
+        Ticket ticket = tickets.asMap().computeIfPresent(command.ticketId(),
+                (id, queued) -> new Ticket(queued.owner(), outcome(queued.view(), failure)));
+        if (ticket == null || command.callback() == null) {
+            return;
+        }
+        callbackExecutor.execute(() -> {
+            try {
+                callbacks.postForEntity(command.callback(), ticket.view(), Void.class);
+            } catch (RestClientException e) {
+                LOG.warn("Callback of booking {} to {} failed: {}", ticket.view().id(), command.callback(),
+                        e.getMessage());
+            }
+        });
+    }
+
+    private static BookingTicket outcome(BookingTicket ticket, RuntimeException failure) {
+        if (failure == null) {
+            return ticket.succeeded();
+        }
+        if (failure instanceof ApplicationException e) {
+            return ticket.failed(e.getHttpStatus(), e.getMessage());
+        }
+        LOG.error("Booking {} failed.", ticket.id(), failure);
+        return ticket.failed(HttpStatus.INTERNAL_SERVER_ERROR, "Booking failed.");
+    }
+
+    /**
+     * Stops taking bookings from the queues and waits for the batches being applied.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (workers instanceof ExecutorService pool) {
+            pool.shutdown();
+            if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOG.warn("Bookings were still being applied at shutdown.");
+            }
+        }
+    }
+
+    private record Ticket(String owner, BookingTicket view) {
+    }
+
+    private static final class RoomQueue {
+
+        private final BlockingQueue<BookingCommand> commands;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private RoomQueue(int capacity) {
+            this.commands = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
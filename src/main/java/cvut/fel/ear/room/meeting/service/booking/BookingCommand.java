@@ -0,0 +1,14 @@
+package cvut.fel.ear.room.meeting.service.booking;
+
+import java.net.URI;
+
+/**
+ * A booking waiting in the queue of {@code roomId}: either a reservation moved into the room or a user joining a
+ * reservation held in it.
+ */
+record BookingCommand(Kind kind, Long roomId, Long reservationId, Long userId, String ticketId, URI callback) {
+
+    enum Kind {
+        RESERVATION_ROOM, USER_RESERVATION
+    }
+}
@@ -0,0 +1,12 @@
+package cvut.fel.ear.room.meeting.service.event;
+
+/**
+ * Published by {@link cvut.fel.ear.room.meeting.service.PaymentService} when a payment is created, deleted or gets
+ * another reservation. {@code reservationId} is the reservation that was added, if any.
+ */
+public record PaymentChangedEvent(Long paymentId, Long reservationId, Type type) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,25 @@
+package cvut.fel.ear.room.meeting.service.event;
+
+/**
+ * Published by {@link cvut.fel.ear.room.meeting.service.ReservationService} whenever a reservation is created,
+ * changed or deleted. {@code previous} is {@code null} for a new reservation, {@code current} is {@code null}
+ * for a deleted one.
+ */
+public record ReservationChangedEvent(ReservationSnapshot previous, ReservationSnapshot current) {
+
+    public static ReservationChangedEvent created(ReservationSnapshot current) {
+        return new ReservationChangedEvent(null, current);
+    }
+
+    public static ReservationChangedEvent deleted(ReservationSnapshot previous) {
+        return new ReservationChangedEvent(previous, null);
+    }
+
+    public Long reservationId() {
+        return current != null ? current.id() : previous.id();
+    }
+
+    public boolean isDeleted() {
+        return current == null;
+    }
+}
@@ -0,0 +1,18 @@
+package cvut.fel.ear.room.meeting.service.event;
+
+import cvut.fel.ear.room.meeting.service.recurrence.RecurrenceRule;
+
+/**
+ * Published by {@link cvut.fel.ear.room.meeting.service.ReservationSeriesService} when a repeating reservation is
+ * created or deleted. {@code rule} is {@code null} for a deleted series.
+ */
+public record ReservationSeriesChangedEvent(Long seriesId, Long roomId, RecurrenceRule rule) {
+
+    public static ReservationSeriesChangedEvent deleted(Long seriesId) {
+        return new ReservationSeriesChangedEvent(seriesId, null, null);
+    }
+
+    public boolean isDeleted() {
+        return rule == null;
+    }
+}
@@ -0,0 +1,31 @@
+package cvut.fel.ear.room.meeting.service.event;
+
+import cvut.fel.ear.room.meeting.entity.Reservation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of the reservation fields other components react to, taken at the moment of the change.
+ */
+public record ReservationSnapshot(
+        Long id,
+        Long roomId,
+        LocalDateTime start,
+        LocalDateTime end,
+        Double price
+) {
+
+    public static ReservationSnapshot of(Reservation reservation) {
+        return new ReservationSnapshot(
+                reservation.getId(),
+                reservation.getRoomReservation() == null ? null : reservation.getRoomReservation().getId(),
+                reservation.getReservationDateTimeStart(),
+                reservation.getReservationDateTimeEnd(),
+                reservation.getPrice()
+        );
+    }
+
+    public boolean occupiesRoom() {
+        return roomId != null && start != null && end != null;
+    }
+}
@@ -0,0 +1,16 @@
+package cvut.fel.ear.room.meeting.service.event;
+
+/**
+ * Published when a room is created, changed or deleted, or a place in it is taken or freed. Listeners reload the
+ * room, so the event only names it and tells whether it was deleted.
+ */
+public record RoomChangedEvent(Long roomId, boolean deleted) {
+
+    public RoomChangedEvent(Long roomId) {
+        this(roomId, false);
+    }
+
+    public static RoomChangedEvent deleted(Long roomId) {
+        return new RoomChangedEvent(roomId, true);
+    }
+}
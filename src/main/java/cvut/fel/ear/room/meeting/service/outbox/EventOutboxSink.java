@@ -0,0 +1,23 @@
+package cvut.fel.ear.room.meeting.service.outbox;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+/**
+ * Delivers events in-process: every message is published as an application event, so components of this
+ * instance can react with {@code @EventListener(OutboxMessage.class)}.
+ */
+public class EventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public EventOutboxSink(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        messages.forEach(eventPublisher::publishEvent);
+    }
+}
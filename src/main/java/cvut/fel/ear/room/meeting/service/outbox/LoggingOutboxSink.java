@@ -0,0 +1,22 @@
+package cvut.fel.ear.room.meeting.service.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Writes each event to the {@code outbox} logger, which can be routed to its own file.
+ */
+public class LoggingOutboxSink implements OutboxSink {
+
+    private static final Logger LOG = LoggerFactory.getLogger("outbox");
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            LOG.info("{} {} {}#{} {}", message.id(), message.type(), message.aggregateType(), message.aggregateId(),
+                    message.payload());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package cvut.fel.ear.room.meeting.service.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import cvut.fel.ear.room.meeting.entity.OutboxEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox event as handed to the sink. Delivery is at least once, so receivers should skip ids they have seen.
+ */
+public record OutboxMessage(Long id, String aggregateType, Long aggregateId, String type,
+                            @JsonRawValue String payload, LocalDateTime createdAt) {
+
+    public static OutboxMessage of(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getAggregateType(), event.getAggregateId(), event.getType(),
+                event.getPayload(), event.getCreatedAt());
+    }
+}
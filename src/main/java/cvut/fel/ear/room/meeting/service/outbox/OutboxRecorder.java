@@ -0,0 +1,60 @@
+package cvut.fel.ear.room.meeting.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cvut.fel.ear.room.meeting.entity.OutboxEvent;
+import cvut.fel.ear.room.meeting.repository.OutboxEventRepository;
+import cvut.fel.ear.room.meeting.service.event.PaymentChangedEvent;
+import cvut.fel.ear.room.meeting.service.event.ReservationChangedEvent;
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+
+/**
+ * Turns reservation and payment events into outbox rows just before the transaction that caused them commits, so
+ * a change and its event are stored together or not at all. Events published outside a transaction are not
+ * recorded; the services publishing them are transactional.
+ */
+@Component
+public class OutboxRecorder {
+
+    public static final String RESERVATION = "reservation";
+
+    public static final String PAYMENT = "payment";
+
+    private final OutboxEventRepository repository;
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public OutboxRecorder(OutboxEventRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        String type = event.previous() == null ? "created" : event.isDeleted() ? "deleted" : "updated";
+        ReservationSnapshot state = event.isDeleted() ? event.previous() : event.current();
+        append(RESERVATION, event.reservationId(), type, state);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        append(PAYMENT, event.paymentId(), event.type().name().toLowerCase(Locale.ROOT), event);
+    }
+
+    private void append(String aggregateType, Long aggregateId, String type, Object payload) {
+        try {
+            repository.save(new OutboxEvent(aggregateType, aggregateId, aggregateType + "." + type,
+                    objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox payload of " + aggregateType + " " + aggregateId +
+                    " cannot be serialized.", e);
+        }
+    }
+}
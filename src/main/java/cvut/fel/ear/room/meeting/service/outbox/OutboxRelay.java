@@ -0,0 +1,92 @@
+package cvut.fel.ear.room.meeting.service.outbox;
+
+import cvut.fel.ear.room.meeting.config.OutboxProperties;
+import cvut.fel.ear.room.meeting.entity.OutboxEvent;
+import cvut.fel.ear.room.meeting.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Drains the outbox to the {@link OutboxSink} in batches of {@code app.outbox.batch-size}, oldest first. A batch
+ * is marked published in the transaction that locked it, so instances relaying at the same time take different
+ * rows. If the sink fails the batch stays unpublished and is sent again on the next run.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository repository;
+
+    private final OutboxSink sink;
+
+    private final TransactionTemplate txTemplate;
+
+    private final int batchSize;
+
+    private final Duration retention;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository repository, OutboxSink sink, PlatformTransactionManager txManager,
+                       OutboxProperties properties) {
+        this.repository = repository;
+        this.sink = sink;
+        this.txTemplate = new TransactionTemplate(txManager);
+        this.batchSize = properties.getBatchSize();
+        this.retention = properties.getRetention();
+    }
+
+    /**
+     * Relays batches until the outbox is empty or the sink fails.
+     *
+     * @return the number of events relayed
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval:PT1S}",
+            initialDelayString = "${app.outbox.relay-interval:PT1S}")
+    public int relay() {
+        int total = 0;
+        int relayed;
+        do {
+            relayed = relayBatch();
+            total += relayed;
+        } while (relayed == batchSize);
+        return total;
+    }
+
+    private int relayBatch() {
+        try {
+            Integer relayed = txTemplate.execute(status -> {
+                List<OutboxEvent> events = repository.findUnpublished(PageRequest.of(0, batchSize));
+                if (events.isEmpty()) {
+                    return 0;
+                }
+                sink.publish(events.stream().map(OutboxMessage::of).toList());
+                repository.markPublished(events.stream().map(OutboxEvent::getId).toList(), LocalDateTime.now());
+                return events.size();
+            });
+            return relayed == null ? 0 : relayed;
+        } catch (RuntimeException e) {
+            LOG.warn("Relaying outbox events failed, they are retried on the next run.", e);
+            return 0;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.purge-interval:PT1H}",
+            initialDelayString = "${app.outbox.purge-interval:PT1H}")
+    public void purgePublished() {
+        int purged = repository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            LOG.debug("Purged {} published outbox events.", purged);
+        }
+    }
+}
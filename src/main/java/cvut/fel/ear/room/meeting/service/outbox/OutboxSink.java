@@ -0,0 +1,11 @@
+package cvut.fel.ear.room.meeting.service.outbox;
+
+import java.util.List;
+
+/**
+ * Where {@link OutboxRelay} delivers events. A sink that throws gets the same batch again on the next run.
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxMessage> messages);
+}
@@ -0,0 +1,26 @@
+package cvut.fel.ear.room.meeting.service.outbox;
+
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Posts each batch as a JSON array to a URL. Any response other than 2xx fails the batch.
+ */
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final RestTemplate restTemplate;
+
+    private final URI url;
+
+    public WebhookOutboxSink(RestTemplate restTemplate, URI url) {
+        this.restTemplate = restTemplate;
+        this.url = url;
+    }
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        restTemplate.postForEntity(url, messages, Void.class);
+    }
+}
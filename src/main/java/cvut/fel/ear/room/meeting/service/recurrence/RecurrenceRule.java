@@ -0,0 +1,242 @@
+package cvut.fel.ear.room.meeting.service.recurrence;
+
+import cvut.fel.ear.room.meeting.entity.RecurrenceFrequency;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Immutable description of a repeating reservation: occurrences of {@code duration} that start at the time of day of
+ * {@code start}, every {@code interval} days or weeks, optionally bounded by an inclusive {@code until} date and an
+ * occurrence {@code count}.
+ * <p>
+ * The series is periodic: period {@code p} covers {@code periodDays} days from {@code firstPeriod}, and holds one
+ * occurrence per day offset in {@code offsets}. Any occurrence, its ordinal and the last one are therefore computed
+ * directly, and a window query only touches the periods intersecting the window.
+ */
+public final class RecurrenceRule {
+
+    private final LocalDateTime start;
+    private final Duration duration;
+    private final LocalDate until;
+    private final Integer count;
+
+    private final LocalDate firstPeriod;
+    private final int periodDays;
+    private final int[] offsets;
+    private final int skipped;
+
+    private RecurrenceRule(LocalDateTime start, Duration duration, LocalDate until, Integer count,
+                           LocalDate firstPeriod, int periodDays, int[] offsets) {
+        this.start = start;
+        this.duration = duration;
+        this.until = until;
+        this.count = count;
+        this.firstPeriod = firstPeriod;
+        this.periodDays = periodDays;
+        this.offsets = offsets;
+        int beforeStart = 0;
+        LocalDate startDate = start.toLocalDate();
+        while (beforeStart < offsets.length && firstPeriod.plusDays(offsets[beforeStart]).isBefore(startDate)) {
+            beforeStart++;
+        }
+        this.skipped = beforeStart;
+    }
+
+    /**
+     * @param weekdays days of a weekly series; ignored for a daily one. Defaults to the day of {@code start}.
+     */
+    public static RecurrenceRule of(LocalDateTime start, Duration duration, RecurrenceFrequency frequency,
+                                    int interval, Set<DayOfWeek> weekdays, LocalDate until, Integer count) {
+        if (frequency == RecurrenceFrequency.DAILY) {
+            return new RecurrenceRule(start, duration, until, count, start.toLocalDate(), interval, new int[]{0});
+        }
+        Set<DayOfWeek> days = weekdays == null || weekdays.isEmpty()
+                ? EnumSet.of(start.getDayOfWeek())
+                : EnumSet.copyOf(weekdays);
+        int[] offsets = days.stream().mapToInt(day -> day.getValue() - 1).sorted().toArray();
+        LocalDate monday = start.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return new RecurrenceRule(start, duration, until, count, monday, 7 * interval, offsets);
+    }
+
+    public Duration duration() {
+        return duration;
+    }
+
+    public int periodDays() {
+        return periodDays;
+    }
+
+    public Optional<LocalDateTime> firstStart() {
+        return occurrenceStart(0);
+    }
+
+    /**
+     * Start of the last occurrence, empty for a series without {@code until} and {@code count} or without any
+     * occurrence at all.
+     */
+    public Optional<LocalDateTime> lastStart() {
+        long last = Long.MAX_VALUE;
+        if (count != null) {
+            last = count - 1L;
+        }
+        if (until != null) {
+            last = Math.min(last, lastOrdinalUntil());
+        }
+        return last == Long.MAX_VALUE ? Optional.empty() : occurrenceStart(last);
+    }
+
+    /**
+     * Exclusive end of the series, {@link LocalDateTime#MAX} when it is open-ended.
+     */
+    public LocalDateTime endBound() {
+        if (count == null && until == null) {
+            return LocalDateTime.MAX;
+        }
+        return lastStart().map(last -> last.plus(duration)).orElse(start);
+    }
+
+    public boolean isEmpty() {
+        return firstStart().isEmpty();
+    }
+
+    /**
+     * Starts of the occurrences intersecting {@code [from, to)}, in order. Occurrences are generated while the
+     * stream is consumed, beginning with the period that contains {@code from}.
+     */
+    public Stream<LocalDateTime> startsBetween(LocalDateTime from, LocalDateTime to) {
+        Iterator<LocalDateTime> occurrences = new WindowIterator(from, to);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                occurrences, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SORTED), false);
+    }
+
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return new WindowIterator(from, to).hasNext();
+    }
+
+    /**
+     * Whether any occurrences of the two series intersect. Once both series have started their combined pattern
+     * repeats every {@code lcm(periodDays)} days, so only that one cycle is enumerated.
+     */
+    public boolean overlaps(RecurrenceRule other) {
+        LocalDateTime from = start.isAfter(other.start) ? start : other.start;
+        LocalDateTime to = earliest(endBound(), other.endBound());
+        long cycle = lcm(periodDays, other.periodDays) + 1;
+        if (from.plusDays(cycle).isBefore(to)) {
+            to = from.plusDays(cycle);
+        }
+        if (!from.isBefore(to)) {
+            return false;
+        }
+        return startsBetween(from, to).anyMatch(occurrence -> other.overlaps(occurrence, occurrence.plus(duration)));
+    }
+
+    private long lastOrdinalUntil() {
+        long period = Math.floorDiv(ChronoUnit.DAYS.between(firstPeriod, until), periodDays);
+        int slot = offsets.length - 1;
+        while (slot >= 0 && firstPeriod.plusDays(period * periodDays + offsets[slot]).isAfter(until)) {
+            slot--;
+        }
+        return ordinal(period, slot);
+    }
+
+    private Optional<LocalDateTime> occurrenceStart(long ordinal) {
+        if (ordinal < 0 || !withinLimits(ordinal, startOf(periodOf(ordinal), slotOf(ordinal)))) {
+            return Optional.empty();
+        }
+        return Optional.of(startOf(periodOf(ordinal), slotOf(ordinal)));
+    }
+
+    private long ordinal(long period, int slot) {
+        return period * offsets.length + slot - skipped;
+    }
+
+    private long periodOf(long ordinal) {
+        return Math.floorDiv(ordinal + skipped, offsets.length);
+    }
+
+    private int slotOf(long ordinal) {
+        return (int) Math.floorMod(ordinal + skipped, offsets.length);
+    }
+
+    private LocalDateTime startOf(long period, int slot) {
+        return firstPeriod.plusDays(period * periodDays + offsets[slot]).atTime(start.toLocalTime());
+    }
+
+    private boolean withinLimits(long ordinal, LocalDateTime occurrence) {
+        return (count == null || ordinal < count) && (until == null || !occurrence.toLocalDate().isAfter(until));
+    }
+
+    private static LocalDateTime earliest(LocalDateTime first, LocalDateTime second) {
+        return first.isBefore(second) ? first : second;
+    }
+
+    private static long lcm(long first, long second) {
+        long a = first;
+        long b = second;
+        while (b != 0) {
+            long remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return first / a * second;
+    }
+
+    private final class WindowIterator implements Iterator<LocalDateTime> {
+
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private long period;
+        private int slot;
+        private LocalDateTime next;
+        private boolean done;
+
+        private WindowIterator(LocalDateTime from, LocalDateTime to) {
+            this.from = from;
+            this.to = to;
+            LocalDate earliestStart = from.minus(duration).toLocalDate();
+            this.period = Math.max(0, Math.floorDiv(ChronoUnit.DAYS.between(firstPeriod, earliestStart), periodDays));
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public LocalDateTime next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            LocalDateTime current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            next = null;
+            while (!done) {
+                LocalDateTime occurrence = startOf(period, slot);
+                long ordinal = ordinal(period, slot);
+                if (++slot == offsets.length) {
+                    slot = 0;
+                    period++;
+                }
+                if (ordinal < 0) {
+                    continue;
+                }
+                if (!occurrence.isBefore(to) || !withinLimits(ordinal, occurrence)) {
+                    done = true;
+                } else if (occurrence.plus(duration).isAfter(from)) {
+                    next = occurrence;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package cvut.fel.ear.room.meeting.service.search;
+
+import cvut.fel.ear.room.meeting.dto.request.RoomSearchSort;
+import cvut.fel.ear.room.meeting.dto.response.RoomSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory columnar index of rooms for filtered, ranked searches. Prices and free places are kept in primitive
+ * arrays next to the room summaries, together with the room positions pre-sorted by price and by fit, so a search
+ * walks one ordering, rejects rooms on the cheap columns first and stops once the page is full. Only the rooms
+ * passing those filters are checked against the availability predicate.
+ * <p>
+ * Writers are serialised and replace the columns as a whole, readers work on the columns current when they
+ * started. Updating a room, which happens on every place taken or freed, patches its position and moves it within
+ * the orderings whose key changed; only adding or removing a room sorts the columns again.
+ */
+public class RoomSearchIndex {
+
+    private final int maxCapacity;
+
+    private volatile Columns columns;
+
+    public RoomSearchIndex(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+        this.columns = Columns.of(List.of(), maxCapacity);
+    }
+
+    public synchronized void put(RoomSummary room) {
+        Columns current = columns;
+        int position = Arrays.binarySearch(current.ids, room.id());
+        if (position >= 0) {
+            columns = current.with(position, room, maxCapacity);
+            return;
+        }
+        List<RoomSummary> rooms = new ArrayList<>(Arrays.asList(current.rooms));
+        rooms.add(-position - 1, room);
+        columns = Columns.of(rooms, maxCapacity);
+    }
+
+    public synchronized void remove(Long roomId) {
+        Columns current = columns;
+        int position = Arrays.binarySearch(current.ids, roomId);
+        if (position >= 0) {
+            List<RoomSummary> rooms = new ArrayList<>(Arrays.asList(current.rooms));
+            rooms.remove(position);
+            columns = Columns.of(rooms, maxCapacity);
+        }
+    }
+
+    public synchronized void reset(Collection<RoomSummary> snapshot) {
+        List<RoomSummary> rooms = new ArrayList<>(snapshot);
+        rooms.sort(Comparator.comparing(RoomSummary::id));
+        columns = Columns.of(rooms, maxCapacity);
+    }
+
+    public int size() {
+        return columns.ids.length;
+    }
+
+    /**
+     * Every room passing {@code available}, in id order.
+     */
+    public List<RoomSummary> filter(LongPredicate available) {
+        Columns current = columns;
+        List<RoomSummary> result = new ArrayList<>();
+        for (int position = 0; position < current.ids.length; position++) {
+            if (available.test(current.ids[position])) {
+                result.add(current.rooms[position]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rooms matching the query and {@code available}, in the order of the query's sort, skipping the first
+     * {@code offset} matches. At most {@code limit} rooms are returned.
+     */
+    public List<RoomSummary> search(RoomSearchQuery query, LongPredicate available, int offset, int limit) {
+        Columns current = columns;
+        int[] order = query.sort() == RoomSearchSort.FIT ? current.byFit : current.byPrice;
+        boolean reversed = query.sort() == RoomSearchSort.PRICE_DESC;
+        int seats = query.seats() == null ? Integer.MIN_VALUE : query.seats();
+        double minPrice = query.minPrice() == null ? Double.NEGATIVE_INFINITY : query.minPrice();
+        double maxPrice = query.maxPrice() == null ? Double.POSITIVE_INFINITY : query.maxPrice();
+        String prefix = query.namePrefix() == null ? null : query.namePrefix().toLowerCase(Locale.ROOT);
+        List<RoomSummary> result = new ArrayList<>(Math.min(limit, order.length));
+        int skipped = 0;
+        for (int i = 0; i < order.length && result.size() < limit; i++) {
+            int position = order[reversed ? order.length - 1 - i : i];
+            if (current.freeSeats[position] < seats
+                    || current.prices[position] < minPrice
+                    || current.prices[position] > maxPrice
+                    || (prefix != null && !current.names[position].startsWith(prefix))
+                    || !available.test(current.ids[position])) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(current.rooms[position]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Columns of the rooms in id order, so a room's position is found by binary search on {@code ids}.
+     */
+    private static final class Columns {
+
+        private final RoomSummary[] rooms;
+
+        private final long[] ids;
+
+        private final String[] names;
+
+        private final double[] prices;
+
+        private final int[] freeSeats;
+
+        /**
+         * Positions by price, then id.
+         */
+        private final int[] byPrice;
+
+        /**
+         * Positions by free places, then price, then id.
+         */
+        private final int[] byFit;
+
+        private Columns(RoomSummary[] rooms, long[] ids, String[] names, double[] prices, int[] freeSeats,
+                        int[] byPrice, int[] byFit) {
+            this.rooms = rooms;
+            this.ids = ids;
+            this.names = names;
+            this.prices = prices;
+            this.freeSeats = freeSeats;
+            this.byPrice = byPrice;
+            this.byFit = byFit;
+        }
+
+        private static Columns of(List<RoomSummary> source, int maxCapacity) {
+            int size = source.size();
+            Columns columns = new Columns(source.toArray(new RoomSummary[0]), new long[size], new String[size],
+                    new double[size], new int[size], null, null);
+            for (int i = 0; i < size; i++) {
+                columns.set(i, source.get(i), maxCapacity);
+            }
+            return new Columns(columns.rooms, columns.ids, columns.names, columns.prices, columns.freeSeats,
+                    sorted(size, columns::comparePrice), sorted(size, columns::compareFit));
+        }
+
+        /**
+         * A copy with the room at {@code position} replaced. An ordering is only changed when its key changed, and
+         * then by moving that one position.
+         */
+        private Columns with(int position, RoomSummary room, int maxCapacity) {
+            Columns patched = new Columns(rooms.clone(), ids.clone(), names.clone(), prices.clone(),
+                    freeSeats.clone(), byPrice, byFit);
+            patched.set(position, room, maxCapacity);
+            boolean priceChanged = Double.compare(prices[position], patched.prices[position]) != 0;
+            boolean fitChanged = priceChanged || freeSeats[position] != patched.freeSeats[position];
+            return new Columns(patched.rooms, patched.ids, patched.names, patched.prices, patched.freeSeats,
+                    priceChanged ? move(byPrice, position, patched::comparePrice) : byPrice,
+                    fitChanged ? move(byFit, position, patched::compareFit) : byFit);
+        }
+
+        private void set(int position, RoomSummary room, int maxCapacity) {
+            rooms[position] = room;
+            ids[position] = room.id();
+            names[position] = room.name() == null ? "" : room.name().toLowerCase(Locale.ROOT);
+            prices[position] = room.pricePerHour() == null ? 0 : room.pricePerHour();
+            freeSeats[position] = maxCapacity - (room.roomCapacity() == null ? 0 : room.roomCapacity());
+        }
+
+        private int comparePrice(int left, int right) {
+            int byPrice = Double.compare(prices[left], prices[right]);
+            return byPrice != 0 ? byPrice : Long.compare(ids[left], ids[right]);
+        }
+
+        private int compareFit(int left, int right) {
+            int byFree = Integer.compare(freeSeats[left], freeSeats[right]);
+            return byFree != 0 ? byFree : comparePrice(left, right);
+        }
+
+        private static int[] sorted(int size, IntBinaryOperator comparator) {
+            return IntStream.range(0, size).boxed()
+                    .sorted(comparator::applyAsInt)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        /**
+         * The ordering with {@code position} taken out and inserted again where its new key belongs.
+         */
+        private static int[] move(int[] order, int position, IntBinaryOperator comparator) {
+            int[] others = new int[order.length - 1];
+            int next = 0;
+            for (int each : order) {
+                if (each != position) {
+                    others[next++] = each;
+                }
+            }
+            int low = 0;
+            int high = others.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (comparator.applyAsInt(others[middle], position) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int[] moved = new int[order.length];
+            System.arraycopy(others, 0, moved, 0, low);
+            moved[low] = position;
+            System.arraycopy(others, low, moved, low + 1, others.length - low);
+            return moved;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package cvut.fel.ear.room.meeting.service.search;
+
+import cvut.fel.ear.room.meeting.dto.request.RoomSearchSort;
+
+/**
+ * Filters of a room search; a {@code null} filter matches every room. {@code seats} is the number of free places
+ * a room must still have and {@code namePrefix} is matched ignoring case.
+ */
+public record RoomSearchQuery(
+        Integer seats,
+        Double minPrice,
+        Double maxPrice,
+        String namePrefix,
+        RoomSearchSort sort
+) {
+}
@@ -1,6 +1,7 @@
 package cvut.fel.ear.room.meeting.service.security;
 
-import cvut.fel.ear.room.meeting.repository.UserRepository;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -14,20 +15,22 @@ import cvut.fel.ear.room.meeting.entity.User;
 @Service
 public class UserDetailsService implements org.springframework.security.core.userdetails.UserDetailsService {
 
-    private final UserRepository repository;
+    private final UserService userService;
 
     @Autowired
-    public UserDetailsService(UserRepository repository) {
-        this.repository = repository;
+    public UserDetailsService(UserService userService) {
+        this.userService = userService;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        final User user = repository.findByUsername(username);
-        if (user == null) {
+        final User user;
+        try {
+            // Served from the user cache, so the returned entity is shared and must not be modified
+            user = userService.getUserByUsername(username);
+        } catch (ApplicationException e) {
             throw new UsernameNotFoundException("User with username " + username + " not found.");
         }
         return new cvut.fel.ear.room.meeting.security.model.UserDetails(user);
     }
 }
-
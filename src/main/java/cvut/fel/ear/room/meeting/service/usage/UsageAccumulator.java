@@ -0,0 +1,137 @@
+package cvut.fel.ear.room.meeting.service.usage;
+
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pending per-room, per-hour usage deltas. The deltas live in parallel primitive arrays, the map only holds the
+ * slot of each (room, hour) pair, so a reservation event costs one map lookup per hour it covers and no
+ * allocation once the slot exists. Thread safe.
+ */
+public class UsageAccumulator {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Map<HourKey, Integer> slots = new HashMap<>();
+
+    private long[] roomIds = new long[INITIAL_CAPACITY];
+    private long[] hours = new long[INITIAL_CAPACITY];
+    private long[] minutes = new long[INITIAL_CAPACITY];
+    private double[] revenue = new double[INITIAL_CAPACITY];
+    private int[] reservations = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Receives one accumulated (room, hour) delta.
+     */
+    @FunctionalInterface
+    public interface HourConsumer {
+        void accept(long roomId, LocalDateTime hour, long minutes, double revenue, int reservations);
+    }
+
+    /**
+     * Adds ({@code sign} 1) or subtracts ({@code sign} -1) the reservation. Its minutes are split over the hours
+     * it covers and its price is spread over them in proportion; the reservation itself is counted in the hour
+     * it starts in.
+     */
+    public synchronized void add(ReservationSnapshot reservation, int sign) {
+        if (!reservation.occupiesRoom() || !reservation.end().isAfter(reservation.start())) {
+            return;
+        }
+        long total = Duration.between(reservation.start(), reservation.end()).toMinutes();
+        double price = reservation.price() == null ? 0 : reservation.price();
+        LocalDateTime hour = reservation.start().truncatedTo(ChronoUnit.HOURS);
+        boolean first = true;
+        while (hour.isBefore(reservation.end())) {
+            LocalDateTime next = hour.plusHours(1);
+            LocalDateTime from = reservation.start().isAfter(hour) ? reservation.start() : hour;
+            LocalDateTime to = reservation.end().isBefore(next) ? reservation.end() : next;
+            long covered = Duration.between(from, to).toMinutes();
+            double share = total == 0 ? (first ? price : 0) : price * covered / total;
+            addDelta(reservation.roomId(), epochHour(hour), sign * covered, sign * share, first ? sign : 0);
+            first = false;
+            hour = next;
+        }
+    }
+
+    /**
+     * Adds every delta of {@code other}, used to put back a drained batch that could not be written.
+     */
+    public synchronized void addAll(UsageAccumulator other) {
+        other.forEach((roomId, hour, deltaMinutes, deltaRevenue, deltaReservations) ->
+                addDelta(roomId, epochHour(hour), deltaMinutes, deltaRevenue, deltaReservations));
+    }
+
+    /**
+     * Moves all pending deltas into a new accumulator and leaves this one empty.
+     */
+    public synchronized UsageAccumulator drain() {
+        UsageAccumulator drained = new UsageAccumulator();
+        forEach((roomId, hour, deltaMinutes, deltaRevenue, deltaReservations) ->
+                drained.addDelta(roomId, epochHour(hour), deltaMinutes, deltaRevenue, deltaReservations));
+        clear();
+        return drained;
+    }
+
+    public synchronized void clear() {
+        slots.clear();
+        size = 0;
+    }
+
+    public synchronized void forEach(HourConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            if (minutes[i] != 0 || revenue[i] != 0 || reservations[i] != 0) {
+                consumer.accept(roomIds[i], LocalDateTime.ofEpochSecond(hours[i] * 3600, 0, ZoneOffset.UTC),
+                        minutes[i], revenue[i], reservations[i]);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void addDelta(long roomId, long hour, long deltaMinutes, double deltaRevenue, int deltaReservations) {
+        Integer slot = slots.get(new HourKey(roomId, hour));
+        if (slot == null) {
+            slot = size;
+            ensureCapacity(size + 1);
+            roomIds[slot] = roomId;
+            hours[slot] = hour;
+            minutes[slot] = 0;
+            revenue[slot] = 0;
+            reservations[slot] = 0;
+            slots.put(new HourKey(roomId, hour), slot);
+            size++;
+        }
+        minutes[slot] += deltaMinutes;
+        revenue[slot] += deltaRevenue;
+        reservations[slot] += deltaReservations;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= roomIds.length) {
+            return;
+        }
+        int grown = Math.max(capacity, roomIds.length * 2);
+        roomIds = Arrays.copyOf(roomIds, grown);
+        hours = Arrays.copyOf(hours, grown);
+        minutes = Arrays.copyOf(minutes, grown);
+        revenue = Arrays.copyOf(revenue, grown);
+        reservations = Arrays.copyOf(reservations, grown);
+    }
+
+    private static long epochHour(LocalDateTime hour) {
+        return hour.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private record HourKey(long roomId, long hour) {
+    }
+}
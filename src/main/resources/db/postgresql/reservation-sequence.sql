@@ -0,0 +1,6 @@
+-- Reservations used to draw ids from the shared hibernate_sequence. Moves their own pooled sequence past the ids
+-- already in use; once it is ahead this only skips one allocation block.
+SELECT setval('room_reservations_seq', GREATEST(
+    (SELECT last_value FROM room_reservations_seq),
+    (SELECT COALESCE(MAX(id), 1) FROM room_reservations)))
+@@
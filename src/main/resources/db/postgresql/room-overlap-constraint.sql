@@ -0,0 +1,17 @@
+-- Rejects overlapping reservations of the same room inside the database, so concurrent bookings cannot both
+-- commit. Ranges are half-open, which matches the start < end AND end > start overlap rule of the application.
+-- Installation fails while overlapping rows exist; they have to be resolved first.
+CREATE EXTENSION IF NOT EXISTS btree_gist
+@@
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'room_reservations_no_overlap') THEN
+        ALTER TABLE room_reservations ADD CONSTRAINT room_reservations_no_overlap EXCLUDE USING gist (
+            room_reservation WITH =,
+            tsrange(reservation_date_time_start, reservation_date_time_end) WITH &&
+        ) WHERE (room_reservation IS NOT NULL);
+    END IF;
+END
+$$
+@@
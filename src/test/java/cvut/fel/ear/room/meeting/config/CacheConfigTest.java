@@ -0,0 +1,59 @@
+package cvut.fel.ear.room.meeting.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    private static CacheManager cacheManager(Map<String, String> properties) {
+        CacheRegionProperties regions = new Binder(new MapConfigurationPropertySource(properties))
+                .bindOrCreate("app.cache", CacheRegionProperties.class);
+        return new CacheConfig().cacheManager(regions);
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(Cache cache) {
+        Cache target = ((TransactionAwareCacheDecorator) cache).getTargetCache();
+        return ((CaffeineCache) target).getNativeCache();
+    }
+
+    @Test
+    void regionsUseTheirOwnSpecAndFallBackToTheDefault() {
+        CacheManager manager = cacheManager(Map.of(
+                "app.cache.default-spec", "maximumSize=7",
+                "app.cache.regions.roomsByName", "maximumSize=3"));
+
+        assertEquals(3, nativeCache(manager.getCache(CacheConfig.ROOMS_BY_NAME)).policy().eviction()
+                .orElseThrow().getMaximum());
+        assertEquals(7, nativeCache(manager.getCache(CacheConfig.ROOMS)).policy().eviction()
+                .orElseThrow().getMaximum());
+    }
+
+    @Test
+    void unknownRegionIsNotCreated() {
+        CacheManager manager = cacheManager(Map.of());
+
+        assertNull(manager.getCache("room"));
+        assertEquals(CacheConfig.REGIONS.size(), manager.getCacheNames().size());
+    }
+
+    @Test
+    void regionsRecordHitsAndMisses() {
+        Cache rooms = cacheManager(Map.of()).getCache(CacheConfig.ROOMS);
+
+        rooms.get(1L);
+        rooms.put(1L, "room");
+        rooms.get(1L);
+
+        assertEquals(1, nativeCache(rooms).stats().hitCount());
+        assertEquals(1, nativeCache(rooms).stats().missCount());
+    }
+}
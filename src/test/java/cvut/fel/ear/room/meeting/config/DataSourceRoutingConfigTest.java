@@ -0,0 +1,68 @@
+package cvut.fel.ear.room.meeting.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import cvut.fel.ear.room.meeting.datasource.ReplicaRouting;
+import cvut.fel.ear.room.meeting.metrics.JdbcMetricsListener;
+import cvut.fel.ear.room.meeting.service.RoomService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the application with routing enabled. The replica points at the primary's H2 database, standing in for a
+ * replica that is fully caught up.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password=",
+        "app.datasource.replica.lag-query=SELECT 0",
+        "app.datasource.replica.hikari.maximum-pool-size=3"
+})
+class DataSourceRoutingConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ReplicaRouting routing;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Test
+    void readOnlyServiceCallsRunOnTheReplicaPool() throws SQLException {
+        HikariDataSource replica = replicaDataSource.unwrap(HikariDataSource.class);
+        assertTrue(dataSource.isWrapperFor(LazyConnectionDataSourceProxy.class));
+        assertEquals(3, replica.getMaximumPoolSize());
+        routing.checkLag();
+        assertFalse(routing.isLagging());
+
+        assertTrue(roomService.getRooms(null, 10).items().isEmpty());
+        assertTrue(replica.getHikariPoolMXBean().getTotalConnections() > 0);
+        assertTrue(meterRegistry.get(JdbcMetricsListener.METRIC).tag("datasource", "replica").timer().count() > 0);
+        assertTrue(meterRegistry.find(JdbcMetricsListener.METRIC).tag("datasource", "dataSource").timers().isEmpty());
+    }
+}
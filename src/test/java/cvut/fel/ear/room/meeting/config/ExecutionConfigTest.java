@@ -0,0 +1,82 @@
+package cvut.fel.ear.room.meeting.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:execution-config;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "app.virtual-threads.enabled=true"
+})
+class ExecutionConfigTest {
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    @Qualifier("connectionBoundTaskExecutor")
+    private AsyncTaskExecutor connectionBoundTaskExecutor;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @Test
+    void connectionBoundTasksWaitWithoutBlockingTheCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+        connectionBoundTaskExecutor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> connectionBoundTaskExecutor.execute(second::countDown));
+        assertFalse(second.await(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void applicationTasksAreNotThrottled() throws Exception {
+        CountDownLatch running = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            applicationTaskExecutor.execute(() -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    void asyncRequestsRunOnConnectionBoundExecutor() {
+        assertSame(connectionBoundTaskExecutor, ReflectionTestUtils.getField(handlerAdapter, "taskExecutor"));
+    }
+}
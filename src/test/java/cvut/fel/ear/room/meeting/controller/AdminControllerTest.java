@@ -1,5 +1,6 @@
 package cvut.fel.ear.room.meeting.controller;
 
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
 import cvut.fel.ear.room.meeting.entity.Admin;
 import cvut.fel.ear.room.meeting.service.AdminService;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,12 +43,13 @@ class AdminControllerTest {
     void getAdminsReturnsValidAdminList() throws Exception {
         Admin admin = new Admin();
         admin.setId(1L);
-        when(adminService.getAdmins()).thenReturn(Collections.singletonList(admin));
+        when(adminService.getAdmins(null, CursorPage.DEFAULT_LIMIT))
+                .thenReturn(new CursorPage<>(Collections.singletonList(admin), null));
 
         mockMvc.perform(get("/admin/"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$[0].id", is(1)));
+                .andExpect(jsonPath("$.items[0].id", is(1)));
     }
 
     @Test
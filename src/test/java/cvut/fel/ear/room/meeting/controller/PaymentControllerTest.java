@@ -1,5 +1,6 @@
 package cvut.fel.ear.room.meeting.controller;
 
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
 import cvut.fel.ear.room.meeting.entity.Payment;
 import cvut.fel.ear.room.meeting.service.PaymentService;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,8 +8,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -16,6 +21,7 @@ import java.util.List;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.when;
 
 public class PaymentControllerTest {
@@ -43,11 +49,12 @@ public class PaymentControllerTest {
         payments.add(payment1);
         payments.add(payment2);
 
-        when(paymentService.getPayments()).thenReturn(payments);
+        when(paymentService.getPayments(null, 2)).thenReturn(new CursorPage<>(payments, 2L));
 
-        ResponseEntity<Iterable<Payment>> response = paymentController.getPayments();
+        ResponseEntity<CursorPage<Payment>> response = paymentController.getPayments(null, 2);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(2, ((List<Payment>) Objects.requireNonNull(response.getBody())).size());
+        assertEquals(2, Objects.requireNonNull(response.getBody()).items().size());
+        assertEquals(2L, response.getBody().next());
     }
 
     @Test
@@ -59,11 +66,36 @@ public class PaymentControllerTest {
 
         when(paymentService.getPaymentById(paymentId)).thenReturn(payment);
 
-        ResponseEntity<Payment> response = paymentController.getPaymentById(paymentId);
+        ResponseEntity<Payment> response = paymentController.getPaymentById(paymentId, webRequest());
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(paymentId, Objects.requireNonNull(response.getBody()).getId());
     }
 
+    @Test
+    public void getPaymentByIdAnswersMatchingETagWithNotModified() {
+        Payment payment = new Payment();
+        payment.setId(1L);
+        payment.setTotalPrice(100.0);
+        payment.setDateOfCreate(LocalDateTime.of(2023, 1, 9, 9, 0));
+        when(paymentService.getPaymentById(1L)).thenReturn(payment);
+
+        String eTag = paymentController.getPaymentById(1L, webRequest()).getHeaders().getETag();
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/payment/1");
+        conditional.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNull(paymentController.getPaymentById(1L, new ServletWebRequest(conditional, response)));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+
+        payment.setLastModified(LocalDateTime.of(2023, 1, 9, 10, 0));
+        assertEquals(HttpStatus.OK, paymentController.getPaymentById(1L,
+                new ServletWebRequest(conditional, new MockHttpServletResponse())).getStatusCode());
+    }
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/payment/1"), new MockHttpServletResponse());
+    }
+
     @Test
     public void getPaymentsByDatesReturnsListOfPayments() {
         Payment payment = new Payment();
@@ -1,8 +1,10 @@
 package cvut.fel.ear.room.meeting.controller;
 
 import cvut.fel.ear.room.meeting.dto.request.ReservationRequest;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
 import cvut.fel.ear.room.meeting.entity.Reservation;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.service.ReservationExportService;
 import cvut.fel.ear.room.meeting.service.ReservationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +18,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 public class ReservationControllerTest {
@@ -23,18 +27,21 @@ public class ReservationControllerTest {
     @Mock
     private ReservationService service;
 
+    @Mock
+    private ReservationExportService exportService;
+
     private ReservationController controller;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        controller = new ReservationController(service);
+        controller = new ReservationController(service, exportService);
     }
 
     @Test
     public void testGetReservationsReturnsValidReservationsList() {
-        when(service.getReservations()).thenReturn(new ArrayList<>());
-        ResponseEntity<Iterable<Reservation>> response = controller.getReservations();
+        when(service.getReservations(null, 10)).thenReturn(new CursorPage<>(new ArrayList<>(), null));
+        ResponseEntity<CursorPage<Reservation>> response = controller.getReservations(null, 10);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
@@ -62,7 +69,7 @@ public class ReservationControllerTest {
                 10D,
                 LocalDateTime.now(),
                 LocalDateTime.now());
-        when(service.getReservationsBetween(null, null)).thenReturn(new ArrayList<>());
+        when(service.getReservationsBetween(eq(1L), any(), any())).thenReturn(new ArrayList<>());
         ResponseEntity<Iterable<Reservation>> response = controller.getReservationsBetween(reservationRequest);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
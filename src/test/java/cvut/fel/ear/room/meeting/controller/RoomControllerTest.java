@@ -1,5 +1,6 @@
 package cvut.fel.ear.room.meeting.controller;
 
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
 import cvut.fel.ear.room.meeting.entity.Room;
 import cvut.fel.ear.room.meeting.service.RoomService;
 import org.junit.jupiter.api.BeforeEach;
@@ -43,11 +44,11 @@ public class RoomControllerTest {
         freeRooms.add(room1);
         freeRooms.add(room2);
 
-        when(roomService.getFreeRooms()).thenReturn(freeRooms);
+        when(roomService.getFreeRooms(null, 10)).thenReturn(new CursorPage<>(freeRooms, null));
 
-        ResponseEntity<Iterable<Room>> response = roomController.getRooms(true);
+        ResponseEntity<CursorPage<Room>> response = roomController.getRooms(true, null, 10);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(2, ((List<Room>) Objects.requireNonNull(response.getBody())).size());
+        assertEquals(2, Objects.requireNonNull(response.getBody()).items().size());
     }
 
     @Test
@@ -62,11 +63,11 @@ public class RoomControllerTest {
         rooms.add(room1);
         rooms.add(room2);
 
-        when(roomService.getRooms()).thenReturn(rooms);
+        when(roomService.getRooms(null, 10)).thenReturn(new CursorPage<>(rooms, null));
 
-        ResponseEntity<Iterable<Room>> response = roomController.getRooms(false);
+        ResponseEntity<CursorPage<Room>> response = roomController.getRooms(false, null, 10);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(2, ((List<Room>) Objects.requireNonNull(response.getBody())).size());
+        assertEquals(2, Objects.requireNonNull(response.getBody()).items().size());
     }
 
     @Test
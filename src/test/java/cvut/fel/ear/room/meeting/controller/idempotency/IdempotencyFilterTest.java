@@ -0,0 +1,172 @@
+package cvut.fel.ear.room.meeting.controller.idempotency;
+
+import cvut.fel.ear.room.meeting.entity.IdempotencyRecord;
+import cvut.fel.ear.room.meeting.service.IdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"reservationId\":1}";
+
+    @Mock
+    private IdempotencyService service;
+
+    private IdempotencyFilter filter;
+
+    private final AtomicInteger bookings = new AtomicInteger();
+
+    /**
+     * Echoes the request body with 201, like a booking endpoint, and counts the calls.
+     */
+    private final HttpServlet booking = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            bookings.incrementAndGet();
+            byte[] body = request.getInputStream().readAllBytes();
+            response.setStatus(HttpStatus.CREATED.value());
+            response.setContentType("application/json");
+            response.getOutputStream().write(body);
+        }
+    };
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        filter = new IdempotencyFilter(service);
+    }
+
+    private MockHttpServletResponse post(String key, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/payment");
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(booking));
+        return response;
+    }
+
+    private IdempotencyRecord storedRecord(String fingerprint) {
+        IdempotencyRecord record = IdempotencyRecord.claim("key", fingerprint);
+        record.complete(HttpStatus.CREATED.value(), "application/json", BODY);
+        return record;
+    }
+
+    @Test
+    public void firstRequestIsProcessedAndItsResponseStored() throws Exception {
+        when(service.find(anyString())).thenReturn(Optional.empty());
+        when(service.claim(anyString(), anyString())).thenReturn(true);
+
+        MockHttpServletResponse response = post("retry-1", BODY);
+
+        assertEquals(HttpStatus.CREATED.value(), response.getStatus());
+        assertEquals(BODY, response.getContentAsString());
+        assertEquals(1, bookings.get());
+        verify(service).complete(anyString(), eq(HttpStatus.CREATED.value()), eq("application/json"), eq(BODY));
+        verify(service, never()).release(anyString());
+    }
+
+    @Test
+    public void retryReplaysTheStoredResponseWithoutProcessing() throws Exception {
+        when(service.find(anyString())).thenReturn(Optional.empty());
+        when(service.claim(anyString(), anyString())).thenReturn(true);
+        post("retry-2", BODY);
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        verify(service).claim(key.capture(), anyString());
+        ArgumentCaptor<String> fingerprint = ArgumentCaptor.forClass(String.class);
+        verify(service).claim(anyString(), fingerprint.capture());
+        when(service.find(key.getValue())).thenReturn(Optional.of(storedRecord(fingerprint.getValue())));
+
+        MockHttpServletResponse replay = post("retry-2", BODY);
+        MockHttpServletResponse reused = post("retry-2", "{\"reservationId\":2}");
+
+        assertEquals(1, bookings.get());
+        assertEquals(HttpStatus.CREATED.value(), replay.getStatus());
+        assertEquals("true", replay.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(BODY, replay.getContentAsString());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), reused.getStatus());
+    }
+
+    @Test
+    public void retryWhileTheFirstRequestRunsIsRejected() throws Exception {
+        when(service.find(anyString())).thenReturn(Optional.empty());
+        when(service.claim(anyString(), anyString())).thenReturn(false);
+
+        assertEquals(HttpStatus.CONFLICT.value(), post("retry-3", BODY).getStatus());
+        assertEquals(0, bookings.get());
+    }
+
+    @Test
+    public void processedRequestKeepsItsKeyWhenTheResponseCannotBeStored() throws Exception {
+        when(service.find(anyString())).thenReturn(Optional.empty());
+        when(service.claim(anyString(), anyString())).thenReturn(true);
+        doThrow(new IllegalStateException("database down")).when(service).complete(anyString(), anyInt(), any(), any());
+
+        MockHttpServletResponse response = post("retry-4", BODY);
+
+        assertEquals(HttpStatus.CREATED.value(), response.getStatus());
+        assertEquals(BODY, response.getContentAsString());
+        verify(service).completeStatus(anyString(), eq(HttpStatus.CREATED.value()));
+        verify(service, never()).release(anyString());
+    }
+
+    @Test
+    public void responseTooLargeToStoreKeepsItsStatus() throws Exception {
+        when(service.find(anyString())).thenReturn(Optional.empty());
+        when(service.claim(anyString(), anyString())).thenReturn(true);
+        String large = "x".repeat(IdempotencyRecord.MAX_BODY_LENGTH + 1);
+
+        MockHttpServletResponse response = post("retry-5", large);
+
+        assertEquals(large, response.getContentAsString());
+        verify(service).complete(anyString(), eq(HttpStatus.CREATED.value()), isNull(), isNull());
+        verify(service, never()).release(anyString());
+    }
+
+    @Test
+    public void failedHandlerReleasesTheKey() throws Exception {
+        when(service.find(anyString())).thenReturn(Optional.empty());
+        when(service.claim(anyString(), anyString())).thenReturn(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/payment");
+        request.addHeader(IdempotencyFilter.HEADER, "retry-6");
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        HttpServlet failing = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                throw new IllegalStateException("booking failed");
+            }
+        };
+
+        assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(failing)));
+        verify(service).release(anyString());
+        verify(service, never()).complete(anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void requestWithoutKeyIsNotTracked() throws Exception {
+        assertEquals(HttpStatus.CREATED.value(), post(null, BODY).getStatus());
+        assertEquals(1, bookings.get());
+        verifyNoInteractions(service);
+    }
+}
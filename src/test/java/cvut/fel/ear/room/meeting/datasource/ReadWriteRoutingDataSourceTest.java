@@ -0,0 +1,116 @@
+package cvut.fel.ear.room.meeting.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and the replica. Each holds a single row naming it, so a
+ * query shows where it was routed.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    private static DataSource node(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(16), lag DOUBLE)");
+        jdbc.update("INSERT INTO node VALUES (?, 0)", name);
+        return dataSource;
+    }
+
+    private void route(String lagQuery) {
+        ReplicaRouting routing = new ReplicaRouting(replica, lagQuery, Duration.ofSeconds(5), Duration.ofMinutes(1));
+        routing.checkLag();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, routing));
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(txManager);
+        readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String readNode(TransactionTemplate template) {
+        return template.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @BeforeEach
+    void setUp() {
+        primary = node("primary");
+        replica = node("replica");
+        route(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndTheRestToThePrimary() {
+        assertEquals("replica", readNode(readOnly));
+        assertEquals("primary", readNode(readWrite));
+        assertEquals("primary", jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    void userReadsFromThePrimaryRightAfterWriting() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "writer", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+        assertEquals("replica", readNode(readOnly));
+        readWrite.executeWithoutResult(status -> jdbc.update("UPDATE node SET lag = 0"));
+        assertEquals("primary", readNode(readOnly));
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "reader", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        assertEquals("replica", readNode(readOnly));
+    }
+
+    @Test
+    void rolledBackWriteDoesNotKeepTheUserOnThePrimary() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "writer", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+        readWrite.executeWithoutResult(status -> {
+            jdbc.update("UPDATE node SET lag = 0");
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica", readNode(readOnly));
+    }
+
+    @Test
+    void laggingOrFailingReplicaFallsBackToThePrimary() {
+        new JdbcTemplate(replica).update("UPDATE node SET lag = 30");
+        route("SELECT lag FROM node");
+        assertEquals("primary", readNode(readOnly));
+
+        new JdbcTemplate(replica).update("UPDATE node SET lag = 1");
+        route("SELECT lag FROM node");
+        assertEquals("replica", readNode(readOnly));
+
+        route("SELECT lag FROM missing_table");
+        assertEquals("primary", readNode(readOnly));
+    }
+}
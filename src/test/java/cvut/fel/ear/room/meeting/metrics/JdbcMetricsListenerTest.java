@@ -0,0 +1,36 @@
+package cvut.fel.ear.room.meeting.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcMetricsListenerTest {
+
+    @Test
+    void countsStatementsByTypeAndOutcome() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JdbcTemplate jdbc = new JdbcTemplate(ProxyDataSourceBuilder
+                .create(new DriverManagerDataSource("jdbc:h2:mem:jdbcmetrics;DB_CLOSE_DELAY=-1", "sa", ""))
+                .name("test")
+                .listener(new JdbcMetricsListener(() -> registry))
+                .build());
+
+        jdbc.execute("CREATE TABLE item (id INT)");
+        jdbc.update("INSERT INTO item VALUES (1)");
+        jdbc.update("INSERT INTO item VALUES (2)");
+        jdbc.queryForObject("SELECT COUNT(*) FROM item", Integer.class);
+        assertThrows(DataAccessException.class, () -> jdbc.queryForList("SELECT missing FROM item"));
+
+        assertEquals(2, registry.get(JdbcMetricsListener.METRIC)
+                .tags("datasource", "test", "type", "INSERT", "success", "true").timer().count());
+        assertEquals(1, registry.get(JdbcMetricsListener.METRIC)
+                .tags("type", "SELECT", "success", "true").timer().count());
+        assertEquals(1, registry.get(JdbcMetricsListener.METRIC)
+                .tags("type", "SELECT", "success", "false").timer().count());
+    }
+}
@@ -0,0 +1,57 @@
+package cvut.fel.ear.room.meeting.metrics;
+
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.repository.AdminRepository;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.ReservationSeriesRepository;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.service.AvailabilityService;
+import cvut.fel.ear.room.meeting.service.RoomSearchService;
+import cvut.fel.ear.room.meeting.service.RoomService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ServiceMetricsAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private RoomRepository roomRepository;
+    private RoomService roomService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        roomRepository = mock(RoomRepository.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new RoomService(mock(ReservationRepository.class),
+                roomRepository, mock(AdminRepository.class), mock(ReservationSeriesRepository.class),
+                mock(AvailabilityService.class), mock(RoomSearchService.class),
+                mock(ApplicationEventPublisher.class)));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMetricsAspect(registry));
+        roomService = factory.getProxy();
+    }
+
+    @Test
+    void timesServiceCallsByOutcome() {
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(new Room()));
+        when(roomRepository.findById(2L)).thenReturn(Optional.empty());
+
+        roomService.getRoomById(1L);
+        roomService.getRoomById(1L);
+        assertThrows(ApplicationException.class, () -> roomService.getRoomById(2L));
+
+        assertEquals(2, registry.get(ServiceMetricsAspect.METRIC)
+                .tags("service", "RoomService", "method", "getRoomById", "exception", "none").timer().count());
+        assertEquals(1, registry.get(ServiceMetricsAspect.METRIC)
+                .tags("service", "RoomService", "method", "getRoomById", "exception", "NOT_FOUND").timer().count());
+    }
+}
@@ -0,0 +1,84 @@
+package cvut.fel.ear.room.meeting.security;
+
+import cvut.fel.ear.room.meeting.config.CacheConfig;
+import cvut.fel.ear.room.meeting.entity.Role;
+import cvut.fel.ear.room.meeting.entity.User;
+import cvut.fel.ear.room.meeting.security.model.UserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class DefaultAuthProviderTest {
+
+    private static final String HASH = "$2a$10$storedhash";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private DefaultAuthProvider provider;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        user = new User();
+        user.setUsername("alice");
+        user.setPassword(HASH);
+        user.setRole(Role.USER);
+        when(userDetailsService.loadUserByUsername("alice")).thenAnswer(invocation -> new UserDetails(user));
+        when(passwordEncoder.matches(anyString(), anyString()))
+                .thenAnswer(invocation -> "secret-password".equals(invocation.getArgument(0)));
+        provider = new DefaultAuthProvider(userDetailsService, passwordEncoder,
+                new VerifiedCredentialCache(new ConcurrentMapCacheManager(CacheConfig.VERIFIED_CREDENTIALS)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatedLoginSkipsPasswordEncoder() {
+        provider.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret-password"));
+        provider.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret-password"));
+
+        verify(passwordEncoder, times(1)).matches(anyString(), anyString());
+        // Erasing the credentials of the login must not touch the user, which may be shared through a cache
+        assertEquals(HASH, user.getPassword());
+    }
+
+    @Test
+    void wrongPasswordAfterSuccessfulLoginIsStillRejected() {
+        provider.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret-password"));
+
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(new UsernamePasswordAuthenticationToken("alice", "wrong-password")));
+        verify(passwordEncoder, times(2)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void changedPasswordHashInvalidatesRememberedLogin() {
+        provider.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret-password"));
+        user.setPassword("$2a$10$otherhash");
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret-password"));
+
+        verify(passwordEncoder, times(2)).matches(anyString(), anyString());
+    }
+}
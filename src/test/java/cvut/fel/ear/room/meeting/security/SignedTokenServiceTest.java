@@ -0,0 +1,82 @@
+package cvut.fel.ear.room.meeting.security;
+
+import cvut.fel.ear.room.meeting.config.TokenProperties;
+import cvut.fel.ear.room.meeting.entity.Role;
+import cvut.fel.ear.room.meeting.entity.User;
+import cvut.fel.ear.room.meeting.security.model.AuthToken;
+import cvut.fel.ear.room.meeting.security.model.UserDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignedTokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2022-12-12T10:00:00Z");
+
+    private TokenProperties properties;
+
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TokenProperties();
+        properties.setEnabled(true);
+        properties.setSecret("0123456789abcdef0123456789abcdef");
+        properties.setTtl(Duration.ofHours(1));
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("al:ice");
+        user.setRole(Role.USER);
+        userDetails = new UserDetails(user);
+    }
+
+    private SignedTokenService serviceAt(Instant instant) {
+        return new SignedTokenService(properties, Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    @Test
+    void verifyRebuildsAuthenticationFromIssuedToken() {
+        String token = serviceAt(NOW).issue(userDetails);
+
+        AuthToken authentication = serviceAt(NOW.plusSeconds(60)).verify(token).orElseThrow();
+
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(42L, authentication.getPrincipal().getUser().getId());
+        assertEquals("al:ice", authentication.getPrincipal().getUsername());
+        assertEquals(Role.USER.toString(), authentication.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void verifyRejectsTamperedToken() {
+        String token = serviceAt(NOW).issue(userDetails);
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("42:ADMIN:9999999999:al:ice".getBytes());
+
+        assertEquals(Optional.empty(),
+                serviceAt(NOW).verify(forgedPayload + token.substring(token.indexOf('.'))));
+        assertEquals(Optional.empty(), serviceAt(NOW).verify(token + "x"));
+        assertEquals(Optional.empty(), serviceAt(NOW).verify("garbage"));
+    }
+
+    @Test
+    void verifyRejectsExpiredToken() {
+        String token = serviceAt(NOW).issue(userDetails);
+
+        assertEquals(Optional.empty(), serviceAt(NOW.plus(Duration.ofHours(2))).verify(token));
+    }
+
+    @Test
+    void enabledWithoutSecretFailsAtStartup() {
+        properties.setSecret("short");
+
+        assertThrows(IllegalStateException.class, () -> serviceAt(NOW));
+    }
+}
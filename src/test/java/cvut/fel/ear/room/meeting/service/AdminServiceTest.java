@@ -1,5 +1,6 @@
 package cvut.fel.ear.room.meeting.service;
 
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
 import cvut.fel.ear.room.meeting.entity.Admin;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
 import cvut.fel.ear.room.meeting.repository.AdminRepository;
@@ -9,7 +10,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Optional;
 
@@ -31,9 +31,9 @@ public class AdminServiceTest {
 
     @Test
     public void testGetAdminsReturnsValidAdminsList() {
-        when(adminRepository.findAll()).thenReturn(Collections.emptyList());
-        Collection<Admin> admins = adminService.getAdmins();
-        assertTrue(admins.isEmpty());
+        when(adminRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(Collections.emptyList());
+        CursorPage<Admin> admins = adminService.getAdmins(null, 10);
+        assertTrue(admins.items().isEmpty());
     }
 
     @Test
@@ -0,0 +1,147 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.config.CacheConfig;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.metrics.BookingMetrics;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+class BookingCoordinatorTest {
+
+    private static final int THREADS = 32;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private PlatformTransactionManager txManager;
+
+    private BookingCoordinator coordinator;
+
+    private final Map<Long, Integer> capacities = new ConcurrentHashMap<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ConcurrentMapCacheManager cacheManager =
+            new ConcurrentMapCacheManager(CacheConfig.ROOMS, CacheConfig.ROOMS_BY_NAME);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Deliberately racy read-modify-write, only the coordinator keeps it from overbooking.
+        when(roomRepository.incrementCapacity(anyLong(), anyInt())).thenAnswer(invocation -> {
+            Long roomId = invocation.getArgument(0);
+            int max = invocation.getArgument(1);
+            int current = capacities.getOrDefault(roomId, 0);
+            Thread.yield();
+            if (current >= max) {
+                return 0;
+            }
+            capacities.put(roomId, current + 1);
+            return 1;
+        });
+        coordinator = new BookingCoordinator(roomRepository, txManager, cacheManager, event -> {
+        }, new BookingMetrics(meterRegistry));
+    }
+
+    @Test
+    void admitUnderConcurrentLoadNeverExceedsCapacity() throws Exception {
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < THREADS * 4; i++) {
+            executor.submit(() -> {
+                start.await();
+                try {
+                    coordinator.admit(1L, UserService.MAX_ROOM_CAPACITY, admitted::incrementAndGet);
+                } catch (ApplicationException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(UserService.MAX_ROOM_CAPACITY, admitted.get());
+        assertEquals(UserService.MAX_ROOM_CAPACITY, capacities.get(1L));
+        assertEquals(THREADS * 4 - UserService.MAX_ROOM_CAPACITY, rejected.get());
+    }
+
+    @Test
+    void admitToDifferentRoomIsNotBlockedByBusyRoom() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> busy = executor.submit(() -> coordinator.admit(1L, UserService.MAX_ROOM_CAPACITY, () -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> coordinator.admit(2L, UserService.MAX_ROOM_CAPACITY, () -> {
+                }));
+
+        release.countDown();
+        busy.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertEquals(1, capacities.get(2L));
+    }
+
+    @Test
+    void admitWhenRoomIsFullDoesNotRunBooking() {
+        capacities.put(3L, UserService.MAX_ROOM_CAPACITY);
+
+        assertThrows(ApplicationException.class,
+                () -> coordinator.admit(3L, UserService.MAX_ROOM_CAPACITY, () -> fail("Room is full.")));
+        assertEquals(1, meterRegistry.counter(BookingMetrics.CAPACITY_FULL).count());
+    }
+
+    @Test
+    void admitEvictsOnlyTheBookedRoomFromNameCache() {
+        Room booked = new Room();
+        booked.setName("booked");
+        cacheManager.getCache(CacheConfig.ROOMS).put(1L, booked);
+        cacheManager.getCache(CacheConfig.ROOMS_BY_NAME).put("booked", booked);
+        cacheManager.getCache(CacheConfig.ROOMS_BY_NAME).put("looked-up", new Room());
+        cacheManager.getCache(CacheConfig.ROOMS_BY_NAME).put("other", new Room());
+        Room loaded = new Room();
+        loaded.setName("looked-up");
+        when(roomRepository.findById(2L)).thenReturn(Optional.of(loaded));
+
+        coordinator.admit(1L, UserService.MAX_ROOM_CAPACITY, () -> {
+        });
+        coordinator.admit(2L, UserService.MAX_ROOM_CAPACITY, () -> {
+        });
+
+        assertNull(cacheManager.getCache(CacheConfig.ROOMS).get(1L));
+        assertNull(cacheManager.getCache(CacheConfig.ROOMS_BY_NAME).get("booked"));
+        assertNull(cacheManager.getCache(CacheConfig.ROOMS_BY_NAME).get("looked-up"));
+        assertNotNull(cacheManager.getCache(CacheConfig.ROOMS_BY_NAME).get("other"));
+    }
+}
@@ -0,0 +1,79 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.entity.IdempotencyRecord;
+import cvut.fel.ear.room.meeting.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "app.idempotency.pending-timeout=PT0S"
+})
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService service;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Test
+    void keyCanBeClaimedOnceUntilReleased() {
+        assertTrue(service.claim("released", "fingerprint"));
+        assertFalse(service.claim("released", "fingerprint"));
+
+        service.release("released");
+
+        assertTrue(service.find("released").isEmpty());
+        assertTrue(service.claim("released", "fingerprint"));
+    }
+
+    @Test
+    void completedResponseIsFound() {
+        assertTrue(service.claim("completed", "fingerprint"));
+        assertFalse(service.find("completed").orElseThrow().isCompleted());
+
+        service.complete("completed", 201, "application/json", "{}");
+
+        IdempotencyRecord record = service.find("completed").orElseThrow();
+        assertEquals(201, record.getStatus());
+        assertEquals("{}", record.getBody());
+        assertFalse(service.claim("completed", "fingerprint"));
+    }
+
+    @Test
+    void claimOfARunningRequestOutlivesThePendingTimeout() {
+        assertTrue(service.claim("running", "fingerprint"));
+
+        assertTrue(service.find("running").isPresent());
+        assertFalse(service.claim("running", "fingerprint"));
+    }
+
+    @Test
+    void abandonedClaimIsGivenUp() {
+        repository.saveAndFlush(IdempotencyRecord.claim("abandoned", "fingerprint"));
+
+        assertTrue(service.find("abandoned").isEmpty());
+        assertTrue(service.claim("abandoned", "fingerprint"));
+    }
+
+    @Test
+    void claimCompletedWithItsStatusAloneIsKept() {
+        assertTrue(service.claim("status-only", "fingerprint"));
+
+        service.completeStatus("status-only", 201);
+
+        IdempotencyRecord record = service.find("status-only").orElseThrow();
+        assertEquals(201, record.getStatus());
+        assertNull(record.getBody());
+        assertFalse(service.claim("status-only", "fingerprint"));
+    }
+}
@@ -1,5 +1,6 @@
 package cvut.fel.ear.room.meeting.service;
 
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
 import cvut.fel.ear.room.meeting.entity.Payment;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
 import cvut.fel.ear.room.meeting.repository.PaymentRepository;
@@ -10,12 +11,13 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 public class PaymentServiceTest {
@@ -39,9 +41,9 @@ public class PaymentServiceTest {
     public void testGetPaymentsReturnsValidPaymentsList() {
         List<Payment> payments = new ArrayList<>();
         payments.add(payment);
-        when(paymentRepository.findAll()).thenReturn(payments);
-        Collection<Payment> foundPayments = paymentService.getPayments();
-        assertNotNull(foundPayments);
+        when(paymentRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(payments);
+        CursorPage<Payment> foundPayments = paymentService.getPayments(null, 10);
+        assertNotNull(foundPayments.items());
     }
 
     @Test(expected = ApplicationException.class)
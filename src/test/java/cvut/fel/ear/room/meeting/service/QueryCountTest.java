@@ -0,0 +1,251 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.dto.request.RevenueGrouping;
+import cvut.fel.ear.room.meeting.dto.response.RevenueTotal;
+import cvut.fel.ear.room.meeting.entity.Payment;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.entity.User;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.repository.PaymentRepository;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements behind the service calls of the reservation endpoints on an in-memory H2 database.
+ * Every call runs in one transaction, like a web request with open-session-in-view, so any lazy load that the
+ * call triggers is counted as well.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-count;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.sql.init.mode=never",
+        // Statistics are global, keep the relay's queries out of the counts
+        "app.outbox.relay-interval=PT1H",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class QueryCountTest {
+
+    private static final AtomicInteger NAMES = new AtomicInteger();
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        start = YearMonth.now().atEndOfMonth().atTime(20, 0);
+    }
+
+    private long statementsOf(Runnable call) {
+        statistics.clear();
+        new TransactionTemplate(txManager).executeWithoutResult(status -> call.run());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Room room() {
+        Room room = new Room();
+        room.setName("Room " + NAMES.incrementAndGet());
+        room.setText("Query count");
+        room.setPricePerHour(100D);
+        room.setRoomCapacity(0);
+        room.setDateOfCreate(LocalDateTime.now());
+        return roomRepository.save(room);
+    }
+
+    private User user() {
+        User user = new User();
+        int number = NAMES.incrementAndGet();
+        user.setUsername("user" + number);
+        user.setEmail("user" + number + "@query.com");
+        user.setPassword("password" + number);
+        return userRepository.save(user);
+    }
+
+    private Reservation reservation(Room room) {
+        Payment payment = new Payment();
+        payment.setTotalPrice(100D);
+        payment.setDateOfCreate(LocalDateTime.now());
+        payment.setUserPayments(user());
+        Reservation reservation = new Reservation();
+        reservation.setPrice(100D);
+        reservation.setReservationDateTimeStart(start);
+        reservation.setReservationDateTimeEnd(start.plusHours(1));
+        reservation.setRoomReservation(room);
+        reservation.setReservationsPayment(paymentRepository.save(payment));
+        return reservationRepository.save(reservation);
+    }
+
+    private List<Reservation> reservations(int count) {
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            reservations.add(reservation(room()));
+        }
+        return reservations;
+    }
+
+    private void hold(User user, List<Reservation> reservations) {
+        for (Reservation reservation : reservations) {
+            jdbcTemplate.update("INSERT INTO user_has_reservation (user_id, reservation_id) VALUES (?, ?)",
+                    user.getId(), reservation.getId());
+        }
+    }
+
+    @Test
+    void listingReservationsWithRoomsAndPaymentsIsOneQuery() {
+        reservations(20);
+
+        assertEquals(1, statementsOf(() -> reservationService.getReservations(null, 100)));
+        assertEquals(1, statementsOf(
+                () -> reservationService.getReservationsBetween(null, start, start.plusHours(1))));
+    }
+
+    @Test
+    void deleteReservationChecksHoldersWithOneExistsQuery() {
+        hold(user(), reservations(20));
+        Reservation free = reservation(room());
+
+        // Load, EXISTS on user_has_reservation, delete, payment total update, outbox insert, room lock with latest
+        // change version, room change insert
+        assertEquals(7, statementsOf(() -> reservationService.deleteReservation(free.getId())));
+    }
+
+    @Test
+    void deleteReservationOfUserIsRejectedAfterTheExistsQuery() {
+        Reservation held = reservation(room());
+        hold(user(), List.of(held));
+
+        statistics.clear();
+        assertThrows(ApplicationException.class, () -> new TransactionTemplate(txManager)
+                .executeWithoutResult(status -> reservationService.deleteReservation(held.getId())));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void addUserReservationDoesNotGrowWithReservationsTheUserHolds() {
+        User newcomer = user();
+        User regular = user();
+        hold(regular, reservations(20));
+        Reservation first = reservation(room());
+        Reservation second = reservation(room());
+
+        long newcomerStatements = statementsOf(() -> userService.addUserReservation(newcomer.getId(), first.getId()));
+        long regularStatements = statementsOf(() -> userService.addUserReservation(regular.getId(), second.getId()));
+
+        assertEquals(newcomerStatements, regularStatements);
+        // User, reservation with room and payment, capacity update, EXISTS, held set, join row insert, room reload
+        // for the search index after commit
+        assertEquals(7, regularStatements);
+    }
+
+    @Test
+    void revenuePerRoomIsOneAggregateQuery() {
+        Room busy = room();
+        reservations(20);
+        reservation(busy);
+        reservation(busy);
+
+        List<RevenueTotal> perRoom = new ArrayList<>();
+        assertEquals(1, statementsOf(
+                () -> perRoom.addAll(paymentService.getRevenue(RevenueGrouping.ROOM, null, null))));
+
+        RevenueTotal total = perRoom.stream().filter(each -> each.id().equals(busy.getId())).findFirst().orElseThrow();
+        assertEquals(200.0, total.revenue());
+        assertEquals(2L, total.reservations());
+    }
+
+    @Test
+    void revenueWithoutBoundsCountsEveryPaidReservation() {
+        Reservation old = reservation(room());
+        old.setReservationDateTimeStart(LocalDateTime.of(1960, 1, 1, 10, 0));
+        old.setReservationDateTimeEnd(LocalDateTime.of(1960, 1, 1, 11, 0));
+        reservationRepository.save(old);
+
+        List<RevenueTotal> perPayment = paymentService.getRevenue(RevenueGrouping.PAYMENT, null, null);
+
+        assertTrue(perPayment.stream().anyMatch(each -> each.id().equals(old.getReservationsPayment().getId())));
+        assertEquals(perPayment.stream().mapToDouble(RevenueTotal::revenue).sum(),
+                paymentService.getRevenue(null, null));
+    }
+
+    @Test
+    void paymentTotalIsMaintainedOnWriteAndReadWithOneQuery() {
+        Reservation first = reservation(room());
+        Reservation second = reservation(room());
+        Long paymentId = first.getReservationsPayment().getId();
+
+        paymentService.addPaymentReservation(paymentId, second.getId());
+
+        assertEquals(1, statementsOf(() -> assertEquals(200.0,
+                paymentService.getPaymentById(paymentId).getTotalPrice())));
+        assertEquals(0.0, paymentService.getPaymentById(second.getReservationsPayment().getId()).getTotalPrice());
+    }
+
+    @Test
+    void newPaymentTakesTheReservationFromItsPreviousPayment() {
+        Reservation reservation = reservation(room());
+        Payment previous = reservation.getReservationsPayment();
+
+        Payment created = paymentService.createPayment(reservation.getId());
+
+        assertEquals(100.0, created.getTotalPrice());
+        assertEquals(100.0, paymentService.getPaymentById(created.getId()).getTotalPrice());
+        Payment emptied = paymentService.getPaymentById(previous.getId());
+        assertEquals(0.0, emptied.getTotalPrice());
+        assertTrue(emptied.getLastModified().isAfter(previous.getLastModified()));
+    }
+}
@@ -0,0 +1,75 @@
+package cvut.fel.ear.room.meeting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cvut.fel.ear.room.meeting.config.AppConfig;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class ReservationExportServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new AppConfig().objectMapper();
+
+    private ReservationExportService exportService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new ReservationExportService(reservationRepository, entityManager, objectMapper);
+    }
+
+    @Test
+    void exportReservationsWritesOneJsonDocumentPerLine() throws IOException {
+        when(reservationRepository.streamAllOrderById()).thenReturn(Stream.of(reservation(1L), reservation(2L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.exportReservations(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], Reservation.class).getId());
+        assertEquals(LocalDateTime.of(2022, 12, 3, 10, 0),
+                objectMapper.readValue(lines[1], Reservation.class).getReservationDateTimeStart());
+    }
+
+    @Test
+    void exportReservationsDetachesEveryRowAndClearsInBatches() throws IOException {
+        when(reservationRepository.streamAllOrderById())
+                .thenReturn(LongStream.rangeClosed(1, 1200).mapToObj(this::reservation));
+
+        exportService.exportReservations(new ByteArrayOutputStream());
+
+        verify(entityManager, times(1200)).detach(any(Reservation.class));
+        verify(entityManager, times(2)).clear();
+    }
+
+    private Reservation reservation(long id) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setPrice(100D);
+        reservation.setReservationDateTimeStart(LocalDateTime.of(2022, 12, (int) (id % 28) + 1, 10, 0));
+        reservation.setReservationDateTimeEnd(LocalDateTime.of(2022, 12, (int) (id % 28) + 1, 11, 0));
+        return reservation;
+    }
+}
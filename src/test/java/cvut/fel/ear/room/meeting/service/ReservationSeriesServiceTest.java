@@ -0,0 +1,86 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.dto.request.ReservationSeriesRequest;
+import cvut.fel.ear.room.meeting.entity.RecurrenceFrequency;
+import cvut.fel.ear.room.meeting.entity.ReservationSeries;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.repository.ReservationSeriesRepository;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reservation-series;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never"
+})
+class ReservationSeriesServiceTest {
+
+    @Autowired
+    private ReservationSeriesService service;
+
+    @Autowired
+    private ReservationSeriesRepository seriesRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private Room room(String name) {
+        Room room = new Room();
+        room.setName(name);
+        room.setText("Series");
+        room.setPricePerHour(100D);
+        room.setRoomCapacity(0);
+        room.setDateOfCreate(LocalDateTime.now());
+        return roomRepository.save(room);
+    }
+
+    private static ReservationSeriesRequest weekly(Long roomId, LocalDateTime start) {
+        return new ReservationSeriesRequest(roomId, start, start.plusHours(1), RecurrenceFrequency.WEEKLY,
+                1, null, null, 4);
+    }
+
+    @Test
+    void seriesClashingWithAStoredSeriesIsRejected() {
+        Room room = room("Series stored");
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        // Stored without an event, like a series another instance committed a moment ago
+        ReservationSeries stored = new ReservationSeries();
+        stored.setRoomSeries(room);
+        stored.setReservationDateTimeStart(start);
+        stored.setReservationDateTimeEnd(start.plusHours(1));
+        stored.setFrequency(RecurrenceFrequency.WEEKLY);
+        stored.setRepeatInterval(1);
+        stored.setWeekdays(EnumSet.of(start.getDayOfWeek()));
+        stored.setOccurrenceCount(4);
+        stored.setPrice(100D);
+        seriesRepository.save(stored);
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> service.createSeries(weekly(room.getId(), start.plusWeeks(2))));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
+        assertEquals(1, seriesRepository.findByRoomSeriesId(room.getId()).size());
+    }
+
+    @Test
+    void seriesOfAMissingRoomIsNotFound() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> service.createSeries(weekly(Long.MAX_VALUE, start)));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getHttpStatus());
+    }
+}
@@ -1,18 +1,38 @@
 package cvut.fel.ear.room.meeting.service;
 
+import cvut.fel.ear.room.meeting.dto.request.ReservationRequest;
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
+import cvut.fel.ear.room.meeting.dto.response.ReservationBatchItem;
+import cvut.fel.ear.room.meeting.dto.response.ReservationBatchResult;
+import cvut.fel.ear.room.meeting.entity.Payment;
 import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.entity.Room;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.metrics.BookingMetrics;
+import cvut.fel.ear.room.meeting.repository.PaymentRepository;
 import cvut.fel.ear.room.meeting.repository.ReservationRepository;
 import cvut.fel.ear.room.meeting.repository.RoomRepository;
 import cvut.fel.ear.room.meeting.repository.UserRepository;
+import cvut.fel.ear.room.meeting.service.event.ReservationChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,25 +50,60 @@ class ReservationServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        reservationService = new ReservationService(reservationRepository, roomRepository, userRepository);
+        reservationService = new ReservationService(reservationRepository, roomRepository, userRepository,
+                paymentRepository, availabilityService, eventPublisher, new BookingMetrics(new SimpleMeterRegistry()));
     }
 
     @Test
     public void getReservationsReturnsValidReservationsList() {
         Reservation reservation = new Reservation();
         reservation.setId(1L);
-        when(reservationRepository.findAll()).thenReturn(new ArrayList<>() {{
-            add(reservation);
-        }});
+        when(reservationRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 11)))
+                .thenReturn(new ArrayList<>() {{
+                    add(reservation);
+                }});
 
-        Collection<Reservation> reservations = reservationService.getReservations();
+        CursorPage<Reservation> reservations = reservationService.getReservations(null, 10);
 
-        assertEquals(1, reservations.size());
-        assertEquals(1L, reservations.iterator().next().getId());
-        verify(reservationRepository, times(1)).findAll();
+        assertEquals(1, reservations.items().size());
+        assertEquals(1L, reservations.items().get(0).getId());
+        assertNull(reservations.next());
+        verify(reservationRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 11));
+    }
+
+    @Test
+    void getReservationsReturnsCursorOfLastItemWhenMoreRowsExist() {
+        List<Reservation> rows = new ArrayList<>();
+        for (long id = 6; id <= 8; id++) {
+            Reservation reservation = new Reservation();
+            reservation.setId(id);
+            rows.add(reservation);
+        }
+        when(reservationRepository.findByIdGreaterThanOrderByIdAsc(5L, PageRequest.of(0, 3))).thenReturn(rows);
+
+        CursorPage<Reservation> page = reservationService.getReservations(5L, 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals(7L, page.next());
+    }
+
+    @Test
+    void getReservationsRejectsLimitOutOfRange() {
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> reservationService.getReservations(null, 0));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus());
     }
 
     @Test
@@ -71,4 +126,104 @@ class ReservationServiceTest {
         assertThrows(ApplicationException.class, () -> reservationService.getReservationById(1L));
         verify(reservationRepository, times(1)).findById(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getReservationsBetweenWithRoomUsesPerRoomOverlapQuery() {
+        LocalDateTime start = LocalDateTime.of(2022, 12, 12, 10, 0);
+        LocalDateTime end = start.plusHours(2);
+        when(reservationRepository.findOverlappingInRoom(3L, start, end)).thenReturn(List.of(new Reservation()));
+
+        Collection<Reservation> reservations = reservationService.getReservationsBetween(3L, start, end);
+
+        assertEquals(1, reservations.size());
+        verify(reservationRepository, never()).findOverlapping(any(), any());
+    }
+
+    @Test
+    void addReservationRoomReportsDatabaseOverlapAsConflict() {
+        Reservation reservation = reservationForRoom(3L);
+        when(reservationRepository.saveAndFlush(reservation)).thenThrow(new DataIntegrityViolationException("overlap",
+                new ConstraintViolationException("overlap", new SQLException("conflicting key value", "23P01"),
+                        ReservationService.OVERLAP_CONSTRAINT)));
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> reservationService.addReservationRoom(1L, 3L));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void addReservationRoomRethrowsOtherIntegrityViolations() {
+        Reservation reservation = reservationForRoom(3L);
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("not null",
+                new ConstraintViolationException("not null", new SQLException("null value", "23502"), null));
+        when(reservationRepository.saveAndFlush(reservation)).thenThrow(notNull);
+
+        assertSame(notNull, assertThrows(DataIntegrityViolationException.class,
+                () -> reservationService.addReservationRoom(1L, 3L)));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private Reservation reservationForRoom(Long roomId) {
+        Room room = new Room();
+        room.setId(roomId);
+        room.setPricePerHour(100D);
+        Reservation reservation = new Reservation();
+        reservation.setId(1L);
+        reservation.setReservationsPayment(new Payment());
+        reservation.setReservationDateTimeStart(LocalDateTime.of(2022, 12, 12, 10, 0));
+        reservation.setReservationDateTimeEnd(LocalDateTime.of(2022, 12, 12, 11, 0));
+        when(reservationRepository.findById(1L)).thenReturn(Optional.of(reservation));
+        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
+        when(availabilityService.isRoomFreeFor(roomId, reservation)).thenReturn(true);
+        return reservation;
+    }
+
+    @Test
+    void createReservationsRejectsOverlapsWithinBatchAndWritesNothing() {
+        LocalDateTime start = YearMonth.now().atEndOfMonth().atTime(21, 0);
+        Room room = new Room();
+        room.setId(3L);
+        room.setPricePerHour(100D);
+        when(roomRepository.findAllById(Set.of(3L))).thenReturn(List.of(room));
+        when(availabilityService.isRoomFree(eq(3L), any(), any())).thenReturn(true);
+
+        ReservationBatchResult result = reservationService.createReservations(List.of(
+                new ReservationRequest(null, 3L, null, null, start, start.plusHours(1)),
+                new ReservationRequest(null, 3L, null, null, start.plusMinutes(30), start.plusHours(2)),
+                new ReservationRequest(null, null, null, null, start, start.plusHours(1))));
+
+        assertFalse(result.applied());
+        assertEquals(HttpStatus.FAILED_DEPENDENCY.value(), result.items().get(0).status());
+        assertEquals(HttpStatus.CONFLICT.value(), result.items().get(1).status());
+        assertEquals(HttpStatus.FAILED_DEPENDENCY.value(), result.items().get(2).status());
+        verify(reservationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void createReservationsSavesWholeBatchAndReportsIds() {
+        LocalDateTime start = YearMonth.now().atEndOfMonth().atTime(21, 0);
+        Room room = new Room();
+        room.setId(3L);
+        room.setPricePerHour(100D);
+        when(roomRepository.findAllById(Set.of(3L))).thenReturn(List.of(room));
+        when(availabilityService.isRoomFree(eq(3L), any(), any())).thenReturn(true);
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Reservation> reservations = invocation.getArgument(0);
+            long id = 100;
+            for (Reservation reservation : reservations) {
+                reservation.setId(id++);
+            }
+            return reservations;
+        });
+
+        ReservationBatchResult result = reservationService.createReservations(List.of(
+                new ReservationRequest(null, 3L, null, null, start, start.plusHours(1)),
+                new ReservationRequest(null, 3L, null, null, start.plusHours(1), start.plusHours(2))));
+
+        assertTrue(result.applied());
+        assertEquals(List.of(100L, 101L), result.items().stream().map(ReservationBatchItem::id).toList());
+        verify(eventPublisher, times(2)).publishEvent(any(ReservationChangedEvent.class));
+    }
+}
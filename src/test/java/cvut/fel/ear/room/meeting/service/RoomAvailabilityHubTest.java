@@ -0,0 +1,130 @@
+package cvut.fel.ear.room.meeting.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.service.event.ReservationChangedEvent;
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomAvailabilityHubTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 7, 10, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void changeIsSerializedOnceAndSentToRoomAndAllRoomStreamsOnly() {
+        RoomAvailabilityHub hub = new RoomAvailabilityHub(objectMapper, Runnable::run, Duration.ofMinutes(1), 10);
+        RecordingEmitter room = new RecordingEmitter();
+        RecordingEmitter all = new RecordingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        hub.subscribe(Set.of(1L), room);
+        hub.subscribe(Set.of(), all);
+        hub.subscribe(Set.of(2L), other);
+
+        hub.onReservationChanged(new ReservationChangedEvent(
+                new ReservationSnapshot(5L, 1L, START, START.plusHours(1), 100.0),
+                new ReservationSnapshot(5L, 1L, START.plusHours(2), START.plusHours(3), 100.0)));
+
+        assertEquals(1, room.sent.size());
+        assertEquals(1, all.sent.size());
+        assertTrue(other.sent.isEmpty());
+        assertSame(room.sent.get(0), all.sent.get(0));
+        String data = room.sent.get(0).stream()
+                .map(part -> part.getData().toString())
+                .collect(Collectors.joining());
+        assertTrue(data.contains("\"released\":{\"start\":\"2030-01-07T10:00:00\""), data);
+        assertTrue(data.contains("\"booked\":{\"start\":\"2030-01-07T12:00:00\""), data);
+    }
+
+    @Test
+    void priceChangeIsNotPublished() {
+        RoomAvailabilityHub hub = new RoomAvailabilityHub(objectMapper, Runnable::run, Duration.ofMinutes(1), 10);
+        RecordingEmitter all = new RecordingEmitter();
+        hub.subscribe(Set.of(), all);
+
+        hub.onReservationChanged(new ReservationChangedEvent(
+                new ReservationSnapshot(5L, 1L, START, START.plusHours(1), 100.0),
+                new ReservationSnapshot(5L, 1L, START, START.plusHours(1), 150.0)));
+
+        assertTrue(all.sent.isEmpty());
+    }
+
+    @Test
+    void streamFallingBehindIsClosedWithoutBlockingOthers() {
+        List<Runnable> stalled = new ArrayList<>();
+        RoomAvailabilityHub hub = new RoomAvailabilityHub(objectMapper, stalled::add, Duration.ofMinutes(1), 10);
+        RecordingEmitter slow = new RecordingEmitter();
+        hub.subscribe(Set.of(1L), slow);
+
+        for (int i = 0; i <= RoomAvailabilityHub.MAX_PENDING; i++) {
+            hub.onReservationChanged(new ReservationChangedEvent(null,
+                    new ReservationSnapshot((long) i, 1L, START.plusDays(i), START.plusDays(i).plusHours(1), 1.0)));
+        }
+
+        assertEquals(1, stalled.size());
+        assertEquals(0, hub.size());
+        stalled.get(0).run();
+        assertTrue(slow.sent.isEmpty());
+    }
+
+    @Test
+    void closedStreamDropsRoomsNoOtherStreamFollows() {
+        List<Runnable> stalled = new ArrayList<>();
+        RoomAvailabilityHub hub = new RoomAvailabilityHub(objectMapper, stalled::add, Duration.ofMinutes(1), 10);
+        hub.subscribe(Set.of(1L, 2L), new RecordingEmitter());
+        hub.subscribe(Set.of(2L), new RecordingEmitter());
+
+        for (int i = 0; i <= RoomAvailabilityHub.MAX_PENDING; i++) {
+            hub.onReservationChanged(new ReservationChangedEvent(null,
+                    new ReservationSnapshot((long) i, 1L, START.plusDays(i), START.plusDays(i).plusHours(1), 1.0)));
+        }
+
+        assertEquals(1, hub.size());
+        assertEquals(1, hub.followedRooms());
+    }
+
+    @Test
+    void streamFollowingTooManyRoomsIsRefused() {
+        RoomAvailabilityHub hub = new RoomAvailabilityHub(objectMapper, Runnable::run, Duration.ofMinutes(1), 10);
+        Set<Long> rooms = LongStream.rangeClosed(1, RoomAvailabilityHub.MAX_ROOMS_PER_STREAM + 1)
+                .boxed()
+                .collect(Collectors.toSet());
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> hub.subscribe(rooms, new RecordingEmitter()));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus());
+        assertEquals(0, hub.size());
+        assertEquals(0, hub.followedRooms());
+    }
+
+    /**
+     * Records what would be written to the connection.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<Set<ResponseBodyEmitter.DataWithMediaType>> sent = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder.build());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.entity.Payment;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.entity.User;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.repository.PaymentRepository;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Room places on an in-memory H2 database. Service calls run in one transaction each, like a web request with
+ * open-session-in-view.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:room-capacity;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never"
+})
+class RoomCapacityTest {
+
+    private static final int MAX = UserService.MAX_ROOM_CAPACITY;
+
+    private static final AtomicInteger NAMES = new AtomicInteger();
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    private Room room() {
+        Room room = new Room();
+        room.setName("Room " + NAMES.incrementAndGet());
+        room.setText("Capacity");
+        room.setPricePerHour(100D);
+        room.setRoomCapacity(0);
+        room.setDateOfCreate(LocalDateTime.now());
+        return roomRepository.save(room);
+    }
+
+    private User user() {
+        User user = new User();
+        int number = NAMES.incrementAndGet();
+        user.setUsername("user" + number);
+        user.setEmail("user" + number + "@capacity.com");
+        user.setPassword("password" + number);
+        return userRepository.save(user);
+    }
+
+    private Reservation reservation(Room room) {
+        Payment payment = new Payment();
+        payment.setTotalPrice(100D);
+        payment.setDateOfCreate(LocalDateTime.now());
+        Reservation reservation = new Reservation();
+        reservation.setPrice(100D);
+        LocalDateTime start = YearMonth.now().atEndOfMonth().atTime(10 + NAMES.incrementAndGet() % 10, 0);
+        reservation.setReservationDateTimeStart(start);
+        reservation.setReservationDateTimeEnd(start.plusMinutes(30));
+        reservation.setRoomReservation(room);
+        reservation.setReservationsPayment(paymentRepository.save(payment));
+        return reservationRepository.save(reservation);
+    }
+
+    private int placesTaken(Room room) {
+        return jdbcTemplate.queryForObject("SELECT room_capacity FROM room WHERE id = ?", Integer.class,
+                room.getId());
+    }
+
+    private int held(User user) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_has_reservation WHERE user_id = ?",
+                Integer.class, user.getId());
+    }
+
+    private void inTransaction(Runnable call) {
+        new TransactionTemplate(txManager).executeWithoutResult(status -> call.run());
+    }
+
+    @Test
+    void conditionalUpdatesStopAtTheCapacityBounds() {
+        Room room = room();
+
+        for (int i = 0; i < MAX; i++) {
+            assertEquals(1, roomRepository.incrementCapacity(room.getId(), MAX));
+        }
+        assertEquals(0, roomRepository.incrementCapacity(room.getId(), MAX));
+        assertEquals(MAX, placesTaken(room));
+
+        for (int i = 0; i < MAX; i++) {
+            assertEquals(1, roomRepository.decrementCapacity(room.getId()));
+        }
+        assertEquals(0, roomRepository.decrementCapacity(room.getId()));
+        assertEquals(0, placesTaken(room));
+    }
+
+    @Test
+    void fullRoomRefusesNextUserAndLeavingFreesOnePlace() {
+        Room room = room();
+        Reservation reservation = reservation(room);
+        User[] users = new User[MAX];
+        for (int i = 0; i < MAX; i++) {
+            users[i] = user();
+            Long userId = users[i].getId();
+            inTransaction(() -> userService.addUserReservation(userId, reservation.getId()));
+        }
+        assertEquals(MAX, placesTaken(room));
+
+        User late = user();
+        ApplicationException e = assertThrows(ApplicationException.class,
+                () -> inTransaction(() -> userService.addUserReservation(late.getId(), reservation.getId())));
+        assertEquals("Room capacity is full.", e.getMessage());
+        assertEquals(MAX, placesTaken(room));
+        assertEquals(0, held(late));
+
+        inTransaction(() -> userService.deleteReservationFromUser(users[0].getId(), reservation.getId()));
+        assertEquals(MAX - 1, placesTaken(room));
+        inTransaction(() -> userService.addUserReservation(late.getId(), reservation.getId()));
+        assertEquals(MAX, placesTaken(room));
+    }
+
+    @Test
+    void joiningTheSameReservationTwiceTakesOnePlace() {
+        Room room = room();
+        Reservation reservation = reservation(room);
+        User user = user();
+
+        inTransaction(() -> userService.addUserReservation(user.getId(), reservation.getId()));
+        assertThrows(ApplicationException.class,
+                () -> inTransaction(() -> userService.addUserReservation(user.getId(), reservation.getId())));
+
+        assertEquals(1, placesTaken(room));
+        assertEquals(1, held(user));
+    }
+
+    @Test
+    void leavingOneReservationKeepsTheOthers() {
+        Room first = room();
+        Room second = room();
+        Reservation kept = reservation(first);
+        Reservation left = reservation(second);
+        User user = user();
+        inTransaction(() -> userService.addUserReservation(user.getId(), kept.getId()));
+        inTransaction(() -> userService.addUserReservation(user.getId(), left.getId()));
+
+        inTransaction(() -> userService.deleteReservationFromUser(user.getId(), left.getId()));
+
+        assertEquals(1, held(user));
+        assertEquals(1, placesTaken(first));
+        assertEquals(0, placesTaken(second));
+    }
+}
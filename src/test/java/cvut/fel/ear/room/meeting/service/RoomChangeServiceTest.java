@@ -0,0 +1,98 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.dto.response.RoomChangeItem;
+import cvut.fel.ear.room.meeting.dto.response.RoomChanges;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.entity.RoomChangeType;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:room-changes;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never"
+})
+class RoomChangeServiceTest {
+
+    @Autowired
+    private RoomChangeService changeService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private Room room(String name) {
+        Room room = new Room();
+        room.setName(name);
+        room.setText("Change feed");
+        room.setPricePerHour(100D);
+        room.setRoomCapacity(0);
+        room.setDateOfCreate(LocalDateTime.now());
+        return roomRepository.save(room);
+    }
+
+    private static List<RoomChangeType> types(RoomChanges changes) {
+        return changes.changes().stream().map(RoomChangeItem::type).toList();
+    }
+
+    @Test
+    void changesAreVersionedPerRoomAndReturnedAsDeltas() {
+        Room first = room("Feed first");
+        Room second = room("Feed second");
+        LocalDateTime start = YearMonth.now().atEndOfMonth().atTime(20, 0);
+        Reservation reservation = reservationService.createReservation(start, start.plusHours(1));
+        paymentService.createPayment(reservation.getId());
+
+        reservationService.addReservationRoom(reservation.getId(), first.getId());
+
+        RoomChanges reset = changeService.getChanges(first.getId(), null, 10);
+        assertTrue(reset.reset());
+        assertEquals(1, reset.version());
+        assertEquals(List.of(reservation.getId()),
+                reset.changes().stream().map(RoomChangeItem::reservationId).toList());
+
+        reservationService.addReservationRoom(reservation.getId(), second.getId());
+        reservationService.deleteReservation(reservation.getId());
+
+        RoomChanges firstChanges = changeService.getChanges(first.getId(), reset.version(), 10);
+        assertFalse(firstChanges.reset());
+        assertEquals(2, firstChanges.version());
+        assertEquals(List.of(RoomChangeType.REMOVE), types(firstChanges));
+
+        RoomChanges secondChanges = changeService.getChanges(second.getId(), 0L, 1);
+        assertEquals(1, secondChanges.version());
+        assertTrue(secondChanges.more());
+        assertEquals(List.of(RoomChangeType.UPSERT), types(secondChanges));
+        assertEquals(start, secondChanges.changes().get(0).start());
+        assertEquals(List.of(RoomChangeType.REMOVE), types(changeService.getChanges(second.getId(), 1L, 10)));
+        assertTrue(changeService.getChanges(second.getId(), 2L, 10).changes().isEmpty());
+    }
+
+    @Test
+    void versionAheadOfTheLogGetsReset() {
+        Room room = room("Feed reset");
+
+        RoomChanges changes = changeService.getChanges(room.getId(), 7L, 10);
+
+        assertTrue(changes.reset());
+        assertEquals(0, changes.version());
+        assertTrue(changes.changes().isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.dto.response.RoomChanges;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RoomChangeStreamsTest {
+
+    @Mock
+    private RoomChangeService changeService;
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    private RoomChangeStreams streams;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(changeService.getChanges(anyLong(), any(), anyInt())).thenAnswer(invocation ->
+                new RoomChanges(invocation.getArgument(0), 1, false, false, List.of()));
+        streams = new RoomChangeStreams(changeService, scheduled::add, Duration.ofMinutes(1), 2);
+    }
+
+    @Test
+    void pollHandsEveryRoomToTheExecutor() {
+        streams.subscribe(1L, 1L, new RecordingEmitter());
+        streams.subscribe(2L, 1L, new RecordingEmitter());
+        clearInvocations(changeService);
+
+        streams.pushAll();
+
+        verifyNoInteractions(changeService);
+        assertEquals(2, scheduled.size());
+        scheduled.forEach(Runnable::run);
+        verify(changeService, times(2)).getChanges(anyLong(), eq(1L), anyInt());
+    }
+
+    @Test
+    void closedStreamDropsItsRoom() {
+        RecordingEmitter closing = new RecordingEmitter();
+        streams.subscribe(1L, 1L, closing);
+        closing.closed = true;
+
+        streams.push(1L);
+
+        assertEquals(0, streams.size());
+        assertEquals(0, streams.streamedRooms());
+    }
+
+    @Test
+    void streamsBeyondTheLimitAreRefused() {
+        streams.subscribe(1L, 1L, new RecordingEmitter());
+        streams.subscribe(2L, 1L, new RecordingEmitter());
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> streams.subscribe(3L, 1L, new RecordingEmitter()));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getHttpStatus());
+        assertEquals(2, streams.size());
+        assertEquals(2, streams.streamedRooms());
+    }
+
+    /**
+     * Accepts events until its connection is closed.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private boolean closed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (closed) {
+                throw new IOException("Connection closed");
+            }
+        }
+    }
+}
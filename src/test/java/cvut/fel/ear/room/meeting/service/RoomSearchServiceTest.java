@@ -0,0 +1,118 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.dto.request.RoomSearchSort;
+import cvut.fel.ear.room.meeting.dto.response.RoomSummary;
+import cvut.fel.ear.room.meeting.entity.Payment;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.entity.User;
+import cvut.fel.ear.room.meeting.repository.PaymentRepository;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Room search on an in-memory H2 database. Bookings run in one transaction each, like a web request with
+ * open-session-in-view, which keeps the booked room in the persistence context.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:room-search;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never"
+})
+class RoomSearchServiceTest {
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    private List<Long> searchIds(Integer seats) {
+        return roomService.searchRooms(null, null, seats, null, null, "Search", RoomSearchSort.PRICE, 0, 10)
+                .items().stream()
+                .map(RoomSummary::id)
+                .toList();
+    }
+
+    private Long reservation(Room room, LocalDateTime start) {
+        Payment payment = new Payment();
+        payment.setTotalPrice(100D);
+        payment.setDateOfCreate(LocalDateTime.now());
+        Reservation reservation = new Reservation();
+        reservation.setPrice(100D);
+        reservation.setReservationDateTimeStart(start);
+        reservation.setReservationDateTimeEnd(start.plusHours(1));
+        reservation.setRoomReservation(room);
+        reservation.setReservationsPayment(paymentRepository.save(payment));
+        return reservationRepository.save(reservation).getId();
+    }
+
+    @Test
+    void bookedPlaceIsVisibleToSearchBySeats() {
+        Room room = roomService.createRoom("Search room", 100D, "Search");
+        Long reservationId = reservation(room, YearMonth.now().atEndOfMonth().atTime(20, 0));
+        User user = new User();
+        user.setUsername("searcher");
+        user.setEmail("searcher@search.com");
+        user.setPassword("password");
+        Long userId = userRepository.save(user).getId();
+        assertEquals(List.of(room.getId()), searchIds(UserService.MAX_ROOM_CAPACITY));
+
+        new TransactionTemplate(txManager).executeWithoutResult(
+                status -> userService.addUserReservation(userId, reservationId));
+
+        assertEquals(List.of(), searchIds(UserService.MAX_ROOM_CAPACITY));
+        assertEquals(List.of(room.getId()), searchIds(UserService.MAX_ROOM_CAPACITY - 1));
+        assertEquals(1, roomService.searchRooms(null, null, null, null, null, "Search", RoomSearchSort.PRICE, 0, 10)
+                .items().get(0).roomCapacity());
+    }
+
+    @Test
+    void freeRoomsLeaveOutBookedAndDeletedRooms() {
+        Room booked = roomService.createRoom("Free booked", 100D, "Free");
+        Room open = roomService.createRoom("Free open", 100D, "Free");
+        Room deleted = roomService.createRoom("Free deleted", 100D, "Free");
+        LocalDateTime start = YearMonth.now().atEndOfMonth().atTime(18, 0);
+        Long reservationId = reservation(null, start);
+        new TransactionTemplate(txManager).executeWithoutResult(
+                status -> reservationService.addReservationRoom(reservationId, booked.getId()));
+        roomService.deleteRoom(deleted.getId());
+
+        List<Long> free = roomService.getFreeRoomsBetweenTime(start, start.plusHours(1)).stream()
+                .map(RoomSummary::id)
+                .toList();
+
+        assertTrue(free.contains(open.getId()));
+        assertFalse(free.contains(booked.getId()));
+        assertFalse(free.contains(deleted.getId()));
+    }
+}
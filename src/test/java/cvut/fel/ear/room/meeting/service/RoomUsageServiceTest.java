@@ -0,0 +1,88 @@
+package cvut.fel.ear.room.meeting.service;
+
+import cvut.fel.ear.room.meeting.dto.response.RoomUsageBucket;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.entity.UsageGranularity;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.service.event.ReservationChangedEvent;
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:room-usage;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "app.usage.flush-interval=PT1H"
+})
+class RoomUsageServiceTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2023, 1, 9, 9, 0);
+
+    @Autowired
+    private RoomUsageService service;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        room = new Room();
+        room.setName("Usage " + System.nanoTime());
+        room.setText("Usage");
+        room.setPricePerHour(100D);
+        room.setRoomCapacity(0);
+        room.setDateOfCreate(LocalDateTime.now());
+        room = roomRepository.save(room);
+    }
+
+    private ReservationSnapshot booking(long id, LocalDateTime start, int hours) {
+        return new ReservationSnapshot(id, room.getId(), start, start.plusHours(hours), 100D * hours);
+    }
+
+    @Test
+    void flushedChangesAddUpInEveryGranularity() {
+        service.onReservationChanged(ReservationChangedEvent.created(booking(1L, NINE, 2)));
+        service.flush();
+        service.onReservationChanged(ReservationChangedEvent.created(booking(2L, NINE.plusDays(1), 1)));
+        service.flush();
+
+        List<RoomUsageBucket> hours = service.getUsage(room.getId(), UsageGranularity.HOUR, NINE, NINE.plusDays(2));
+        List<RoomUsageBucket> days = service.getUsage(room.getId(), UsageGranularity.DAY, NINE, NINE.plusDays(2));
+        List<RoomUsageBucket> months = service.getUsage(room.getId(), UsageGranularity.MONTH, NINE, NINE.plusDays(2));
+
+        assertEquals(3, hours.size());
+        assertEquals(1.0, hours.get(0).utilisation());
+        assertEquals(List.of(120L, 60L), days.stream().map(RoomUsageBucket::occupiedMinutes).toList());
+        assertEquals(1, months.size());
+        assertEquals(180, months.get(0).occupiedMinutes());
+        assertEquals(300.0, months.get(0).revenue());
+        assertEquals(2, months.get(0).reservations());
+    }
+
+    @Test
+    void deletedReservationIsSubtracted() {
+        ReservationSnapshot booking = booking(3L, NINE, 1);
+        service.onReservationChanged(ReservationChangedEvent.created(booking));
+        service.flush();
+        service.onReservationChanged(ReservationChangedEvent.deleted(booking));
+        service.flush();
+
+        RoomUsageBucket day = service.getUsage(room.getId(), UsageGranularity.DAY, NINE, NINE.plusDays(1)).get(0);
+
+        assertEquals(0, day.occupiedMinutes());
+        assertEquals(0, day.reservations());
+    }
+}
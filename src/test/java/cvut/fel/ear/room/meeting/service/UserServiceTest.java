@@ -1,5 +1,6 @@
 package cvut.fel.ear.room.meeting.service;
 
+import cvut.fel.ear.room.meeting.dto.response.CursorPage;
 import cvut.fel.ear.room.meeting.entity.User;
 import cvut.fel.ear.room.meeting.exception.ApplicationException;
 import cvut.fel.ear.room.meeting.repository.UserRepository;
@@ -11,7 +12,6 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,11 +39,11 @@ class UserServiceTest {
         List<User> userList = new ArrayList<>();
         userList.add(new User());
         userList.add(new User());
-        when(userRepository.findAll()).thenReturn(userList);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(userList);
 
-        Collection<User> users = userService.getUsers();
-        assertEquals(userList, users);
-        verify(userRepository).findAll();
+        CursorPage<User> users = userService.getUsers(null, 10);
+        assertEquals(userList, users.items());
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(eq(0L), any());
     }
 
     @Test
@@ -0,0 +1,140 @@
+package cvut.fel.ear.room.meeting.service.availability;
+
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomAvailabilityIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2022, 12, 12, 0, 0);
+
+    private static final Clock DECEMBER = Clock.fixed(DAY.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    private RoomAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RoomAvailabilityIndex(DECEMBER);
+        index.put(reservation(1L, 1L, 9, 11));
+        index.put(reservation(2L, 1L, 13, 14));
+        index.put(reservation(3L, 2L, 8, 18));
+    }
+
+    @Test
+    void isFreeWhenWindowOverlapsReservationReturnsFalse() {
+        assertFalse(index.isFree(1L, DAY.withHour(10), DAY.withHour(12)));
+        assertFalse(index.isFree(1L, DAY.withHour(12), DAY.withHour(13).withMinute(30)));
+    }
+
+    @Test
+    void isFreeWhenReservationEnclosesWindowReturnsFalse() {
+        assertFalse(index.isFree(2L, DAY.withHour(10), DAY.withHour(11)));
+    }
+
+    @Test
+    void isFreeWhenWindowOnlyTouchesReservationsReturnsTrue() {
+        assertTrue(index.isFree(1L, DAY.withHour(11), DAY.withHour(13)));
+        assertTrue(index.isFree(1L, DAY.withHour(14), DAY.withHour(15)));
+    }
+
+    @Test
+    void isFreeForRoomWithoutReservationsReturnsTrue() {
+        assertTrue(index.isFree(3L, DAY.withHour(10), DAY.withHour(11)));
+    }
+
+    @Test
+    void putMovedReservationFreesPreviousSlot() {
+        index.put(reservation(1L, 1L, 15, 16));
+
+        assertTrue(index.isFree(1L, DAY.withHour(9), DAY.withHour(11)));
+        assertFalse(index.isFree(1L, DAY.withHour(15), DAY.withHour(16)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void removeReservationFreesSlot() {
+        index.remove(3L);
+
+        assertTrue(index.isFree(2L, DAY.withHour(10), DAY.withHour(11)));
+        assertTrue(index.get(3L).isEmpty());
+    }
+
+    @Test
+    void isFreeWhenReservationSharesOnlyPartOfSlotReturnsTrue() {
+        index.put(new ReservationSnapshot(4L, 3L, DAY.withHour(10).withMinute(7), DAY.withHour(10).withMinute(52), 0D));
+
+        assertTrue(index.isFree(3L, DAY.withHour(10).withMinute(52), DAY.withHour(11).withMinute(30)));
+        assertFalse(index.isFree(3L, DAY.withHour(10).withMinute(50), DAY.withHour(11)));
+    }
+
+    @Test
+    void isFreeIgnoringReservationDoesNotConflictWithItself() {
+        assertTrue(index.isFree(1L, DAY.withHour(9), DAY.withHour(12), 1L));
+        assertFalse(index.isFree(1L, DAY.withHour(9), DAY.withHour(14), 1L));
+    }
+
+    @Test
+    void isFreeOutsideSlotHorizonFallsBackToTimeline() {
+        RoomAvailabilityIndex nextYear = new RoomAvailabilityIndex(
+                Clock.fixed(DAY.plusYears(1).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        nextYear.put(reservation(1L, 1L, 9, 11));
+
+        assertFalse(nextYear.isFree(1L, DAY.withHour(10), DAY.withHour(12)));
+        assertTrue(nextYear.isFree(1L, DAY.withHour(11), DAY.withHour(12)));
+    }
+
+    @Test
+    void findOverlappingReturnsAllIntersectingReservations() {
+        List<ReservationSnapshot> overlapping =
+                index.findOverlapping(1L, DAY.withHour(10), DAY.withHour(13).withMinute(30));
+
+        assertEquals(2, overlapping.size());
+    }
+
+    @Test
+    void putReservationWithoutRoomIsNotIndexed() {
+        index.put(new ReservationSnapshot(4L, null, DAY.withHour(9), DAY.withHour(10), 0D));
+
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void removeRoomDropsItsReservationsAndSlots() {
+        index.removeRoom(1L);
+
+        assertEquals(1, index.size());
+        assertTrue(index.get(1L).isEmpty());
+        assertTrue(index.isFree(1L, DAY.withHour(9), DAY.withHour(14)));
+        assertFalse(index.isFree(2L, DAY.withHour(9), DAY.withHour(10)));
+    }
+
+    @Test
+    void releasedSlotRowIsClearedAndReusedByNextRoom() {
+        long start = RoomAvailabilityIndex.toSeconds(DAY);
+        SlotOccupancy slots = new SlotOccupancy(start, start + 24 * 3600);
+        for (long roomId = 1; roomId <= 16; roomId++) {
+            slots.mark(roomId, start, start + 3600);
+        }
+        long bytes = slots.memoryBytes();
+
+        slots.release(3L);
+        slots.mark(17L, start + 2 * 3600, start + 3 * 3600);
+
+        assertEquals(bytes, slots.memoryBytes());
+        assertTrue(slots.isClear(3L, start, start + 3600));
+        assertTrue(slots.isClear(17L, start, start + 3600));
+        assertFalse(slots.isClear(17L, start + 2 * 3600, start + 3 * 3600));
+        assertFalse(slots.isClear(4L, start, start + 3600));
+    }
+
+    private static ReservationSnapshot reservation(Long id, Long roomId, int startHour, int endHour) {
+        return new ReservationSnapshot(id, roomId, DAY.withHour(startHour), DAY.withHour(endHour), 100D);
+    }
+}
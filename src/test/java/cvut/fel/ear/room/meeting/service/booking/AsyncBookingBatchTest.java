@@ -0,0 +1,105 @@
+package cvut.fel.ear.room.meeting.service.booking;
+
+import cvut.fel.ear.room.meeting.config.AsyncBookingProperties;
+import cvut.fel.ear.room.meeting.dto.response.BookingTicket;
+import cvut.fel.ear.room.meeting.entity.Payment;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.entity.Room;
+import cvut.fel.ear.room.meeting.repository.PaymentRepository;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.service.ReservationService;
+import cvut.fel.ear.room.meeting.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Applies batches against the real services on an in-memory H2 database, where the availability index is only
+ * updated once a batch commits.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:async-booking;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never"
+})
+class AsyncBookingBatchTest {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    private final List<Runnable> workers = new ArrayList<>();
+
+    private Room room() {
+        Room room = new Room();
+        room.setName("Batch room");
+        room.setText("Async booking");
+        room.setPricePerHour(100D);
+        room.setRoomCapacity(0);
+        room.setDateOfCreate(LocalDateTime.now());
+        return roomRepository.save(room);
+    }
+
+    private Reservation reservation(LocalDateTime start) {
+        Payment payment = new Payment();
+        payment.setTotalPrice(0D);
+        payment.setDateOfCreate(LocalDateTime.now());
+        Reservation reservation = new Reservation();
+        reservation.setPrice(0D);
+        reservation.setReservationDateTimeStart(start);
+        reservation.setReservationDateTimeEnd(start.plusHours(1));
+        reservation.setReservationsPayment(paymentRepository.save(payment));
+        return reservationRepository.save(reservation);
+    }
+
+    @Test
+    void overlappingBookingsOfOneBatchDoNotBothGetTheRoom() {
+        AsyncBookingService service = new AsyncBookingService(reservationService, userService,
+                reservationRepository, roomRepository, txManager, new RestTemplate(), workers::add, Runnable::run,
+                new AsyncBookingProperties());
+        LocalDateTime start = YearMonth.now().atEndOfMonth().atTime(20, 0);
+        Room room = room();
+        Reservation first = reservation(start);
+        Reservation second = reservation(start.plusMinutes(30));
+
+        BookingTicket firstTicket = service.submitReservationRoom(first.getId(), room.getId(), null, "user");
+        BookingTicket secondTicket = service.submitReservationRoom(second.getId(), room.getId(), null, "user");
+        while (!workers.isEmpty()) {
+            workers.remove(0).run();
+        }
+
+        assertEquals(BookingTicket.State.SUCCEEDED,
+                service.getTicket(firstTicket.id(), "user", false).orElseThrow().state());
+        BookingTicket rejected = service.getTicket(secondTicket.id(), "user", false).orElseThrow();
+        assertEquals(BookingTicket.State.FAILED, rejected.state());
+        assertEquals(409, rejected.status());
+        assertNull(reservationRepository.findById(second.getId()).orElseThrow().getRoomReservation());
+    }
+}
@@ -0,0 +1,142 @@
+package cvut.fel.ear.room.meeting.service.booking;
+
+import cvut.fel.ear.room.meeting.config.AsyncBookingProperties;
+import cvut.fel.ear.room.meeting.dto.response.BookingTicket;
+import cvut.fel.ear.room.meeting.exception.ApplicationException;
+import cvut.fel.ear.room.meeting.repository.ReservationRepository;
+import cvut.fel.ear.room.meeting.repository.RoomRepository;
+import cvut.fel.ear.room.meeting.service.ReservationService;
+import cvut.fel.ear.room.meeting.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Workers are a list of tasks run by the test, so batches are formed deterministically.
+ */
+class AsyncBookingServiceTest {
+
+    private final List<Runnable> workers = new ArrayList<>();
+    private ReservationService reservationService;
+    private ReservationRepository reservationRepository;
+    private RoomRepository roomRepository;
+    private PlatformTransactionManager txManager;
+    private RestTemplate callbacks;
+    private AsyncBookingService service;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = mock(ReservationService.class);
+        reservationRepository = mock(ReservationRepository.class);
+        roomRepository = mock(RoomRepository.class);
+        when(roomRepository.existsById(any())).thenAnswer(invocation -> (Long) invocation.getArgument(0) < 100);
+        txManager = mock(PlatformTransactionManager.class);
+        callbacks = mock(RestTemplate.class);
+        AsyncBookingProperties properties = new AsyncBookingProperties();
+        properties.setQueueCapacity(3);
+        properties.setCallbackHosts(List.of("client"));
+        service = new AsyncBookingService(reservationService, mock(UserService.class), reservationRepository,
+                roomRepository, txManager, callbacks, workers::add, Runnable::run, properties);
+    }
+
+    private void runWorkers() {
+        while (!workers.isEmpty()) {
+            workers.remove(0).run();
+        }
+    }
+
+    private BookingTicket ticket(BookingTicket submitted) {
+        return service.getTicket(submitted.id(), "user", false).orElseThrow();
+    }
+
+    @Test
+    void appliesQueuedBookingsOfRoomInOneTransaction() {
+        BookingTicket first = service.submitReservationRoom(1L, 10L, null, "user");
+        BookingTicket second = service.submitReservationRoom(2L, 10L, null, "user");
+        assertEquals(1, workers.size());
+        assertEquals(BookingTicket.State.QUEUED, ticket(first).state());
+
+        runWorkers();
+
+        verify(txManager, times(1)).getTransaction(any());
+        verify(reservationService).addReservationRoom(1L, 10L);
+        verify(reservationService).addReservationRoom(2L, 10L);
+        assertEquals(BookingTicket.State.SUCCEEDED, ticket(first).state());
+        assertEquals(201, ticket(second).status());
+        assertEquals(0, service.queued());
+        assertEquals(0, service.rooms());
+    }
+
+    @Test
+    void failedBookingIsRetriedAloneAndOthersSucceed() {
+        doThrow(new ApplicationException(HttpStatus.CONFLICT, "Room is taken."))
+                .when(reservationService).addReservationRoom(2L, 10L);
+        BookingTicket first = service.submitReservationRoom(1L, 10L, null, "user");
+        BookingTicket second = service.submitReservationRoom(2L, 10L, URI.create("http://client/done"), "user");
+        BookingTicket third = service.submitReservationRoom(3L, 10L, null, "user");
+
+        runWorkers();
+
+        // The batch, then one transaction per booking
+        verify(txManager, times(4)).getTransaction(any());
+        assertEquals(BookingTicket.State.SUCCEEDED, ticket(first).state());
+        assertEquals(BookingTicket.State.FAILED, ticket(second).state());
+        assertEquals(409, ticket(second).status());
+        assertEquals("Room is taken.", ticket(second).message());
+        assertEquals(BookingTicket.State.SUCCEEDED, ticket(third).state());
+        verify(callbacks).postForEntity(URI.create("http://client/done"), ticket(second), Void.class);
+    }
+
+    @Test
+    void refusesBookingsWhenRoomQueueIsFull() {
+        for (long i = 0; i < 3; i++) {
+            service.submitReservationRoom(i, 10L, null, "user");
+        }
+
+        ApplicationException e = assertThrows(ApplicationException.class,
+                () -> service.submitReservationRoom(3L, 10L, null, "user"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getHttpStatus());
+        // Other rooms have their own queues
+        service.submitReservationRoom(3L, 11L, null, "user");
+        assertEquals(4, service.queued());
+    }
+
+    @Test
+    void refusesBookingsOfUnknownRoomsWithoutQueueingThem() {
+        ApplicationException e = assertThrows(ApplicationException.class,
+                () -> service.submitReservationRoom(1L, 100L, null, "user"));
+
+        assertEquals(HttpStatus.NOT_FOUND, e.getHttpStatus());
+        assertEquals(0, service.rooms());
+        assertTrue(workers.isEmpty());
+    }
+
+    @Test
+    void refusesCallbacksToHostsNotAllowed() {
+        ApplicationException e = assertThrows(ApplicationException.class, () -> service.submitReservationRoom(1L,
+                10L, URI.create("http://169.254.169.254/latest/meta-data"), "user"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getHttpStatus());
+        assertEquals(0, service.queued());
+    }
+
+    @Test
+    void ticketIsOnlyVisibleToItsOwner() {
+        when(reservationRepository.findRoomIdById(5L)).thenReturn(Optional.of(10L));
+        BookingTicket submitted = service.submitUserReservation(1L, 5L, null, "user");
+
+        assertTrue(service.getTicket(submitted.id(), "other", false).isEmpty());
+        assertTrue(service.getTicket(submitted.id(), "other", true).isPresent());
+    }
+}
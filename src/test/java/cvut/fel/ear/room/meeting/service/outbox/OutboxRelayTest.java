@@ -0,0 +1,86 @@
+package cvut.fel.ear.room.meeting.service.outbox;
+
+import cvut.fel.ear.room.meeting.entity.OutboxEvent;
+import cvut.fel.ear.room.meeting.entity.Reservation;
+import cvut.fel.ear.room.meeting.repository.OutboxEventRepository;
+import cvut.fel.ear.room.meeting.service.PaymentService;
+import cvut.fel.ear.room.meeting.service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "app.outbox.relay-interval=PT1H",
+        "app.outbox.batch-size=2"
+})
+class OutboxRelayTest {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OutboxEventRepository repository;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @MockBean
+    private OutboxSink sink;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void changesAreRecordedWithTheirTransactionAndRelayedInBatches() {
+        LocalDateTime start = YearMonth.now().atEndOfMonth().atTime(20, 0);
+        Reservation reservation = reservationService.createReservation(start, start.plusHours(1));
+        paymentService.createPayment(reservation.getId());
+        reservationService.deleteReservation(reservation.getId());
+
+        assertEquals(3, relay.relay());
+
+        ArgumentCaptor<List<OutboxMessage>> batches = ArgumentCaptor.forClass(List.class);
+        verify(sink, times(2)).publish(batches.capture());
+        List<OutboxMessage> messages = batches.getAllValues().stream().flatMap(List::stream).toList();
+        assertEquals(List.of("reservation.created", "payment.created", "reservation.deleted"),
+                messages.stream().map(OutboxMessage::type).toList());
+        assertEquals(reservation.getId(), messages.get(0).aggregateId());
+        assertTrue(repository.findAll().stream().allMatch(event -> event.getPublishedAt() != null));
+    }
+
+    @Test
+    void failedBatchStaysInTheOutbox() {
+        LocalDateTime start = YearMonth.now().atEndOfMonth().atTime(18, 0);
+        reservationService.createReservation(start, start.plusHours(1));
+        doThrow(new IllegalStateException("Sink is down.")).when(sink).publish(anyList());
+
+        assertEquals(0, relay.relay());
+
+        List<OutboxEvent> events = repository.findAll();
+        assertEquals(1, events.size());
+        assertNull(events.get(0).getPublishedAt());
+    }
+}
@@ -0,0 +1,112 @@
+package cvut.fel.ear.room.meeting.service.recurrence;
+
+import cvut.fel.ear.room.meeting.entity.RecurrenceFrequency;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest {
+
+    // A Monday
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2022, 12, 12, 10, 0);
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Test
+    void weeklySeriesWithCountStopsAfterCountOccurrences() {
+        RecurrenceRule rule = RecurrenceRule.of(MONDAY, HOUR, RecurrenceFrequency.WEEKLY, 2,
+                EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY), null, 5);
+
+        List<LocalDateTime> starts = rule.startsBetween(MONDAY, MONDAY.plusYears(1)).collect(Collectors.toList());
+
+        assertEquals(List.of(MONDAY, MONDAY.plusDays(2), MONDAY.plusDays(14), MONDAY.plusDays(16),
+                MONDAY.plusDays(28)), starts);
+        assertEquals(Optional.of(MONDAY.plusDays(28)), rule.lastStart());
+    }
+
+    @Test
+    void weeklySeriesStartingMidWeekSkipsEarlierDaysOfFirstWeek() {
+        LocalDateTime wednesday = MONDAY.plusDays(2);
+        RecurrenceRule rule = RecurrenceRule.of(wednesday, HOUR, RecurrenceFrequency.WEEKLY, 1,
+                EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY), null, 3);
+
+        assertEquals(Optional.of(wednesday), rule.firstStart());
+        assertEquals(Optional.of(MONDAY.plusDays(9)), rule.lastStart());
+    }
+
+    @Test
+    void dailySeriesWithUntilEndsOnLastMatchingDay() {
+        RecurrenceRule rule = RecurrenceRule.of(MONDAY, HOUR, RecurrenceFrequency.DAILY, 3, null,
+                LocalDate.of(2022, 12, 20), null);
+
+        assertEquals(Optional.of(MONDAY.plusDays(6)), rule.lastStart());
+        assertEquals(MONDAY.plusDays(6).plus(HOUR), rule.endBound());
+    }
+
+    @Test
+    void openEndedSeriesExpandsOnlyTheRequestedWindow() {
+        RecurrenceRule rule = RecurrenceRule.of(MONDAY, HOUR, RecurrenceFrequency.WEEKLY, 1,
+                EnumSet.of(DayOfWeek.TUESDAY), null, null);
+        LocalDateTime from = LocalDateTime.of(2122, 1, 1, 0, 0);
+
+        List<LocalDateTime> starts = rule.startsBetween(from, from.plusDays(14)).collect(Collectors.toList());
+
+        assertEquals(2, starts.size());
+        starts.forEach(start -> assertEquals(DayOfWeek.TUESDAY, start.getDayOfWeek()));
+        assertEquals(Optional.empty(), rule.lastStart());
+        assertEquals(LocalDateTime.MAX, rule.endBound());
+    }
+
+    @Test
+    void overlapsWindowTreatsTouchingOccurrencesAsFree() {
+        RecurrenceRule rule = RecurrenceRule.of(MONDAY, HOUR, RecurrenceFrequency.DAILY, 1, null, null, null);
+        LocalDateTime nextWeek = MONDAY.plusWeeks(1);
+
+        assertTrue(rule.overlaps(nextWeek.plusMinutes(30), nextWeek.plusHours(2)));
+        assertFalse(rule.overlaps(nextWeek.plus(HOUR), nextWeek.plusHours(3)));
+        assertFalse(rule.overlaps(nextWeek.minusHours(1), nextWeek));
+        assertFalse(rule.overlaps(MONDAY.minusDays(3), MONDAY.minusDays(1)));
+    }
+
+    @Test
+    void overlapsSeriesFindsCollisionWithinCombinedCycle() {
+        RecurrenceRule everySecondTuesday = RecurrenceRule.of(MONDAY.plusDays(1), HOUR,
+                RecurrenceFrequency.WEEKLY, 2, null, null, null);
+        RecurrenceRule everyThirdTuesday = RecurrenceRule.of(MONDAY.plusDays(8).plusMinutes(30), HOUR,
+                RecurrenceFrequency.WEEKLY, 3, null, null, null);
+        RecurrenceRule mondays = RecurrenceRule.of(MONDAY, HOUR, RecurrenceFrequency.WEEKLY, 1,
+                null, null, null);
+
+        assertTrue(everySecondTuesday.overlaps(everyThirdTuesday));
+        assertTrue(everyThirdTuesday.overlaps(everySecondTuesday));
+        assertFalse(everySecondTuesday.overlaps(mondays));
+    }
+
+    @Test
+    void overlapsSeriesRespectsEndOfEarlierSeries() {
+        RecurrenceRule shortSeries = RecurrenceRule.of(MONDAY, HOUR, RecurrenceFrequency.WEEKLY, 1,
+                null, null, 2);
+        RecurrenceRule laterSeries = RecurrenceRule.of(MONDAY.plusWeeks(2), HOUR, RecurrenceFrequency.WEEKLY, 1,
+                null, null, null);
+
+        assertFalse(shortSeries.overlaps(laterSeries));
+    }
+
+    @Test
+    void seriesEndingBeforeFirstOccurrenceIsEmpty() {
+        RecurrenceRule rule = RecurrenceRule.of(MONDAY.plusDays(2), HOUR, RecurrenceFrequency.WEEKLY, 1,
+                EnumSet.of(DayOfWeek.MONDAY), LocalDate.of(2022, 12, 18), null);
+
+        assertTrue(rule.isEmpty());
+        assertEquals(Optional.empty(), rule.lastStart());
+    }
+}
@@ -0,0 +1,88 @@
+package cvut.fel.ear.room.meeting.service.search;
+
+import cvut.fel.ear.room.meeting.dto.request.RoomSearchSort;
+import cvut.fel.ear.room.meeting.dto.response.RoomSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomSearchIndexTest {
+
+    private RoomSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RoomSearchIndex(5);
+        index.reset(List.of(
+                room(1L, "Alpha", 300.0, 0),
+                room(2L, "Apollo", 100.0, 4),
+                room(3L, "Atlas", 200.0, 2),
+                room(4L, "Borealis", 50.0, 1),
+                room(5L, "Aurora", 100.0, 0)));
+    }
+
+    @Test
+    void searchAppliesEveryFilter() {
+        RoomSearchQuery query = new RoomSearchQuery(2, 100.0, 250.0, "a", RoomSearchSort.PRICE);
+
+        assertEquals(List.of(5L, 3L), ids(index.search(query, roomId -> true, 0, 10)));
+    }
+
+    @Test
+    void fitRanksRoomsWithFewestFreePlacesFirst() {
+        RoomSearchQuery query = new RoomSearchQuery(1, null, null, null, RoomSearchSort.FIT);
+
+        assertEquals(List.of(2L, 3L, 4L, 5L, 1L), ids(index.search(query, roomId -> true, 0, 10)));
+    }
+
+    @Test
+    void searchPagesByOffsetAndChecksAvailabilityOnlyForCandidatesUntilPageIsFull() {
+        List<Long> checked = new ArrayList<>();
+        RoomSearchQuery query = new RoomSearchQuery(null, null, null, null, RoomSearchSort.PRICE_DESC);
+
+        List<RoomSummary> page = index.search(query, roomId -> checked.add(roomId) && roomId != 3L, 1, 2);
+
+        assertEquals(List.of(5L, 2L), ids(page));
+        assertEquals(List.of(1L, 3L, 5L, 2L), checked);
+    }
+
+    @Test
+    void putReplacesRoomAndRemoveDropsIt() {
+        index.put(room(1L, "Alpha", 10.0, 5));
+        index.remove(4L);
+        RoomSearchQuery query = new RoomSearchQuery(null, null, null, null, RoomSearchSort.PRICE);
+
+        assertEquals(List.of(1L, 2L, 5L, 3L), ids(index.search(query, roomId -> true, 0, 10)));
+        assertTrue(index.search(new RoomSearchQuery(1, null, 20.0, null, RoomSearchSort.PRICE),
+                roomId -> true, 0, 10).isEmpty());
+    }
+
+    @Test
+    void updatingPlacesOrPriceMovesRoomWithinOrderings() {
+        RoomSearchQuery fit = new RoomSearchQuery(null, null, null, null, RoomSearchSort.FIT);
+        RoomSearchQuery price = new RoomSearchQuery(null, null, null, null, RoomSearchSort.PRICE);
+
+        index.put(room(5L, "Aurora", 100.0, 5));
+        assertEquals(List.of(5L, 2L, 3L, 4L, 1L), ids(index.search(fit, roomId -> true, 0, 10)));
+        assertEquals(List.of(4L, 2L, 5L, 3L, 1L), ids(index.search(price, roomId -> true, 0, 10)));
+
+        index.put(room(4L, "Borealis", 250.0, 1));
+        assertEquals(List.of(2L, 5L, 3L, 4L, 1L), ids(index.search(price, roomId -> true, 0, 10)));
+        assertEquals(List.of(5L, 2L, 3L, 4L, 1L), ids(index.search(fit, roomId -> true, 0, 10)));
+
+        index.put(room(6L, "Cosmos", 150.0, 3));
+        assertEquals(List.of(2L, 5L, 6L, 3L, 4L, 1L), ids(index.search(price, roomId -> true, 0, 10)));
+    }
+
+    private static List<Long> ids(List<RoomSummary> rooms) {
+        return rooms.stream().map(RoomSummary::id).toList();
+    }
+
+    private static RoomSummary room(Long id, String name, Double price, int occupied) {
+        return new RoomSummary(id, name, price, null, null, occupied);
+    }
+}
@@ -0,0 +1,64 @@
+package cvut.fel.ear.room.meeting.service.usage;
+
+import cvut.fel.ear.room.meeting.service.event.ReservationSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsageAccumulatorTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2023, 1, 9, 9, 0);
+
+    private record Delta(long roomId, LocalDateTime hour, long minutes, double revenue, int reservations) {
+    }
+
+    private static List<Delta> deltas(UsageAccumulator accumulator) {
+        List<Delta> deltas = new ArrayList<>();
+        accumulator.forEach((roomId, hour, minutes, revenue, reservations) ->
+                deltas.add(new Delta(roomId, hour, minutes, revenue, reservations)));
+        return deltas;
+    }
+
+    @Test
+    void reservationIsSplitOverTheHoursItCovers() {
+        UsageAccumulator accumulator = new UsageAccumulator();
+
+        accumulator.add(new ReservationSnapshot(1L, 7L, NINE.plusMinutes(30), NINE.plusHours(2), 90.0), 1);
+
+        assertEquals(List.of(
+                new Delta(7L, NINE, 30, 30.0, 1),
+                new Delta(7L, NINE.plusHours(1), 60, 60.0, 0)), deltas(accumulator));
+    }
+
+    @Test
+    void movedReservationLeavesOnlyTheDifference() {
+        UsageAccumulator accumulator = new UsageAccumulator();
+        ReservationSnapshot before = new ReservationSnapshot(1L, 7L, NINE, NINE.plusHours(1), 50.0);
+        ReservationSnapshot after = new ReservationSnapshot(1L, 7L, NINE.plusHours(1), NINE.plusHours(2), 50.0);
+
+        accumulator.add(before, 1);
+        UsageAccumulator drained = accumulator.drain();
+        accumulator.add(before, -1);
+        accumulator.add(after, 1);
+        drained.addAll(accumulator);
+
+        assertEquals(List.of(new Delta(7L, NINE.plusHours(1), 60, 50.0, 1)), deltas(drained));
+    }
+
+    @Test
+    void drainEmptiesTheAccumulator() {
+        UsageAccumulator accumulator = new UsageAccumulator();
+        accumulator.add(new ReservationSnapshot(1L, 7L, NINE, NINE.plusHours(1), 50.0), 1);
+        accumulator.add(new ReservationSnapshot(2L, null, NINE, NINE.plusHours(1), 50.0), 1);
+
+        UsageAccumulator drained = accumulator.drain();
+
+        assertEquals(1, drained.size());
+        assertEquals(0, accumulator.size());
+        assertTrue(deltas(accumulator).isEmpty());
+    }
+}